@@ -0,0 +1,468 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.jiruffe.jiraffe;
+
+import com.jiruffe.jiraffe.util.ByteSlice;
+import com.jiruffe.jiraffe.util.CharacterUtil;
+import com.jiruffe.jiraffe.util.StringUtil;
+import com.jiruffe.jiraffe.util.StructureScanner;
+import com.jiruffe.jiraffe.util.SymbolTable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * {@link JSONSource} scanning UTF-8 bytes from an {@link InputStream}, a {@link ByteBuffer}, a {@code byte[]} or a {@link FileChannel}.
+ * All the structural characters of JSON are ASCII, and no byte of a multi-byte UTF-8 sequence is ASCII,
+ * so the bytes are scanned directly and only decoded when the text of a token is materialized.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+final class ByteSource extends JSONSource {
+
+    // size of the windows mapped from files
+    static final long WINDOW_SIZE = 1L << 26;
+
+    // the input, at most one of them is present besides the windows mapped from the channel
+    private final InputStream _in;
+    private ByteBuffer _byte_buffer;
+    private final FileChannel _channel;
+    private final long _window_size;
+    private long _channel_position = 0;
+    // the input is fed by feed(ByteBuffer) instead
+    private final boolean _push;
+    private boolean _ended = false;
+
+    private byte[] _buffer;
+    // the text of the current token contains bytes beyond ASCII
+    private boolean _non_ascii = false;
+    private final ByteSlice _text = new ByteSlice();
+
+    ByteSource(byte[] json, int offset, int length) {
+        _in = null;
+        _byte_buffer = null;
+        _channel = null;
+        _window_size = 0;
+        _push = false;
+        _exhausted = true;
+        _buffer = json;
+        _position = offset;
+        _limit = offset + length;
+        clearText();
+    }
+
+    ByteSource(ByteBuffer json) {
+        _in = null;
+        _channel = null;
+        _window_size = 0;
+        _push = false;
+        if (json.hasArray()) {
+            // read the backing array in place
+            _byte_buffer = null;
+            _exhausted = true;
+            _buffer = json.array();
+            _position = json.arrayOffset() + json.position();
+            _limit = json.arrayOffset() + json.limit();
+            _discarded = -json.arrayOffset();
+            clearText();
+        } else {
+            // direct or read-only buffer, copy it chunk by chunk without moving its position
+            _byte_buffer = json.duplicate();
+            _discarded = json.position();
+            _buffer = new byte[Math.max(16, Math.min(BUFFER_SIZE, json.remaining()))];
+        }
+    }
+
+    ByteSource(InputStream in) {
+        _in = in;
+        _byte_buffer = null;
+        _channel = null;
+        _window_size = 0;
+        _push = false;
+        _buffer = new byte[BUFFER_SIZE];
+    }
+
+    ByteSource(FileChannel channel) {
+        this(channel, WINDOW_SIZE);
+    }
+
+    ByteSource(FileChannel channel, long window_size) {
+        _in = null;
+        _byte_buffer = null;
+        _channel = channel;
+        _window_size = window_size;
+        _push = false;
+        _buffer = new byte[BUFFER_SIZE];
+    }
+
+    ByteSource() {
+        _in = null;
+        _byte_buffer = null;
+        _channel = null;
+        _window_size = 0;
+        _push = true;
+        _buffer = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Appends the remaining bytes of the {@link ByteBuffer} to the input, moving its position to its limit.
+     *
+     * @param bytes the bytes fed.
+     */
+    void feed(ByteBuffer bytes) {
+
+        if (_ended) {
+            throw new IllegalStateException("Could not feed after the input ended");
+        }
+
+        // discard the bytes read, but keep the marked ones
+        int keep = discardable();
+        int remaining = _limit - keep;
+        int n = bytes.remaining();
+        if (remaining + n > _buffer.length) {
+            byte[] buffer = new byte[Math.max(remaining + n, _buffer.length << 1)];
+            System.arraycopy(_buffer, keep, buffer, 0, remaining);
+            _buffer = buffer;
+        } else if (keep > 0) {
+            System.arraycopy(_buffer, keep, _buffer, 0, remaining);
+        }
+        shift(keep);
+
+        bytes.get(_buffer, _limit, n);
+        _limit += n;
+
+    }
+
+    /**
+     * Marks the end of the input fed.
+     */
+    void end() {
+        _ended = true;
+    }
+
+    @Override
+    int peekSignificant() {
+
+        int p = _position;
+        int limit = _limit;
+        byte[] buffer = _buffer;
+
+        while (true) {
+            while (p < limit) {
+                int c = buffer[p] & 0xff;
+                if (c >= 128 || CharacterUtil.SPACE != CharacterUtil.typeOf((char) c)) {
+                    _position = p;
+                    return c;
+                }
+                p++;
+            }
+            _position = p;
+            if (!fill()) {
+                return CharacterUtil.EOF;
+            }
+            p = _position;
+            limit = _limit;
+            buffer = _buffer;
+        }
+
+    }
+
+    @Override
+    void readQuoted(char quote) {
+
+        // skip the open quote
+        int p = ++_position;
+        int limit = _limit;
+        byte[] buffer = _buffer;
+        boolean escaped = false;
+        boolean closed = false;
+        // or-ed bytes of the text, negative if any of them is beyond ASCII
+        int bits = 0;
+        _mark = p;
+
+        while (true) {
+            // fast path inside the buffer
+            byte b = 0;
+            while (p < limit && quote != (b = buffer[p]) && '\\' != b) {
+                bits |= b;
+                p++;
+            }
+            if (p < limit) {
+                if (quote == b) {
+                    closed = true;
+                    break;
+                }
+                // the escaped character never closes the string
+                escaped = true;
+                p++;
+                if (p < limit) {
+                    bits |= buffer[p];
+                    p++;
+                    continue;
+                }
+                // the escaped character is not in the buffer yet
+                _position = p;
+                if (!fill()) {
+                    break;
+                }
+                p = _position;
+                limit = _limit;
+                buffer = _buffer;
+                bits |= buffer[p];
+                p++;
+                continue;
+            }
+            _position = p;
+            if (!fill()) {
+                break;
+            }
+            p = _position;
+            limit = _limit;
+            buffer = _buffer;
+        }
+
+        _text_start = _mark;
+        _text_end = Math.min(p, limit);
+        _escaped = escaped;
+        _non_ascii = bits < 0;
+        _position = closed ? p + 1 : _text_end;
+
+    }
+
+    @Override
+    void readLiteral() {
+
+        int p = _position;
+        int limit = _limit;
+        byte[] buffer = _buffer;
+        boolean escaped = false;
+        int bits = 0;
+        // length of the literal without trailing spaces
+        int len = 0;
+        _mark = p;
+
+        while (true) {
+            if (p >= limit) {
+                _position = p;
+                if (!fill()) {
+                    break;
+                }
+                p = _position;
+                limit = _limit;
+                buffer = _buffer;
+            }
+            byte b = buffer[p];
+            int type = b < 0 ? 0 : CharacterUtil.typeOf((char) b);
+            if (CharacterUtil.STRUCTURAL == type) {
+                break;
+            } else if (CharacterUtil.SPACE != type) {
+                len = p + 1 - _mark;
+                escaped |= CharacterUtil.BACKSLASH == type;
+                bits |= b;
+            }
+            p++;
+        }
+
+        _text_start = _mark;
+        _text_end = _mark + len;
+        _escaped = escaped;
+        _non_ascii = bits < 0;
+        _position = p;
+
+    }
+
+    @Override
+    void clearText() {
+        super.clearText();
+        _non_ascii = false;
+    }
+
+    @Override
+    boolean skipContainer() {
+
+        int p = _position;
+        int limit = _limit;
+        byte[] buffer = _buffer;
+        StructureScanner scanner = new StructureScanner(1);
+
+        while (true) {
+            while (p < limit) {
+                if (0 == scanner.step(buffer[p++] & 0xff)) {
+                    _position = p;
+                    return true;
+                }
+            }
+            _position = p;
+            if (!fill()) {
+                return false;
+            }
+            p = _position;
+            limit = _limit;
+            buffer = _buffer;
+        }
+
+    }
+
+    @Override
+    boolean canSkipContainer() {
+        // the input fed could end in the middle of the container
+        return !_push;
+    }
+
+    @Override
+    CharSequence text() {
+        if (_non_ascii) {
+            return decode();
+        } else {
+            return _text.set(_buffer, _text_start, _text_end - _text_start);
+        }
+    }
+
+    @Override
+    String materialize() {
+        String s = decode();
+        return _escaped ? StringUtil.unescape(s) : s;
+    }
+
+    @Override
+    String materialize(SymbolTable symbols) {
+        if (_escaped || _non_ascii) {
+            return materialize();
+        } else {
+            return symbols.lookup(_buffer, _text_start, _text_end - _text_start);
+        }
+    }
+
+    @Override
+    int indexOfLineFeed(int from) {
+        byte[] buffer = _buffer;
+        for (int p = from, limit = _limit; p < limit; p++) {
+            if ('\n' == buffer[p]) {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    String line() {
+        return new String(_buffer, _line_start, _line_end - _line_start, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        _byte_buffer = null;
+        if (null != _in) {
+            _in.close();
+        }
+        if (null != _channel) {
+            _channel.close();
+        }
+    }
+
+    private String decode() {
+        return new String(_buffer, _text_start, _text_end - _text_start, _non_ascii ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    boolean fill() {
+
+        if (_exhausted || _line_end >= 0) {
+            return false;
+        } else if (_push) {
+            // never refill from the input fed, but wait for more unless it ended
+            if (_ended) {
+                _exhausted = true;
+            } else {
+                _starved = true;
+            }
+            return false;
+        }
+
+        // discard the bytes read, but keep the marked ones
+        int keep = discardable();
+        int remaining = _limit - keep;
+        if (keep > 0) {
+            System.arraycopy(_buffer, keep, _buffer, 0, remaining);
+        } else if (remaining == _buffer.length) {
+            // the marked bytes fill the whole buffer
+            _buffer = Arrays.copyOf(_buffer, _buffer.length << 1);
+        }
+        shift(keep);
+
+        int n = read(_buffer, _limit, _buffer.length - _limit);
+        if (n <= 0) {
+            _exhausted = true;
+            return false;
+        }
+        _limit += n;
+        return true;
+
+    }
+
+    private int read(byte[] buffer, int offset, int length) {
+
+        if (null != _in) {
+            try {
+                int n;
+                do {
+                    n = _in.read(buffer, offset, length);
+                } while (0 == n);
+                return n;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        if ((null == _byte_buffer || !_byte_buffer.hasRemaining()) && !map()) {
+            return CharacterUtil.EOF;
+        }
+
+        int n = Math.min(length, _byte_buffer.remaining());
+        _byte_buffer.get(buffer, offset, n);
+        return n;
+
+    }
+
+    private boolean map() {
+
+        if (null == _channel) {
+            return false;
+        }
+
+        // map the next window, the previous one is released once unreachable
+        try {
+            long size = Math.min(_window_size, _channel.size() - _channel_position);
+            if (size <= 0) {
+                return false;
+            }
+            _byte_buffer = _channel.map(FileChannel.MapMode.READ_ONLY, _channel_position, size);
+            _channel_position += size;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+    }
+
+}
@@ -0,0 +1,329 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.jiruffe.jiraffe;
+
+import com.jiruffe.jiraffe.util.CharSlice;
+import com.jiruffe.jiraffe.util.CharacterUtil;
+import com.jiruffe.jiraffe.util.StringUtil;
+import com.jiruffe.jiraffe.util.StructureScanner;
+import com.jiruffe.jiraffe.util.SymbolTable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * {@link JSONSource} scanning chars from a {@link Reader}, a {@link CharSequence} or a {@code char[]}.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+final class CharSource extends JSONSource {
+
+    // the input, at most one of them is present
+    private final Reader _reader;
+    private final CharSequence _sequence;
+    private int _sequence_position = 0;
+    // the end of the range of the sequence read
+    private final int _sequence_end;
+
+    private char[] _buffer;
+    private final CharSlice _text = new CharSlice();
+
+    CharSource(CharSequence json) {
+        this(json, 0, Integer.MAX_VALUE);
+    }
+
+    CharSource(CharSequence json, int offset, int length) {
+        _reader = null;
+        _sequence = json;
+        _sequence_position = offset;
+        _discarded = offset;
+        _sequence_end = (int) Math.min(Integer.MAX_VALUE, (long) offset + length);
+        _buffer = new char[Math.max(16, Math.min(BUFFER_SIZE, Math.min(length, json.length() - offset)))];
+    }
+
+    CharSource(char[] json, int offset, int length) {
+        _reader = null;
+        _sequence = null;
+        _sequence_end = 0;
+        _exhausted = true;
+        _buffer = json;
+        _position = offset;
+        _limit = offset + length;
+        clearText();
+    }
+
+    CharSource(Reader reader) {
+        _reader = reader;
+        _sequence = null;
+        _sequence_end = 0;
+        _buffer = new char[BUFFER_SIZE];
+    }
+
+    @Override
+    int peekSignificant() {
+
+        int p = _position;
+        int limit = _limit;
+        char[] buffer = _buffer;
+
+        while (true) {
+            while (p < limit) {
+                char c = buffer[p];
+                if (CharacterUtil.SPACE != CharacterUtil.typeOf(c)) {
+                    _position = p;
+                    return c;
+                }
+                p++;
+            }
+            _position = p;
+            if (!fill()) {
+                return CharacterUtil.EOF;
+            }
+            p = _position;
+            limit = _limit;
+            buffer = _buffer;
+        }
+
+    }
+
+    @Override
+    void readQuoted(char quote) {
+
+        // skip the open quote
+        int p = ++_position;
+        int limit = _limit;
+        char[] buffer = _buffer;
+        boolean escaped = false;
+        boolean closed = false;
+        _mark = p;
+
+        while (true) {
+            // fast path inside the buffer
+            char c = 0;
+            while (p < limit && quote != (c = buffer[p]) && '\\' != c) {
+                p++;
+            }
+            if (p < limit) {
+                if (quote == c) {
+                    closed = true;
+                    break;
+                }
+                // the escaped character never closes the string
+                escaped = true;
+                p++;
+                if (p < limit) {
+                    p++;
+                    continue;
+                }
+                // the escaped character is not in the buffer yet
+                _position = p;
+                if (!fill()) {
+                    break;
+                }
+                p = _position + 1;
+                limit = _limit;
+                buffer = _buffer;
+                continue;
+            }
+            _position = p;
+            if (!fill()) {
+                break;
+            }
+            p = _position;
+            limit = _limit;
+            buffer = _buffer;
+        }
+
+        _text_start = _mark;
+        _text_end = Math.min(p, limit);
+        _escaped = escaped;
+        _position = closed ? p + 1 : _text_end;
+
+    }
+
+    @Override
+    void readLiteral() {
+
+        int p = _position;
+        int limit = _limit;
+        char[] buffer = _buffer;
+        boolean escaped = false;
+        // length of the literal without trailing spaces
+        int len = 0;
+        _mark = p;
+
+        while (true) {
+            if (p >= limit) {
+                _position = p;
+                if (!fill()) {
+                    break;
+                }
+                p = _position;
+                limit = _limit;
+                buffer = _buffer;
+            }
+            int type = CharacterUtil.typeOf(buffer[p]);
+            if (CharacterUtil.STRUCTURAL == type) {
+                break;
+            } else if (CharacterUtil.SPACE != type) {
+                len = p + 1 - _mark;
+                escaped |= CharacterUtil.BACKSLASH == type;
+            }
+            p++;
+        }
+
+        _text_start = _mark;
+        _text_end = _mark + len;
+        _escaped = escaped;
+        _position = p;
+
+    }
+
+    @Override
+    boolean skipContainer() {
+
+        int p = _position;
+        int limit = _limit;
+        char[] buffer = _buffer;
+        StructureScanner scanner = new StructureScanner(1);
+
+        while (true) {
+            while (p < limit) {
+                if (0 == scanner.step(buffer[p++])) {
+                    _position = p;
+                    return true;
+                }
+            }
+            _position = p;
+            if (!fill()) {
+                return false;
+            }
+            p = _position;
+            limit = _limit;
+            buffer = _buffer;
+        }
+
+    }
+
+    @Override
+    int indexOfLineFeed(int from) {
+        char[] buffer = _buffer;
+        for (int p = from, limit = _limit; p < limit; p++) {
+            if ('\n' == buffer[p]) {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    String line() {
+        return new String(_buffer, _line_start, _line_end - _line_start);
+    }
+
+    @Override
+    CharSequence text() {
+        return _text.set(_buffer, _text_start, _text_end - _text_start);
+    }
+
+    @Override
+    String materialize() {
+        if (_escaped) {
+            return StringUtil.unescape(text());
+        } else {
+            return new String(_buffer, _text_start, _text_end - _text_start);
+        }
+    }
+
+    @Override
+    String materialize(SymbolTable symbols) {
+        if (_escaped) {
+            return StringUtil.unescape(text());
+        } else {
+            return symbols.lookup(_buffer, _text_start, _text_end - _text_start);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (null != _reader) {
+            _reader.close();
+        }
+    }
+
+    @Override
+    boolean fill() {
+
+        if (_exhausted || _line_end >= 0) {
+            return false;
+        }
+
+        // discard the chars read, but keep the marked ones
+        int keep = discardable();
+        int remaining = _limit - keep;
+        if (keep > 0) {
+            System.arraycopy(_buffer, keep, _buffer, 0, remaining);
+        } else if (remaining == _buffer.length) {
+            // the marked chars fill the whole buffer
+            _buffer = Arrays.copyOf(_buffer, _buffer.length << 1);
+        }
+        shift(keep);
+
+        int n = read(_buffer, _limit, _buffer.length - _limit);
+        if (n <= 0) {
+            _exhausted = true;
+            return false;
+        }
+        _limit += n;
+        return true;
+
+    }
+
+    private int read(char[] buffer, int offset, int length) {
+
+        if (null != _reader) {
+            try {
+                int n;
+                do {
+                    n = _reader.read(buffer, offset, length);
+                } while (0 == n);
+                return n;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        int n = Math.min(length, Math.min(_sequence_end, _sequence.length()) - _sequence_position);
+        if (n <= 0) {
+            return CharacterUtil.EOF;
+        }
+        if (_sequence instanceof String) {
+            ((String) _sequence).getChars(_sequence_position, _sequence_position + n, buffer, offset);
+        } else {
+            for (int i = 0; i < n; i++) {
+                buffer[offset + i] = _sequence.charAt(_sequence_position + i);
+            }
+        }
+        _sequence_position += n;
+        return n;
+
+    }
+
+}
@@ -18,10 +18,19 @@ package com.jiruffe.jiraffe;
 
 import com.jiruffe.jiraffe.analyzer.DirectAnalyzer;
 import com.jiruffe.jiraffe.analyzer.ObjectAnalyzer;
+import com.jiruffe.jiraffe.analyzer.PathAnalyzer;
 import com.jiruffe.jiraffe.analyzer.StringAnalyzer;
+import com.jiruffe.jiraffe.model.JSONArena;
 import com.jiruffe.jiraffe.model.JSONElement;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
 
 /******************************************************************************
  *
@@ -60,6 +69,198 @@ public abstract class JSON {
         return StringAnalyzer.analyze(json);
     }
 
+    /**
+     * Deserializes the selected paths of JSON {@link String} to a sparse {@link JSONElement},
+     * such as {@code $.user.id} or {@code $.items[*].price}.
+     * The values not selected are skipped without being converted.
+     *
+     * @param json  the JSON {@link String} to be deserialized.
+     * @param paths the paths selected.
+     * @return the {@link JSONElement} deserialized.
+     * @see PathAnalyzer
+     */
+    public static JSONElement deserialize(String json, String... paths) {
+        return PathAnalyzer.analyze(json, paths);
+    }
+
+    /**
+     * Deserializes JSON {@link String} to {@link JSONElement} of which the elements are taken from the {@link JSONArena}.
+     * After {@link JSONArena#reset()} the elements are reused by the next deserialization,
+     * so a loop deserializing one document after another stops allocating them once the arena has grown.
+     *
+     * @param json  the JSON {@link String} to be deserialized.
+     * @param arena the {@link JSONArena}, confined to the current thread.
+     * @return the {@link JSONElement} deserialized, valid until the arena is reset.
+     */
+    public static JSONElement deserialize(String json, JSONArena arena) {
+        return StringAnalyzer.analyze(json, arena);
+    }
+
+    /**
+     * Deserializes JSON {@code char[]} to {@link JSONElement}, reading the array in place.
+     * String values without escapes are views of the array, copied only when {@link JSONElement#asString()} is called,
+     * so values could be filtered by {@link JSONElement#asCharSequence()} without being allocated.
+     *
+     * @param json the JSON {@code char[]} to be deserialized, which must not be modified afterwards.
+     * @return the {@link JSONElement} deserialized.
+     */
+    public static JSONElement deserializeInPlace(char[] json) {
+        return StringAnalyzer.analyzeInPlace(json);
+    }
+
+    /**
+     * Deserializes JSON {@link String} to {@link JSONElement} lazily.
+     * Only the structure is indexed, the sub-elements are materialized when first peeked, iterated or converted.
+     * Materializing is synchronized, so the result could be read from several threads, like one deserialized eagerly.
+     *
+     * @param json the JSON {@link String} to be deserialized.
+     * @return the {@link JSONElement} deserialized.
+     */
+    public static JSONElement deserializeLazily(String json) {
+        return JSONElement.newLazy(json);
+    }
+
+    /**
+     * Deserializes JSON {@code char[]} to {@link JSONElement} lazily, reading the array in place.
+     * Only the structure is indexed, and string values without escapes are views of the array,
+     * as those deserialized by {@link #deserializeInPlace(char[])}.
+     *
+     * @param json the JSON {@code char[]} to be deserialized, which must not be modified afterwards.
+     * @return the {@link JSONElement} deserialized.
+     */
+    public static JSONElement deserializeLazily(char[] json) {
+        return JSONElement.newLazy(json);
+    }
+
+    /**
+     * Deserializes JSON {@link String} to read-only {@link JSONElement} stored in a tape,
+     * a flat {@code long[]} and a pool of {@link String}s instead of an object per element, for large documents mostly read.
+     *
+     * @param json the JSON {@link String} to be deserialized.
+     * @return the {@link JSONElement} deserialized.
+     */
+    public static JSONElement deserializeToTape(String json) {
+        return JSONElement.newTape(json);
+    }
+
+    /**
+     * Opens a snapshot file written by {@link JSONElement#writeSnapshot(Path)},
+     * of which the elements are read in place from the memory-mapped file instead of being parsed.
+     *
+     * @param path the {@link Path} of the file.
+     * @return the {@link JSONElement} of the snapshot.
+     */
+    public static JSONElement openSnapshot(Path path) {
+        return JSONElement.openSnapshot(path);
+    }
+
+    /**
+     * Deserializes JSON {@link String} to {@link JSONElement}, parsing the elements of a top list in parallel.
+     * The elements are joined in the original order.
+     *
+     * @param json the JSON {@link String} to be deserialized.
+     * @param pool the {@link ForkJoinPool} to parse in.
+     * @return the {@link JSONElement} deserialized.
+     */
+    public static JSONElement deserializeParallel(String json, ForkJoinPool pool) {
+        return StringAnalyzer.analyze(json, pool);
+    }
+
+    /**
+     * Deserializes JSON read from {@link Reader} to {@link JSONElement}.
+     * The {@link Reader} is not closed.
+     *
+     * @param reader the {@link Reader} to be deserialized.
+     * @return the {@link JSONElement} deserialized.
+     */
+    public static JSONElement deserialize(Reader reader) {
+        return StringAnalyzer.analyze(new JSONReader(reader));
+    }
+
+    /**
+     * Deserializes JSON read from UTF-8 encoded {@link InputStream} to {@link JSONElement}.
+     * The {@link InputStream} is not closed.
+     *
+     * @param in the {@link InputStream} to be deserialized.
+     * @return the {@link JSONElement} deserialized.
+     */
+    public static JSONElement deserialize(InputStream in) {
+        return StringAnalyzer.analyze(new JSONReader(in));
+    }
+
+    /**
+     * Deserializes a range of UTF-8 encoded JSON {@code byte[]} to {@link JSONElement}.
+     * The bytes are parsed in place without decoding them to a {@link String} first.
+     *
+     * @param json   the UTF-8 encoded JSON {@code byte[]} to be deserialized.
+     * @param offset the start of the range.
+     * @param length the length of the range.
+     * @return the {@link JSONElement} deserialized.
+     */
+    public static JSONElement deserialize(byte[] json, int offset, int length) {
+        return StringAnalyzer.analyze(new JSONReader(json, offset, length));
+    }
+
+    /**
+     * Deserializes the remaining bytes of UTF-8 encoded JSON {@link ByteBuffer} to {@link JSONElement}.
+     * The position of the buffer is not changed.
+     *
+     * @param json the UTF-8 encoded JSON {@link ByteBuffer} to be deserialized.
+     * @return the {@link JSONElement} deserialized.
+     */
+    public static JSONElement deserialize(ByteBuffer json) {
+        return StringAnalyzer.analyze(new JSONReader(json));
+    }
+
+    /**
+     * Deserializes UTF-8 encoded JSON file to {@link JSONElement}.
+     * The file is memory-mapped window by window instead of being loaded onto the heap,
+     * so it could be larger than the maximum length of a {@link String}.
+     *
+     * @param path the {@link Path} of the file to be deserialized.
+     * @return the {@link JSONElement} deserialized.
+     */
+    public static JSONElement deserialize(Path path) {
+        try (JSONReader reader = new JSONReader(path)) {
+            return StringAnalyzer.analyze(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads JSON records concatenated or delimited by lines from {@link Reader}, each of them as {@link JSONElement}.
+     * The {@link Reader} is closed when the {@link JSONRecordReader} is closed.
+     *
+     * @param reader the {@link Reader} to be read.
+     * @return the {@link JSONRecordReader}.
+     */
+    public static JSONRecordReader<JSONElement> records(Reader reader) {
+        return records(reader, JSONElement.class);
+    }
+
+    /**
+     * Reads JSON records concatenated or delimited by lines from UTF-8 encoded {@link InputStream}, each of them as {@link JSONElement}.
+     * The {@link InputStream} is closed when the {@link JSONRecordReader} is closed.
+     *
+     * @param in the {@link InputStream} to be read.
+     * @return the {@link JSONRecordReader}.
+     */
+    public static JSONRecordReader<JSONElement> records(InputStream in) {
+        return records(in, JSONElement.class);
+    }
+
+    /**
+     * Reads JSON records concatenated or delimited by lines from UTF-8 encoded file, each of them as {@link JSONElement}.
+     * The file is closed when the {@link JSONRecordReader} is closed.
+     *
+     * @param path the {@link Path} of the file to be read.
+     * @return the {@link JSONRecordReader}.
+     */
+    public static JSONRecordReader<JSONElement> records(Path path) {
+        return records(path, JSONElement.class);
+    }
+
     /**
      * Directly serializes Java {@link Object} to JSON {@link String}.
      *
@@ -90,4 +291,123 @@ public abstract class JSON {
         }
     }
 
+    /**
+     * Directly deserializes JSON read from {@link Reader} to Java {@link Object}.
+     * The {@link Reader} is not closed.
+     *
+     * @param reader the {@link Reader} to be deserialized.
+     * @param target the target {@link Type}.
+     * @param <T>    the target {@link Type}.
+     * @return the Java {@link Object} deserialized.
+     */
+    public static <T> T parse(Reader reader, Type target) {
+        return parse(new JSONReader(reader), target);
+    }
+
+    /**
+     * Directly deserializes JSON read from UTF-8 encoded {@link InputStream} to Java {@link Object}.
+     * The {@link InputStream} is not closed.
+     *
+     * @param in     the {@link InputStream} to be deserialized.
+     * @param target the target {@link Type}.
+     * @param <T>    the target {@link Type}.
+     * @return the Java {@link Object} deserialized.
+     */
+    public static <T> T parse(InputStream in, Type target) {
+        return parse(new JSONReader(in), target);
+    }
+
+    /**
+     * Directly deserializes a range of UTF-8 encoded JSON {@code byte[]} to Java {@link Object}.
+     * The bytes are parsed in place without decoding them to a {@link String} first.
+     *
+     * @param json   the UTF-8 encoded JSON {@code byte[]} to be deserialized.
+     * @param offset the start of the range.
+     * @param length the length of the range.
+     * @param target the target {@link Type}.
+     * @param <T>    the target {@link Type}.
+     * @return the Java {@link Object} deserialized.
+     */
+    public static <T> T parse(byte[] json, int offset, int length, Type target) {
+        return parse(new JSONReader(json, offset, length), target);
+    }
+
+    /**
+     * Directly deserializes the remaining bytes of UTF-8 encoded JSON {@link ByteBuffer} to Java {@link Object}.
+     * The position of the buffer is not changed.
+     *
+     * @param json   the UTF-8 encoded JSON {@link ByteBuffer} to be deserialized.
+     * @param target the target {@link Type}.
+     * @param <T>    the target {@link Type}.
+     * @return the Java {@link Object} deserialized.
+     */
+    public static <T> T parse(ByteBuffer json, Type target) {
+        return parse(new JSONReader(json), target);
+    }
+
+    /**
+     * Directly deserializes UTF-8 encoded JSON file to Java {@link Object}.
+     * The file is memory-mapped window by window instead of being loaded onto the heap,
+     * so it could be larger than the maximum length of a {@link String}.
+     *
+     * @param path   the {@link Path} of the file to be deserialized.
+     * @param target the target {@link Type}.
+     * @param <T>    the target {@link Type}.
+     * @return the Java {@link Object} deserialized.
+     */
+    public static <T> T parse(Path path, Type target) {
+        try (JSONReader reader = new JSONReader(path)) {
+            return parse(reader, target);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads JSON records concatenated or delimited by lines from {@link Reader}, each of them as Java {@link Object}.
+     * The {@link Reader} is closed when the {@link JSONRecordReader} is closed.
+     *
+     * @param reader the {@link Reader} to be read.
+     * @param target the target {@link Type} of the records.
+     * @param <T>    the target {@link Type} of the records.
+     * @return the {@link JSONRecordReader}.
+     */
+    public static <T> JSONRecordReader<T> records(Reader reader, Type target) {
+        return new JSONRecordReader<>(new JSONReader(reader), target);
+    }
+
+    /**
+     * Reads JSON records concatenated or delimited by lines from UTF-8 encoded {@link InputStream}, each of them as Java {@link Object}.
+     * The {@link InputStream} is closed when the {@link JSONRecordReader} is closed.
+     *
+     * @param in     the {@link InputStream} to be read.
+     * @param target the target {@link Type} of the records.
+     * @param <T>    the target {@link Type} of the records.
+     * @return the {@link JSONRecordReader}.
+     */
+    public static <T> JSONRecordReader<T> records(InputStream in, Type target) {
+        return new JSONRecordReader<>(new JSONReader(in), target);
+    }
+
+    /**
+     * Reads JSON records concatenated or delimited by lines from UTF-8 encoded file, each of them as Java {@link Object}.
+     * The file is closed when the {@link JSONRecordReader} is closed.
+     *
+     * @param path   the {@link Path} of the file to be read.
+     * @param target the target {@link Type} of the records.
+     * @param <T>    the target {@link Type} of the records.
+     * @return the {@link JSONRecordReader}.
+     */
+    public static <T> JSONRecordReader<T> records(Path path, Type target) {
+        return new JSONRecordReader<>(new JSONReader(path), target);
+    }
+
+    static <T> T parse(JSONReader reader, Type target) {
+        if (target instanceof Class && JSONElement.class.isAssignableFrom((Class) target)) {
+            return (T) StringAnalyzer.analyze(reader);
+        } else {
+            return DirectAnalyzer.analyze(reader, target);
+        }
+    }
+
 }
@@ -0,0 +1,147 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.jiruffe.jiraffe;
+
+import com.jiruffe.jiraffe.analyzer.StringAnalyzer;
+import com.jiruffe.jiraffe.model.JSONElement;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Queue;
+
+/**
+ * Non-blocking parser to which UTF-8 encoded JSON is pushed chunk by chunk, for example as it arrives from a NIO channel.
+ * Tokens or elements are read as soon as the input fed allows, and the parser never blocks waiting for more input:
+ * it returns {@link JSONToken#NEED_INPUT} or {@code null} instead, and resumes where it stopped after the next {@link #feed(ByteBuffer)}.
+ * Only the input of the token incomplete is kept between feeds.
+ * Several documents could be fed one after another.
+ * Either {@link #nextToken()} or {@link #nextElement()} should be used, but not both.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+public class JSONPushParser {
+
+    private final ByteSource _source = new ByteSource();
+    private final JSONReader _reader = new JSONReader(_source);
+
+    // upper elements and keys of the element not completed yet
+    private final Queue<JSONElement> _bases = Collections.asLifoQueue(new ArrayDeque<>());
+    private final Queue<String> _keys = Collections.asLifoQueue(new ArrayDeque<>());
+
+    /**
+     * Feeds the remaining bytes of the {@link ByteBuffer}, moving its position to its limit.
+     *
+     * @param bytes the bytes fed.
+     * @return this parser itself.
+     */
+    public JSONPushParser feed(ByteBuffer bytes) {
+        _source.feed(bytes);
+        return this;
+    }
+
+    /**
+     * Feeds a range of {@code byte[]}.
+     *
+     * @param bytes  the bytes fed.
+     * @param offset the start of the range.
+     * @param length the length of the range.
+     * @return this parser itself.
+     */
+    public JSONPushParser feed(byte[] bytes, int offset, int length) {
+        return feed(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    /**
+     * Marks the end of the input, so that the last token is completed by the end instead of waiting for more input.
+     *
+     * @return this parser itself.
+     */
+    public JSONPushParser end() {
+        _source.end();
+        return this;
+    }
+
+    /**
+     * Reads the next token from the input fed.
+     * Returns {@link JSONToken#END_DOCUMENT} after each document, and keeps returning it after the end of the input.
+     *
+     * @return the next {@link JSONToken}, or {@link JSONToken#NEED_INPUT} if more input is needed.
+     */
+    public JSONToken nextToken() {
+        JSONToken token = _reader.nextToken();
+        if (JSONToken.END_DOCUMENT == token) {
+            _reader.reopen();
+        }
+        return token;
+    }
+
+    /**
+     * Get the name read if the current token is {@link JSONToken#NAME}.
+     *
+     * @return the unescaped name, or {@code null} if the current token is not {@link JSONToken#NAME}.
+     * @see JSONReader#name()
+     */
+    public String name() {
+        return _reader.name();
+    }
+
+    /**
+     * Get the value read if the current token is {@link JSONToken#STRING}, {@link JSONToken#NUMBER} or {@link JSONToken#BOOLEAN}.
+     *
+     * @return the value, or {@code null} if the current token is not a value.
+     * @see JSONReader#value()
+     */
+    public String value() {
+        return _reader.value();
+    }
+
+    /**
+     * Get the raw text of the current token, only valid until the next call of {@link #nextToken()} or {@link #feed(ByteBuffer)}.
+     *
+     * @return the raw text of the current token.
+     * @see JSONReader#text()
+     */
+    public CharSequence text() {
+        return _reader.text();
+    }
+
+    /**
+     * Get the number of maps and lists entered but not yet ended.
+     *
+     * @return the current nesting depth.
+     */
+    public int depth() {
+        return _reader.depth();
+    }
+
+    /**
+     * Reads the next top element from the input fed.
+     * The element is built as the input arrives, so it is returned as soon as its last token is fed.
+     *
+     * @return the next top element, or {@code null} if more input is needed or there is no more element after the end.
+     */
+    public JSONElement nextElement() {
+        JSONElement element = StringAnalyzer.analyze(_reader, _bases, _keys);
+        if (null != element) {
+            _reader.reopen();
+        }
+        return element;
+    }
+
+}
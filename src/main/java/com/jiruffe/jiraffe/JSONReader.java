@@ -0,0 +1,651 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.jiruffe.jiraffe;
+
+import com.jiruffe.jiraffe.util.CharacterUtil;
+import com.jiruffe.jiraffe.util.NumberScanner;
+import com.jiruffe.jiraffe.util.StringUtil;
+import com.jiruffe.jiraffe.util.SymbolTable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Pull parser reading JSON tokens one by one from a {@link Reader}, an {@link InputStream}, a {@link CharSequence}, a {@code char[]},
+ * a {@code byte[]}, a {@link ByteBuffer} or a memory-mapped file.
+ * The input is consumed through a small fixed buffer with an index cursor,
+ * so the memory used by the reader depends on the nesting depth rather than the document size.
+ * The text of a token is only copied when {@link #name()} or {@link #value()} is called,
+ * and names and short strings repeating are shared through {@link SymbolTable}.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+public class JSONReader implements Closeable {
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int CLOSED_DOCUMENT = 1;
+    private static final int EMPTY_LIST = 2;
+    private static final int LIST_AFTER_VALUE = 3;
+    private static final int LIST_AFTER_COMMA = 4;
+    private static final int EMPTY_MAP = 5;
+    private static final int MAP_AFTER_NAME = 6;
+    private static final int MAP_AFTER_DANGLING_NAME = 7;
+    private static final int MAP_AFTER_VALUE = 8;
+    private static final int MAP_AFTER_COMMA = 9;
+
+    private final JSONSource _source;
+
+    // stack of scopes, the bottom one is the document
+    private int[] _scopes = new int[32];
+    private int _depth = 1;
+    // whether the end of the input ends the top list entered by enterList()
+    private boolean _entered = false;
+    // whether the document was ended by the end of the input inside a map or a list
+    private boolean _truncated = false;
+
+    // the current token, its text is kept by the source
+    private JSONToken _token = null;
+    private String _value = null;
+    private final NumberScanner _number = new NumberScanner();
+
+    /**
+     * Constructs a reader on JSON {@link CharSequence}.
+     *
+     * @param json the JSON {@link CharSequence} to be read.
+     */
+    public JSONReader(CharSequence json) {
+        this(new CharSource(json));
+    }
+
+    /**
+     * Constructs a reader on a range of JSON {@link CharSequence}.
+     *
+     * @param json   the JSON {@link CharSequence} to be read.
+     * @param offset the start of the range.
+     * @param length the length of the range.
+     */
+    public JSONReader(CharSequence json, int offset, int length) {
+        this(new CharSource(json, offset, length));
+    }
+
+    /**
+     * Constructs a reader on JSON {@code char[]}.
+     * The array is read in place and never modified.
+     *
+     * @param json the JSON {@code char[]} to be read.
+     */
+    public JSONReader(char[] json) {
+        this(json, 0, json.length);
+    }
+
+    /**
+     * Constructs a reader on a range of JSON {@code char[]}.
+     * The array is read in place and never modified.
+     *
+     * @param json   the JSON {@code char[]} to be read.
+     * @param offset the start of the range.
+     * @param length the length of the range.
+     */
+    public JSONReader(char[] json, int offset, int length) {
+        this(new CharSource(json, offset, length));
+    }
+
+    /**
+     * Constructs a reader on UTF-8 encoded JSON {@code byte[]}.
+     * The array is read in place and never modified.
+     *
+     * @param json the UTF-8 encoded JSON {@code byte[]} to be read.
+     */
+    public JSONReader(byte[] json) {
+        this(json, 0, json.length);
+    }
+
+    /**
+     * Constructs a reader on a range of UTF-8 encoded JSON {@code byte[]}.
+     * The array is read in place and never modified.
+     *
+     * @param json   the UTF-8 encoded JSON {@code byte[]} to be read.
+     * @param offset the start of the range.
+     * @param length the length of the range.
+     */
+    public JSONReader(byte[] json, int offset, int length) {
+        this(new ByteSource(json, offset, length));
+    }
+
+    /**
+     * Constructs a reader on the remaining bytes of UTF-8 encoded JSON {@link ByteBuffer}.
+     * Heap buffers are read in place, direct buffers are copied chunk by chunk.
+     * The position of the buffer is not changed.
+     *
+     * @param json the UTF-8 encoded JSON {@link ByteBuffer} to be read.
+     */
+    public JSONReader(ByteBuffer json) {
+        this(new ByteSource(json));
+    }
+
+    /**
+     * Constructs a reader on UTF-8 encoded {@link InputStream}.
+     * The bytes are scanned without decoding them to chars first.
+     *
+     * @param in the {@link InputStream} to be read.
+     */
+    public JSONReader(InputStream in) {
+        this(new ByteSource(in));
+    }
+
+    /**
+     * Constructs a reader on UTF-8 encoded JSON file.
+     * The file is memory-mapped window by window, so files larger than 2GB could be read
+     * and the I/O is left to the page cache of the OS.
+     * The file is opened by the reader and must be released by {@link #close()}.
+     *
+     * @param path the {@link Path} of the file to be read.
+     */
+    public JSONReader(Path path) {
+        this(new ByteSource(open(path)));
+    }
+
+    /**
+     * Constructs a reader on {@link Reader}.
+     *
+     * @param reader the {@link Reader} to be read.
+     */
+    public JSONReader(Reader reader) {
+        this(new CharSource(reader));
+    }
+
+    JSONReader(JSONSource source) {
+        _source = source;
+        _scopes[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Reads the next token.
+     * Returns {@link JSONToken#END_DOCUMENT} once the top element has been read completely or the input is exhausted.
+     * Returns {@link JSONToken#NEED_INPUT} if the input fed to a {@link JSONPushParser} ends in the middle of a token.
+     *
+     * @return the next {@link JSONToken}.
+     */
+    public JSONToken nextToken() {
+
+        _value = null;
+        _source.clearText();
+
+        int position = _source._position;
+        int depth = _depth;
+        int scope = _scopes[depth - 1];
+        int document = _scopes[0];
+
+        _token = readToken();
+
+        if (_source._starved) {
+            // the token is incomplete, roll back to read it again once more input is fed
+            _source._starved = false;
+            _source._position = position;
+            _source.clearText();
+            _depth = depth;
+            _scopes[depth - 1] = scope;
+            _scopes[0] = document;
+            _token = JSONToken.NEED_INPUT;
+        }
+
+        return _token;
+
+    }
+
+    /**
+     * Get the name read if the current token is {@link JSONToken#NAME}.
+     *
+     * @return the unescaped name, or {@code null} if the current token is not {@link JSONToken#NAME}.
+     */
+    public String name() {
+        if (JSONToken.NAME != _token) {
+            return null;
+        } else if (null == _value) {
+            _value = _source.materialize(SymbolTable.NAMES);
+        }
+        return _value;
+    }
+
+    /**
+     * Get the value read if the current token is {@link JSONToken#STRING}, {@link JSONToken#NUMBER} or {@link JSONToken#BOOLEAN}.
+     * The value of {@link JSONToken#STRING} is unescaped, the others are returned as literal.
+     *
+     * @return the value, or {@code null} if the current token is not a value.
+     */
+    public String value() {
+        if (JSONToken.STRING != _token && JSONToken.NUMBER != _token && JSONToken.BOOLEAN != _token) {
+            return null;
+        } else if (null == _value) {
+            _value = JSONToken.STRING == _token ? _source.materialize(SymbolTable.VALUES) : _source.materialize();
+        }
+        return _value;
+    }
+
+    /**
+     * Get the number read if the current token is {@link JSONToken#NUMBER}.
+     * The number is scanned once as the token is read, right from the buffer.
+     *
+     * @return the {@link Long}, {@link Double}, {@link java.math.BigInteger} or {@link java.math.BigDecimal} read,
+     * or {@code null} if the current token is not {@link JSONToken#NUMBER}.
+     */
+    public Number number() {
+        return JSONToken.NUMBER == _token ? _number.toNumber() : null;
+    }
+
+    /**
+     * Get the raw text of the current token without copying.
+     * Quoted names and strings are returned without quotes and not unescaped.
+     * The returned {@link CharSequence} is a view of the internal buffer,
+     * which is only valid until the next call of {@link #nextToken()}.
+     * Text beyond ASCII read from bytes is decoded, so it is a copy instead.
+     *
+     * @return the raw text of the current token, empty if there is no text.
+     */
+    public CharSequence text() {
+        return _source.text();
+    }
+
+    /**
+     * Get the offset in the input of the raw text of the current token, as returned by {@link #text()}.
+     * It is counted in chars if read from chars, or in bytes if read from bytes,
+     * from the start of the array, the {@link CharSequence} or the {@link ByteBuffer}, or from the first byte read.
+     *
+     * @return the offset of the raw text of the current token.
+     */
+    public long offset() {
+        return _source._discarded + _source._text_start;
+    }
+
+    /**
+     * Get whether the raw text of the current token has escapes, as tracked while reading it,
+     * so that {@link #text()} could be used as the unescaped one without scanning it again if not.
+     *
+     * @return {@code true} if the text has escapes, {@code false} otherwise.
+     */
+    public boolean escaped() {
+        return _source._escaped;
+    }
+
+    /**
+     * Get the number of maps and lists entered but not yet ended.
+     *
+     * @return the current nesting depth.
+     */
+    public int depth() {
+        return _depth - 1;
+    }
+
+    /**
+     * Skips the next value, including all sub-elements if it is a map or a list.
+     */
+    public void skipValue() {
+        JSONToken token = nextToken();
+        while (JSONToken.NAME == token) {
+            token = nextToken();
+        }
+        if (JSONToken.BEGIN_MAP == token || JSONToken.BEGIN_LIST == token) {
+            skipToEnd();
+        }
+    }
+
+    /**
+     * Skips the rest of the current map or list, including its end token.
+     * The input is scanned by matching brackets and quotes only, without reading any token inside.
+     */
+    public void skipToEnd() {
+
+        if (_depth <= 1) {
+            // no map or list entered
+            return;
+        }
+
+        if (!_source.canSkipContainer()) {
+            int depth = _depth;
+            while (_depth >= depth) {
+                JSONToken token = nextToken();
+                if (JSONToken.END_DOCUMENT == token || JSONToken.NEED_INPUT == token) {
+                    return;
+                }
+            }
+            return;
+        }
+
+        _value = null;
+        _source.clearText();
+        _token = _source.skipContainer() ? closeScope() : closeDocument();
+
+    }
+
+    /**
+     * Closes the underlying {@link Reader} or {@link InputStream}.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        _source.close();
+    }
+
+    /**
+     * Starts reading inside a list, as if its opening bracket had been read,
+     * for the input of the elements of a list only, such as a part of a list split at its commas.
+     * The end of the input then ends the list by {@link JSONToken#END_LIST}, after a trailing comma as well,
+     * so {@code 1,,2,} is read as {@code [1,null,2]}. Must be called before reading any token.
+     *
+     * @return this reader.
+     */
+    public JSONReader enterList() {
+        _scopes[0] = CLOSED_DOCUMENT;
+        openScope(EMPTY_LIST);
+        _entered = true;
+        return this;
+    }
+
+    /**
+     * Starts reading the next document concatenated after the one read completely.
+     */
+    void reopen() {
+        if (1 == _depth && CLOSED_DOCUMENT == _scopes[0]) {
+            _scopes[0] = EMPTY_DOCUMENT;
+            _truncated = false;
+        }
+    }
+
+    /**
+     * Skips spaces and stray tokens before the next document, must be called before reading any token of it.
+     *
+     * @return whether there is a next document.
+     */
+    boolean hasDocument() {
+        while (true) {
+            int c = _source.peekSignificant();
+            if (CharacterUtil.EOF == c) {
+                return false;
+            } else if (CharacterUtil.isStructural((char) c) && !CharacterUtil.isLeftBrackets((char) c)) {
+                // ignore stray tokens
+                _source.skip();
+                continue;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Get whether the document read was ended by the end of the input before its maps and lists were closed.
+     *
+     * @return {@code true} if the document is incomplete, {@code false} otherwise.
+     */
+    boolean truncated() {
+        return _truncated;
+    }
+
+    /**
+     * Fences the input at the end of the current line, so that the next document ends there.
+     *
+     * @return whether there is a line, {@code false} if the input is exhausted.
+     * @see JSONSource#fenceLine()
+     */
+    boolean fenceLine() {
+        return _source.fenceLine();
+    }
+
+    /**
+     * Removes the fence of the line, and moves to the start of the next line.
+     */
+    void unfenceLine() {
+        _source.unfenceLine();
+    }
+
+    /**
+     * Get the raw text of the line fenced.
+     *
+     * @return the raw text of the line.
+     */
+    String line() {
+        return _source.line();
+    }
+
+    private static FileChannel open(Path path) {
+        try {
+            return FileChannel.open(path, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private JSONToken readToken() {
+
+        while (true) {
+
+            int scope = _scopes[_depth - 1];
+            int c;
+
+            switch (scope) {
+
+                case EMPTY_DOCUMENT:
+                    if (!hasDocument()) {
+                        return closeDocument();
+                    }
+                    _scopes[_depth - 1] = CLOSED_DOCUMENT;
+                    return readValue((char) _source.peekSignificant());
+
+                case CLOSED_DOCUMENT:
+                    return JSONToken.END_DOCUMENT;
+
+                case EMPTY_LIST:
+                case LIST_AFTER_COMMA:
+                    c = _source.peekSignificant();
+                    if (CharacterUtil.EOF == c) {
+                        return closeDocument();
+                    } else if (CharacterUtil.isRightBrackets((char) c)) {
+                        if (EMPTY_LIST == scope) {
+                            _source.skip();
+                            return closeScope();
+                        }
+                        // empty value after comma
+                        _scopes[_depth - 1] = LIST_AFTER_VALUE;
+                        return JSONToken.VOID;
+                    } else if (CharacterUtil.isComma((char) c)) {
+                        // empty value before comma
+                        _source.skip();
+                        _scopes[_depth - 1] = LIST_AFTER_COMMA;
+                        return JSONToken.VOID;
+                    } else if (CharacterUtil.isColon((char) c)) {
+                        _source.skip();
+                        continue;
+                    }
+                    _scopes[_depth - 1] = LIST_AFTER_VALUE;
+                    return readValue((char) c);
+
+                case LIST_AFTER_VALUE:
+                    c = _source.peekSignificant();
+                    if (CharacterUtil.EOF == c) {
+                        return closeDocument();
+                    } else if (CharacterUtil.isRightBrackets((char) c)) {
+                        _source.skip();
+                        return closeScope();
+                    } else if (CharacterUtil.isComma((char) c)) {
+                        _source.skip();
+                        _scopes[_depth - 1] = LIST_AFTER_COMMA;
+                        continue;
+                    } else if (CharacterUtil.isColon((char) c)) {
+                        _source.skip();
+                        continue;
+                    }
+                    // missing comma
+                    return readValue((char) c);
+
+                case EMPTY_MAP:
+                case MAP_AFTER_COMMA:
+                    c = _source.peekSignificant();
+                    if (CharacterUtil.EOF == c) {
+                        return closeDocument();
+                    } else if (CharacterUtil.isRightBrackets((char) c)) {
+                        _source.skip();
+                        return closeScope();
+                    } else if (CharacterUtil.isComma((char) c)) {
+                        _source.skip();
+                        _scopes[_depth - 1] = MAP_AFTER_COMMA;
+                        continue;
+                    } else if (CharacterUtil.isColon((char) c)) {
+                        // empty name
+                        _source.skip();
+                        _scopes[_depth - 1] = MAP_AFTER_NAME;
+                        return JSONToken.NAME;
+                    } else if (CharacterUtil.isLeftBrackets((char) c)) {
+                        // missing name
+                        _scopes[_depth - 1] = MAP_AFTER_NAME;
+                        return JSONToken.NAME;
+                    }
+                    // the name is kept by the source while looking for the colon
+                    if (CharacterUtil.isQuote((char) c)) {
+                        _source.readQuoted((char) c);
+                    } else {
+                        _source.readLiteral();
+                    }
+                    c = _source.peekSignificant();
+                    if (CharacterUtil.isColon((char) c)) {
+                        _source.skip();
+                        _scopes[_depth - 1] = MAP_AFTER_NAME;
+                    } else {
+                        // name without value
+                        _scopes[_depth - 1] = MAP_AFTER_DANGLING_NAME;
+                    }
+                    return JSONToken.NAME;
+
+                case MAP_AFTER_NAME:
+                    c = _source.peekSignificant();
+                    if (CharacterUtil.EOF == c) {
+                        return closeDocument();
+                    } else if (CharacterUtil.isColon((char) c)) {
+                        _source.skip();
+                        continue;
+                    }
+                    _scopes[_depth - 1] = MAP_AFTER_VALUE;
+                    if (CharacterUtil.isComma((char) c) || CharacterUtil.isRightBrackets((char) c)) {
+                        // empty value
+                        return JSONToken.VOID;
+                    }
+                    return readValue((char) c);
+
+                case MAP_AFTER_DANGLING_NAME:
+                    _scopes[_depth - 1] = MAP_AFTER_VALUE;
+                    return JSONToken.VOID;
+
+                case MAP_AFTER_VALUE:
+                    c = _source.peekSignificant();
+                    if (CharacterUtil.EOF == c) {
+                        return closeDocument();
+                    } else if (CharacterUtil.isRightBrackets((char) c)) {
+                        _source.skip();
+                        return closeScope();
+                    } else if (CharacterUtil.isComma((char) c)) {
+                        _source.skip();
+                    } else if (CharacterUtil.isColon((char) c)) {
+                        _source.skip();
+                        continue;
+                    }
+                    // missing comma if neither
+                    _scopes[_depth - 1] = MAP_AFTER_COMMA;
+                    continue;
+
+                default:
+                    throw new IllegalStateException("Unknown scope " + scope);
+
+            }
+
+        }
+
+    }
+
+    private JSONToken readValue(char c) {
+
+        switch (c) {
+
+            case '{':
+                _source.skip();
+                openScope(EMPTY_MAP);
+                return JSONToken.BEGIN_MAP;
+
+            case '[':
+                _source.skip();
+                openScope(EMPTY_LIST);
+                return JSONToken.BEGIN_LIST;
+
+            case '"':
+            case '\'':
+                _source.readQuoted(c);
+                return JSONToken.STRING;
+
+            default:
+                _source.readLiteral();
+                CharSequence text = text();
+                if (_number.scan(text)) {
+                    return JSONToken.NUMBER;
+                } else if (StringUtil.equalsIgnoreCase(StringUtil.TRUE, text) || StringUtil.equalsIgnoreCase(StringUtil.FALSE, text)) {
+                    return JSONToken.BOOLEAN;
+                } else if (StringUtil.equalsIgnoreCase(StringUtil.NULL, text) || StringUtil.equalsIgnoreCase(StringUtil.UNDEFINED, text)
+                        || (3 == text.length() && 'N' == text.charAt(0) && 'a' == text.charAt(1) && 'N' == text.charAt(2))) {
+                    return JSONToken.VOID;
+                } else {
+                    return JSONToken.STRING;
+                }
+
+        }
+
+    }
+
+    private void openScope(int scope) {
+        if (_depth == _scopes.length) {
+            _scopes = Arrays.copyOf(_scopes, _depth << 1);
+        }
+        _scopes[_depth++] = scope;
+    }
+
+    private JSONToken closeScope() {
+        int scope = _scopes[--_depth];
+        if (1 == _depth) {
+            _entered = false;
+        }
+        if (EMPTY_LIST == scope || LIST_AFTER_VALUE == scope || LIST_AFTER_COMMA == scope) {
+            return JSONToken.END_LIST;
+        } else {
+            return JSONToken.END_MAP;
+        }
+    }
+
+    private JSONToken closeDocument() {
+        if (_entered && 2 == _depth) {
+            return closeScope();
+        }
+        _truncated = _depth > 1;
+        _depth = 1;
+        _scopes[0] = CLOSED_DOCUMENT;
+        return JSONToken.END_DOCUMENT;
+    }
+
+}
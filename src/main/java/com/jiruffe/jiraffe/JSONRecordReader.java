@@ -0,0 +1,327 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.jiruffe.jiraffe;
+
+import com.jiruffe.jiraffe.analyzer.ObjectAnalyzer;
+import com.jiruffe.jiraffe.analyzer.StringAnalyzer;
+import com.jiruffe.jiraffe.model.JSONElement;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+/**
+ * Reads a stream of JSON records, either concatenated one after another or delimited by lines (NDJSON),
+ * and converts each of them to {@link JSONElement} or Java {@link Object}.
+ * All records are read by one {@link JSONReader} right from its buffer, without copying their text.
+ * A record ended by the end of the input, or of its line, before its maps and lists are closed is an error.
+ * The records could be converted to Java {@link Object} in parallel by an {@link ExecutorService},
+ * and are still returned in the original order.
+ *
+ * @param <T> the type of the records converted.
+ * @author Jiruffe
+ * 2026.10.18
+ */
+public class JSONRecordReader<T> implements Iterator<T>, Closeable {
+
+    /**
+     * What to do with a record which could not be read or converted.
+     */
+    public enum ErrorPolicy {
+        /**
+         * Throws the exception, which aborts the reading.
+         */
+        FAIL,
+        /**
+         * Skips the record.
+         */
+        SKIP,
+        /**
+         * Returns {@code void} in place of the record.
+         */
+        VOID
+    }
+
+    private final JSONReader _reader;
+    private final Type _target;
+    private final boolean _elements;
+
+    private boolean _lines = false;
+    private ExecutorService _executor = null;
+    private int _window = 1;
+    private ErrorPolicy _policy = ErrorPolicy.FAIL;
+    private BiConsumer<String, RuntimeException> _listener = null;
+
+    // records read but not returned yet, in the original order
+    private final Deque<Future<Outcome>> _pending = new ArrayDeque<>();
+    private boolean _exhausted = false;
+    private boolean _has_next = false;
+    private T _next = null;
+
+    /**
+     * Constructs a record reader on {@link JSONReader}.
+     *
+     * @param reader the {@link JSONReader} to be read.
+     * @param target the target {@link Type} of the records.
+     */
+    JSONRecordReader(JSONReader reader, Type target) {
+        _reader = reader;
+        _target = target;
+        _elements = target instanceof Class && JSONElement.class.isAssignableFrom((Class<?>) target);
+    }
+
+    /**
+     * Treats each line as a record (NDJSON), so a broken record never swallows the following lines.
+     * Records are concatenated by default, which could also span several lines.
+     *
+     * @return this reader itself.
+     */
+    public JSONRecordReader<T> delimitedByLines() {
+        _lines = true;
+        return this;
+    }
+
+    /**
+     * Converts the records to Java {@link Object} in parallel by the {@link ExecutorService},
+     * while they are still read one after another as {@link JSONElement}.
+     * At most {@code window} records are read ahead and converted concurrently.
+     * Records read as {@link JSONElement} are not converted at all, so the executor is not used for them.
+     * The {@link ExecutorService} is not shut down when this reader is closed.
+     *
+     * @param executor the {@link ExecutorService} to convert the records in.
+     * @param window   the maximum number of records converting concurrently.
+     * @return this reader itself.
+     */
+    public JSONRecordReader<T> parallel(ExecutorService executor, int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Argument window must be positive");
+        }
+        _executor = executor;
+        _window = window;
+        return this;
+    }
+
+    /**
+     * Set the {@link ErrorPolicy} on records which could not be read or converted, {@link ErrorPolicy#FAIL} by default.
+     *
+     * @param policy the {@link ErrorPolicy}.
+     * @return this reader itself.
+     */
+    public JSONRecordReader<T> onError(ErrorPolicy policy) {
+        return onError(policy, null);
+    }
+
+    /**
+     * Set the {@link ErrorPolicy} on records which could not be read or converted, and a listener
+     * receiving the text and the exception of each of them before the policy is applied.
+     * The text is the raw line if the records are delimited by lines and the error is found while reading it,
+     * or the element read serialized if converted in parallel, {@code null} if neither is kept.
+     *
+     * @param policy   the {@link ErrorPolicy}.
+     * @param listener the listener, nullable.
+     * @return this reader itself.
+     */
+    public JSONRecordReader<T> onError(ErrorPolicy policy, BiConsumer<String, RuntimeException> listener) {
+        _policy = null == policy ? ErrorPolicy.FAIL : policy;
+        _listener = listener;
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!_has_next) {
+            _has_next = advance();
+        }
+        return _has_next;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        _has_next = false;
+        T next = _next;
+        _next = null;
+        return next;
+    }
+
+    /**
+     * Cancels the records converting and closes the underlying {@link JSONReader}.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        for (Future<Outcome> f : _pending) {
+            f.cancel(true);
+        }
+        _pending.clear();
+        _exhausted = true;
+        _reader.close();
+    }
+
+    private boolean advance() {
+
+        while (true) {
+
+            // keep the window full
+            while (!_exhausted && _pending.size() < _window) {
+                Future<Outcome> f = readRecord();
+                if (null == f) {
+                    _exhausted = true;
+                } else {
+                    _pending.offer(f);
+                }
+            }
+
+            Future<Outcome> f = _pending.poll();
+            if (null == f) {
+                return false;
+            }
+
+            Outcome outcome = await(f);
+            if (null == outcome.error) {
+                _next = outcome.value;
+                return true;
+            }
+
+            if (null != _listener) {
+                _listener.accept(outcome.record, outcome.error);
+            }
+            switch (_policy) {
+                case SKIP:
+                    continue;
+                case VOID:
+                    _next = theVoid();
+                    return true;
+                default:
+                    throw outcome.error;
+            }
+
+        }
+
+    }
+
+    /**
+     * Reads the next record, and converts it in place or submits it to convert in parallel.
+     *
+     * @return the {@link Outcome} of the record, or {@code null} if the input is exhausted.
+     */
+    private Future<Outcome> readRecord() {
+
+        while (true) {
+
+            _reader.reopen();
+            if (_lines && !_reader.fenceLine()) {
+                return null;
+            }
+            if (!_reader.hasDocument()) {
+                if (_lines) {
+                    // blank line
+                    _reader.unfenceLine();
+                    continue;
+                }
+                return null;
+            }
+
+            try {
+                if (null == _executor || _elements) {
+                    T value = JSON.parse(_reader, _target);
+                    return CompletableFuture.completedFuture(_reader.truncated() ? incomplete() : new Outcome(null, value, null));
+                }
+                JSONElement element = StringAnalyzer.analyze(_reader);
+                if (_reader.truncated()) {
+                    return CompletableFuture.completedFuture(incomplete());
+                }
+                return _executor.submit(() -> convert(element));
+            } catch (RuntimeException e) {
+                // skip the rest of the record
+                while (_reader.depth() > 0) {
+                    _reader.skipToEnd();
+                }
+                return CompletableFuture.completedFuture(new Outcome(line(), null, e));
+            } finally {
+                if (_lines) {
+                    _reader.unfenceLine();
+                }
+            }
+
+        }
+
+    }
+
+    private Outcome incomplete() {
+        return new Outcome(line(), null, new IllegalArgumentException("Could not read incomplete record"));
+    }
+
+    private String line() {
+        return _lines ? _reader.line().trim() : null;
+    }
+
+    private Outcome convert(JSONElement element) {
+        try {
+            return new Outcome(null, ObjectAnalyzer.analyze(element, _target), null);
+        } catch (RuntimeException e) {
+            return new Outcome(StringAnalyzer.analyze(element), null, e);
+        }
+    }
+
+    private Outcome await(Future<Outcome> f) {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while converting records", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not convert record", e.getCause());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T theVoid() {
+        return _elements ? (T) JSONElement.theVoid() : null;
+    }
+
+    /**
+     * Result of reading or converting a record.
+     */
+    private final class Outcome {
+
+        // the text of the record failed, null if not kept
+        private final String record;
+        private final T value;
+        private final RuntimeException error;
+
+        private Outcome(String record, T value, RuntimeException error) {
+            this.record = record;
+            this.value = value;
+            this.error = error;
+        }
+
+    }
+
+}
@@ -0,0 +1,235 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.jiruffe.jiraffe;
+
+import com.jiruffe.jiraffe.util.SymbolTable;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Input of {@link JSONReader}, scanning the raw text through a buffer with an index cursor.
+ * The text of the last token read is the range [_text_start, _text_end) of the buffer,
+ * which is kept while refilling until {@link #clearText()} is called.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+abstract class JSONSource implements Closeable {
+
+    static final int BUFFER_SIZE = 8192;
+
+    int _position = 0;
+    int _limit = 0;
+    // offset in the input of the start of the buffer, moved on by the chars discarded while refilling
+    long _discarded = 0;
+    // start of the chars which must be kept while refilling the buffer, -1 if none
+    int _mark = -1;
+    // no more input beyond the buffer
+    boolean _exhausted = false;
+    // the input fed so far ran out, but more could be fed later
+    boolean _starved = false;
+
+    int _text_start = 0;
+    int _text_end = 0;
+    boolean _escaped = false;
+
+    // the line fenced by fenceLine() is [_line_start, _line_end) of the buffer, _line_end is -1 if none
+    int _line_start = 0;
+    int _line_end = -1;
+    // the limit of the buffer beyond the line fenced
+    private int _unfenced_limit = 0;
+
+    /**
+     * Skips spaces and returns the next significant character without consuming it.
+     *
+     * @return the next significant character, or {@link com.jiruffe.jiraffe.util.CharacterUtil#EOF}.
+     */
+    abstract int peekSignificant();
+
+    /**
+     * Reads a quoted string starting at the current position, the text excludes the quotes.
+     *
+     * @param quote the quote character.
+     */
+    abstract void readQuoted(char quote);
+
+    /**
+     * Reads an unquoted literal starting at the current position until a structural character,
+     * the text excludes the trailing spaces.
+     */
+    abstract void readLiteral();
+
+    /**
+     * Skips to the end of the map or the list entered, matching brackets and quotes only,
+     * so nothing is tokenized or copied on the way.
+     *
+     * @return whether the end is reached and consumed, {@code false} if the input is exhausted before.
+     */
+    abstract boolean skipContainer();
+
+    /**
+     * Returns whether {@link #skipContainer()} is supported, which is not if the input could be incomplete.
+     *
+     * @return whether {@link #skipContainer()} is supported.
+     */
+    boolean canSkipContainer() {
+        return true;
+    }
+
+    /**
+     * Refills the buffer, discarding the chars before {@link #discardable()}.
+     * Never refills while a line is fenced.
+     *
+     * @return whether more input is read.
+     */
+    abstract boolean fill();
+
+    /**
+     * Returns the index of the first line feed in the buffer from {@code from} to the limit.
+     *
+     * @param from the start of the range scanned.
+     * @return the index of the line feed, or -1 if none.
+     */
+    abstract int indexOfLineFeed(int from);
+
+    /**
+     * Returns the raw text of the line fenced, decoded if read from bytes.
+     *
+     * @return the raw text of the line.
+     */
+    abstract String line();
+
+    /**
+     * Fences the input at the end of the line starting at the current position, so that the input
+     * seems to end there until {@link #unfenceLine()}. The whole line is kept in the buffer.
+     *
+     * @return whether there is a line, {@code false} if the input is exhausted.
+     */
+    boolean fenceLine() {
+
+        clearText();
+        // keep the line while refilling
+        _mark = _position;
+        int p = _position;
+        int end;
+        while ((end = indexOfLineFeed(p)) < 0) {
+            int scanned = _limit - _position;
+            if (!fill()) {
+                break;
+            }
+            p = _position + scanned;
+        }
+        _mark = -1;
+
+        if (end < 0) {
+            if (_position >= _limit) {
+                return false;
+            }
+            // the last line without line feed
+            end = _limit;
+        }
+        _line_start = _position;
+        _line_end = end;
+        _unfenced_limit = _limit;
+        _limit = end;
+        return true;
+
+    }
+
+    /**
+     * Removes the fence of the line, and moves the cursor to the start of the next line
+     * whether the line is read completely or not.
+     */
+    void unfenceLine() {
+        _limit = _unfenced_limit;
+        _position = Math.min(_line_end + 1, _limit);
+        _line_end = -1;
+        clearText();
+    }
+
+    /**
+     * Returns the raw text of the last token without copying if possible.
+     *
+     * @return the raw text.
+     */
+    abstract CharSequence text();
+
+    /**
+     * Returns the unescaped text of the last token.
+     *
+     * @return the unescaped text.
+     */
+    abstract String materialize();
+
+    /**
+     * Returns the unescaped text of the last token, shared with the equal texts read before if it is short.
+     *
+     * @param symbols the {@link SymbolTable} to look up.
+     * @return the unescaped text.
+     */
+    abstract String materialize(SymbolTable symbols);
+
+    /**
+     * Consumes the character returned by {@link #peekSignificant()}.
+     */
+    void skip() {
+        _position++;
+    }
+
+    /**
+     * Releases the text of the last token, so that it is no longer kept while refilling.
+     */
+    void clearText() {
+        _text_start = _text_end = _position;
+        _escaped = false;
+        _mark = -1;
+    }
+
+    /**
+     * Moves the cursor and the kept text back after the first {@code keep} chars of the buffer are discarded.
+     *
+     * @param keep the number of chars discarded.
+     */
+    void shift(int keep) {
+        _discarded += keep;
+        _position -= keep;
+        _limit -= keep;
+        if (_mark >= 0) {
+            _mark -= keep;
+            _text_start -= keep;
+            _text_end -= keep;
+        } else {
+            _text_start = _text_end = _position;
+        }
+    }
+
+    /**
+     * Get the number of chars to be discarded before refilling.
+     *
+     * @return the number of chars to be discarded.
+     */
+    int discardable() {
+        return _mark < 0 ? _position : Math.min(_mark, _position);
+    }
+
+    @Override
+    public void close() throws IOException {
+
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.jiruffe.jiraffe;
+
+/**
+ * Represents tokens read by {@link JSONReader}.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+public enum JSONToken {
+    BEGIN_MAP,
+    END_MAP,
+    BEGIN_LIST,
+    END_LIST,
+    NAME,
+    STRING,
+    NUMBER,
+    BOOLEAN,
+    VOID,
+    END_DOCUMENT,
+    /**
+     * The input fed to a {@link JSONPushParser} ends in the middle of a token,
+     * which is read again once more input is fed. Never returned by readers on complete input.
+     */
+    NEED_INPUT
+}
@@ -16,11 +16,11 @@
 
 package com.jiruffe.jiraffe.analyzer;
 
+import com.jiruffe.jiraffe.JSONReader;
+import com.jiruffe.jiraffe.JSONToken;
 import com.jiruffe.jiraffe.util.*;
 
 import javax.lang.model.type.NullType;
-import java.io.IOException;
-import java.io.StringReader;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
@@ -35,6 +35,21 @@ import java.util.*;
  */
 public abstract class DirectAnalyzer {
 
+    // public fields of the classes bound, looked up once per class, and dropped along with the class
+    private static final ClassValue<Map<String, Field>> FIELDS = new ClassValue<Map<String, Field>>() {
+
+        @Override
+        protected Map<String, Field> computeValue(Class<?> c) {
+            Map<String, Field> fields = new HashMap<>();
+            // the fields of the class come before the ones it hides, as searched by Class.getField
+            for (Field f : c.getFields()) {
+                fields.putIfAbsent(f.getName(), f);
+            }
+            return fields;
+        }
+
+    };
+
     /**
      * Java {@link Object} =&gt; JSON {@link String}.
      *
@@ -162,24 +177,57 @@ public abstract class DirectAnalyzer {
             return null;
         }
 
-        // ignore spaces
-        String trimmed_json = json.trim();
+        return analyze(new JSONReader(json), target);
+
+    }
 
-        // ignore first bracket
-        if (trimmed_json.startsWith("[") || trimmed_json.startsWith("{")) {
-            trimmed_json = trimmed_json.substring(1);
+    /**
+     * JSON read by {@link JSONReader} =&gt; Java {@link Object}
+     * Only the next value is read, so the reader could be positioned anywhere inside a document.
+     *
+     * @param reader the {@link JSONReader}.
+     * @param target the target {@link Type}.
+     * @param <T>    the target {@link Type}.
+     * @return the target Java {@link Object}.
+     */
+    public static <T> T analyze(JSONReader reader, Type target) {
+
+        if (null == target || NullType.class == target || Object.class == target) {
+            reader.skipValue();
+            return null;
         }
 
-        return analyze(new StringReader(trimmed_json), target);
+        return analyze(reader, reader.nextToken(), target);
 
     }
 
-    private static <T> T analyze(StringReader sr, Type target) {
+    private static <T> T analyze(JSONReader reader, JSONToken token, Type target) {
+
+        switch (token) {
+
+            case BEGIN_MAP:
+            case BEGIN_LIST:
+                return analyzeContainer(reader, target);
+
+            case NUMBER:
+                if (target instanceof Class && TypeUtil.isNumber((Class) target)) {
+                    return TypeUtil.castFromNumber(reader.number(), (Class) target);
+                }
+                return castValue(reader.text(), target);
+
+            case STRING:
+            case BOOLEAN:
+                return castValue(reader.text(), target);
+
+            default:
+                return null;
 
-        if (null == target || NullType.class == target || Object.class == target) {
-            return null;
         }
 
+    }
+
+    private static <T> T analyzeContainer(JSONReader reader, Type target) {
+
         // target type
         Class<?> target_class = null;
         ParameterizedType parameterized_type = null;
@@ -193,12 +241,12 @@ public abstract class DirectAnalyzer {
             parameterized_type = (ParameterizedType) target;
             target_class = (Class) parameterized_type.getRawType();
             actual_type_arguments = parameterized_type.getActualTypeArguments();
-        } else {
-            return null;
         }
 
         Object rst = null;
-        if (target_class.isArray()) {
+        if (null == target_class) {
+            // unsupported type
+        } else if (target_class.isArray()) {
             // use list instead of array to dynamically add sub-elements
             rst = Defaults.list();
             v_type = target_class.getComponentType();
@@ -246,155 +294,88 @@ public abstract class DirectAnalyzer {
                     } catch (Exception ignored1) {
 
                     }
-                } else {
-                    // unknown interface/abstract class/class without default constructor
-                    return null;
                 }
             }
+            if (null != actual_type_arguments && null == v_type) {
+                // generic type instantiated by default constructor
+                v_type = actual_type_arguments[actual_type_arguments.length - 1];
+            }
         }
         if (null == rst) {
-            // instantiation failure
+            // unknown interface/abstract class/class without default constructor, or instantiation failure
+            reader.skipToEnd();
             return null;
         }
 
         // key
         String now_key = null;
-        // value read
-        StringBuilder sb = new StringBuilder();
-        char c;
-        int ci = 0;
-        // the last token
-        char last_token = CharacterUtil.NUL;
+        // field of the key
+        Field f = null;
 
-        // traversal of json string
+        // traversal of tokens
         while (true) {
 
-            try {
-                if ((ci = sr.read()) == CharacterUtil.EOF) break;
-            } catch (IOException ignored) {
-
-            }
-
-            c = (char) ci;
-
-            if (CharacterUtil.isQuote(last_token)) {
-                if (last_token == c) {
-                    last_token = CharacterUtil.NUL;
-                } else {
-                    sb.append(c);
-                }
-                continue;
-            }
+            JSONToken token = reader.nextToken();
 
-            switch (c) {
+            switch (token) {
 
-                case '"':
-                case '\'':
-                    last_token = c;
-                    break;
-
-                case '{':
-                case '[':
-                    if (rst instanceof Collection) {
-                        ((Collection) rst).add(analyze(sr, v_type));
-                    } else if (rst instanceof Map) {
-                        ((Map) rst).put(now_key, analyze(sr, v_type));
-                    } else if (rst instanceof Dictionary) {
-                        ((Dictionary) rst).put(now_key, analyze(sr, v_type));
-                    } else {
-                        Field f = null;
-                        try {
-                            f = target_class.getField(now_key);
-                        } catch (NoSuchFieldException ignored) {
-
-                        }
-                        try {
-                            f.set(rst, analyze(sr, f.getGenericType()));
-                        } catch (IllegalAccessException ignored) {
-
-                        }
-                    }
-                    last_token = c;
-                    break;
-
-                case ':':
-                    now_key = sb.toString();
-                    StringUtil.clear(sb);
-                    break;
-
-                case ',':
-                    if (StringUtil.isNotEmpty(sb)) {
-                        // set the value to this element
-                        if (rst instanceof Collection) {
-                            ((Collection) rst).add(TypeUtil.castFromString(sb.toString(), (Class) v_type));
-                        } else if (rst instanceof Map) {
-                            ((Map) rst).put(now_key, TypeUtil.castFromString(sb.toString(), (Class) v_type));
-                        } else if (rst instanceof Dictionary) {
-                            ((Dictionary) rst).put(now_key, TypeUtil.castFromString(sb.toString(), (Class) v_type));
-                        } else {
-                            Field f = null;
-                            try {
-                                f = target_class.getField(now_key);
-                                f.set(rst, TypeUtil.castFromString(sb.toString(), f.getType()));
-                            } catch (NoSuchFieldException | IllegalAccessException ignored) {
-
-                            }
+                case NAME:
+                    now_key = reader.name();
+                    if (!(rst instanceof Map) && !(rst instanceof Dictionary) && !(rst instanceof Collection)) {
+                        f = fieldsOf(target_class).get(now_key);
+                        if (null == f) {
+                            // unknown field
+                            reader.skipValue();
                         }
-                        StringUtil.clear(sb);
                     }
-                    last_token = c;
                     break;
 
-                case '}':
-                    // set the last value
-                    if (StringUtil.isNotEmpty(sb)) {
-                        // set the value to this element
-                        if (rst instanceof Map) {
-                            ((Map) rst).put(now_key, TypeUtil.castFromString(sb.toString(), (Class) v_type));
-                        } else if (rst instanceof Dictionary) {
-                            ((Dictionary) rst).put(now_key, TypeUtil.castFromString(sb.toString(), (Class) v_type));
-                        } else {
-                            Field f = null;
-                            try {
-                                f = target_class.getField(now_key);
-                                f.set(rst, TypeUtil.castFromString(sb.toString(), f.getType()));
-                            } catch (NoSuchFieldException | IllegalAccessException ignored) {
-
-                            }
-
-                        }
-                        StringUtil.clear(sb);
-                    }
-                    return (T) rst;
-
-                case ']':
-                    if (StringUtil.isNotEmpty(sb)) {
-                        // set the value to this element
-                        if (rst instanceof Collection) {
-                            ((Collection) rst).add(TypeUtil.castFromString(sb.toString(), (Class) v_type));
-                        }
-                        StringUtil.clear(sb);
-                    }
+                case END_MAP:
+                case END_LIST:
                     if (target_class.isArray()) {
                         // list to array
                         List lst = (List) rst;
                         int len = lst.size();
                         Object array = Array.newInstance((Class) v_type, len);
                         for (int i = 0; i < len; i++) {
-                            Array.set(array, i, lst.get(i));
+                            Object v = lst.get(i);
+                            if (null != v) {
+                                Array.set(array, i, v);
+                            }
                         }
                         return (T) array;
                     } else {
                         return (T) rst;
                     }
 
+                case END_DOCUMENT:
+                    // incomplete document
+                    return null;
+
                 default:
-                    if (StringUtil.isNotEmpty(sb)) {
-                        last_token = CharacterUtil.NUL;
-                        sb.append(c);
-                    } else if (CharacterUtil.isVisibleAndNotSpace(c)) {
-                        last_token = CharacterUtil.NUL;
-                        sb.append(c);
+                    // set the value to this element
+                    if (rst instanceof Collection) {
+                        ((Collection) rst).add(analyze(reader, token, v_type));
+                    } else if (rst instanceof Map) {
+                        ((Map) rst).put(now_key, analyze(reader, token, v_type));
+                    } else if (rst instanceof Dictionary) {
+                        Object v = analyze(reader, token, v_type);
+                        if (null != now_key && null != v) {
+                            ((Dictionary) rst).put(now_key, v);
+                        }
+                    } else if (null != f) {
+                        Object v = analyze(reader, token, f.getGenericType());
+                        try {
+                            if (null != v) {
+                                f.set(rst, v);
+                            }
+                        } catch (IllegalAccessException ignored) {
+
+                        }
+                        f = null;
+                    } else if (JSONToken.BEGIN_MAP == token || JSONToken.BEGIN_LIST == token) {
+                        // nowhere to set
+                        reader.skipToEnd();
                     }
                     break;
 
@@ -402,7 +383,21 @@ public abstract class DirectAnalyzer {
 
         }
 
-        return null;
+    }
+
+    // public fields by name, as found by Class.getField
+    private static Map<String, Field> fieldsOf(Class<?> cls) {
+        return FIELDS.get(cls);
+    }
+
+    private static <T> T castValue(CharSequence s, Type target) {
+
+        if (!(target instanceof Class)) {
+            return null;
+        }
+
+        // the raw text is unescaped only if the target is String
+        return TypeUtil.castFromString(s, (Class) target);
 
     }
 
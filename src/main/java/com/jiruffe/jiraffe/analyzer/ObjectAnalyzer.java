@@ -60,6 +60,10 @@ public abstract class ObjectAnalyzer {
             return JSONElement.newPrimitive(o);
         } else if (cls.isEnum()) {
             return JSONElement.newPrimitive(((Enum) o).ordinal());
+        } else if (long[].class == cls) {
+            return JSONElement.newNumberArray(((long[]) o).clone());
+        } else if (double[].class == cls) {
+            return JSONElement.newNumberArray(((double[]) o).clone());
         } else if (cls.isArray()) {
             JSONElement list = JSONElement.newList();
             for (int i = 0; i < Array.getLength(o); i++) {
@@ -166,12 +170,29 @@ public abstract class ObjectAnalyzer {
             return (T) element.asString();
         } else if (target_class.isEnum()) {
             return target_class.getEnumConstants()[element.asInt()];
+        } else if (element.isNumberArray() && (long[].class == target_class || double[].class == target_class || int[].class == target_class)) {
+            // copied from the array backing the numbers
+            if (long[].class == target_class) {
+                return (T) element.asLongArray();
+            } else if (double[].class == target_class) {
+                return (T) element.asDoubleArray();
+            }
+            long[] longs = element.asLongArray();
+            int[] ints = new int[longs.length];
+            for (int i = 0; i < longs.length; i++) {
+                ints[i] = (int) longs[i];
+            }
+            return (T) ints;
         } else if (target_class.isArray()) {
             Class<?> component_type = target_class.getComponentType();
             int size = element.size();
             Object array = Array.newInstance(component_type, size);
-            for (int i = 0; i < size; i++) {
-                Array.set(array, i, analyze(element.peek(i), component_type));
+            if (element.isList()) {
+                element.forEachIndexed((sub, i) -> Array.set(array, i, analyze(sub, component_type)));
+            } else {
+                for (int i = 0; i < size; i++) {
+                    Array.set(array, i, analyze(element.peek(i), component_type));
+                }
             }
             return (T) array;
         } else {
@@ -228,9 +249,8 @@ public abstract class ObjectAnalyzer {
                 return null;
             }
             // analyze sub-elements
-            for (JSONElement.Entry sub : element) {
-                collection.add(analyze(sub.getElement(), v_type));
-            }
+            Collection sub_collection = collection;
+            element.forEachEntry((k, sub) -> sub_collection.add(analyze(sub, v_type)));
             return (T) collection;
         } else if (Map.class.isAssignableFrom(target_class)) {
             Type k_type = actual_type_arguments[0];
@@ -256,9 +276,8 @@ public abstract class ObjectAnalyzer {
                 return null;
             }
             // analyze sub-elements
-            for (JSONElement.Entry e : element.entries()) {
-                map.put(analyze(JSONElement.newInstance(e.getKey()), k_type), analyze(e.getElement(), v_type));
-            }
+            Map sub_map = map;
+            element.forEachEntry((k, sub) -> sub_map.put(analyze(JSONElement.newInstance(k), k_type), analyze(sub, v_type)));
             return (T) map;
         } else if (Dictionary.class.isAssignableFrom(target_class)) {
             Type k_type = actual_type_arguments[0];
@@ -280,9 +299,8 @@ public abstract class ObjectAnalyzer {
                 return null;
             }
             // analyze sub-elements
-            for (JSONElement.Entry e : element.entries()) {
-                dictionary.put(analyze(JSONElement.newInstance(e.getKey()), k_type), analyze(e.getElement(), v_type));
-            }
+            Dictionary sub_dictionary = dictionary;
+            element.forEachEntry((k, sub) -> sub_dictionary.put(analyze(JSONElement.newInstance(k), k_type), analyze(sub, v_type)));
             return (T) dictionary;
         } else {
             // unknown generic type
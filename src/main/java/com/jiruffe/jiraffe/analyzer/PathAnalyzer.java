@@ -0,0 +1,288 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.jiruffe.jiraffe.analyzer;
+
+import com.jiruffe.jiraffe.JSONReader;
+import com.jiruffe.jiraffe.JSONToken;
+import com.jiruffe.jiraffe.model.JSONElement;
+import com.jiruffe.jiraffe.util.StringUtil;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JSON {@link String} =&gt; sparse {@link JSONElement} of the selected paths only.
+ * Paths are written as {@code $.user.id}, {@code $.items[*].price} or {@code $['key'][0]},
+ * where {@code *} selects every key or index.
+ * The maps and lists on the way to a selected value are kept, even if nothing is selected in them,
+ * and the indexes not selected before a selected one are kept as void, so the selected ones stay at their positions,
+ * while the values not selected are skipped by matching brackets and quotes, without creating any element or key.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+public abstract class PathAnalyzer {
+
+    /**
+     * JSON {@link String} =&gt; {@link JSONElement} of the selected paths.
+     *
+     * @param json  the JSON {@link String}.
+     * @param paths the paths selected.
+     * @return the {@link JSONElement} converted.
+     */
+    public static JSONElement analyze(String json, String... paths) {
+
+        if (null == json) {
+            return JSONElement.theVoid();
+        }
+
+        return analyze(new JSONReader(json), paths);
+
+    }
+
+    /**
+     * JSON read by {@link JSONReader} =&gt; {@link JSONElement} of the selected paths.
+     * Only the next value is read, and the paths are relative to it.
+     *
+     * @param reader the {@link JSONReader}.
+     * @param paths  the paths selected.
+     * @return the {@link JSONElement} converted.
+     */
+    public static JSONElement analyze(JSONReader reader, String... paths) {
+
+        JSONElement element = select(reader, reader.nextToken(), Selector.compile(paths));
+        return null != element ? element : JSONElement.theVoid();
+
+    }
+
+    /**
+     * Converts the value of which the first token has been read.
+     *
+     * @return the {@link JSONElement} converted, or {@code null} if nothing is selected.
+     */
+    private static JSONElement select(JSONReader reader, JSONToken token, Selector selector) {
+
+        if (selector.whole) {
+            switch (token) {
+                case BEGIN_MAP:
+                case BEGIN_LIST:
+                    ArrayDeque<JSONElement> bases = new ArrayDeque<>();
+                    bases.push(JSONToken.BEGIN_MAP == token ? JSONElement.newMap() : JSONElement.newList());
+                    JSONElement element = StringAnalyzer.analyze(reader, Collections.asLifoQueue(bases), Collections.asLifoQueue(new ArrayDeque<>()));
+                    return null != element ? element : JSONElement.theVoid();
+                case STRING:
+                case NUMBER:
+                case BOOLEAN:
+                case VOID:
+                    return StringAnalyzer.parseValue(token, reader, false, null);
+                default:
+                    return null;
+            }
+        }
+
+        switch (token) {
+
+            case BEGIN_MAP:
+                JSONElement map = JSONElement.newMap();
+                while (JSONToken.NAME == reader.nextToken()) {
+                    Selector child = selector.child(reader.text(), reader.escaped());
+                    if (null == child) {
+                        reader.skipValue();
+                        continue;
+                    }
+                    String name = reader.name();
+                    JSONElement value = select(reader, reader.nextToken(), child);
+                    if (null != value) {
+                        map.offer(name, value);
+                    }
+                }
+                return map;
+
+            case BEGIN_LIST:
+                JSONElement list = JSONElement.newList();
+                for (int i = 0; ; i++) {
+                    token = reader.nextToken();
+                    if (JSONToken.END_LIST == token || JSONToken.END_DOCUMENT == token) {
+                        return list;
+                    }
+                    Selector child = selector.child(i);
+                    if (null != child) {
+                        JSONElement value = select(reader, token, child);
+                        if (null != value) {
+                            while (list.size() < i) {
+                                list.offer(JSONElement.theVoid());
+                            }
+                            list.offer(value);
+                        }
+                    } else if (JSONToken.BEGIN_MAP == token || JSONToken.BEGIN_LIST == token) {
+                        reader.skipToEnd();
+                    }
+                }
+
+            default:
+                // a value where a map or a list is expected
+                return null;
+
+        }
+
+    }
+
+    /**
+     * Node of the tree of paths, selecting the sub-elements by key or index.
+     */
+    private static final class Selector {
+
+        // the whole value is selected
+        private boolean whole = false;
+        private final Map<String, Selector> names = new LinkedHashMap<>();
+        private final Map<Integer, Selector> indexes = new HashMap<>();
+        private Selector any = null;
+
+        private static Selector compile(String... paths) {
+
+            Selector root = new Selector();
+
+            for (String path : paths) {
+
+                Selector node = root;
+                int len = path.length();
+                int i = 0 < len && '$' == path.charAt(0) ? 1 : 0;
+
+                while (i < len) {
+                    char c = path.charAt(i);
+                    if ('.' == c) {
+                        int start = ++i;
+                        while (i < len && '.' != path.charAt(i) && '[' != path.charAt(i)) {
+                            i++;
+                        }
+                        if (i == start) {
+                            throw invalid(path);
+                        }
+                        String name = path.substring(start, i);
+                        node = "*".equals(name) ? node.any() : node.name(name);
+                    } else if ('[' == c && i + 1 < len && ('\'' == path.charAt(i + 1) || '"' == path.charAt(i + 1))) {
+                        int end = path.indexOf(path.charAt(i + 1), i + 2);
+                        if (end < 0 || end + 1 >= len || ']' != path.charAt(end + 1)) {
+                            throw invalid(path);
+                        }
+                        node = node.name(path.substring(i + 2, end));
+                        i = end + 2;
+                    } else if ('[' == c) {
+                        int end = path.indexOf(']', i);
+                        if (end < 0) {
+                            throw invalid(path);
+                        }
+                        String index = path.substring(i + 1, end).trim();
+                        if ("*".equals(index)) {
+                            node = node.any();
+                        } else {
+                            try {
+                                node = node.index(Integer.parseInt(index));
+                            } catch (NumberFormatException e) {
+                                throw invalid(path);
+                            }
+                        }
+                        i = end + 1;
+                    } else {
+                        throw invalid(path);
+                    }
+                }
+
+                node.whole = true;
+
+            }
+
+            root.normalize();
+            return root;
+
+        }
+
+        private static IllegalArgumentException invalid(String path) {
+            return new IllegalArgumentException("Invalid JSON path: " + path);
+        }
+
+        private Selector name(String name) {
+            return names.computeIfAbsent(name, k -> new Selector());
+        }
+
+        private Selector index(int index) {
+            return indexes.computeIfAbsent(index, k -> new Selector());
+        }
+
+        private Selector any() {
+            if (null == any) {
+                any = new Selector();
+            }
+            return any;
+        }
+
+        private Selector child(CharSequence raw_name, boolean escaped) {
+            if (escaped) {
+                Selector child = names.get(StringUtil.unescape(raw_name));
+                return null != child ? child : any;
+            }
+            for (Map.Entry<String, Selector> e : names.entrySet()) {
+                if (StringUtil.equals(e.getKey(), raw_name)) {
+                    return e.getValue();
+                }
+            }
+            return any;
+        }
+
+        private Selector child(int index) {
+            Selector child = indexes.get(index);
+            return null != child ? child : any;
+        }
+
+        // merges the wildcard into the named and indexed children, so that a single child matches
+        private void normalize() {
+            if (null != any) {
+                any.normalize();
+                for (Selector child : names.values()) {
+                    child.merge(any);
+                }
+                for (Selector child : indexes.values()) {
+                    child.merge(any);
+                }
+            }
+            for (Selector child : names.values()) {
+                child.normalize();
+            }
+            for (Selector child : indexes.values()) {
+                child.normalize();
+            }
+        }
+
+        private void merge(Selector other) {
+            whole |= other.whole;
+            for (Map.Entry<String, Selector> e : other.names.entrySet()) {
+                name(e.getKey()).merge(e.getValue());
+            }
+            for (Map.Entry<Integer, Selector> e : other.indexes.entrySet()) {
+                index(e.getKey()).merge(e.getValue());
+            }
+            if (null != other.any) {
+                any().merge(other.any);
+            }
+        }
+
+    }
+
+}
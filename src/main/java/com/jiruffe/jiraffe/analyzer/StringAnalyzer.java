@@ -16,17 +16,18 @@
 
 package com.jiruffe.jiraffe.analyzer;
 
+import com.jiruffe.jiraffe.JSONReader;
+import com.jiruffe.jiraffe.JSONToken;
+import com.jiruffe.jiraffe.model.JSONArena;
 import com.jiruffe.jiraffe.model.JSONElement;
 import com.jiruffe.jiraffe.util.CharacterUtil;
+import com.jiruffe.jiraffe.util.CharSlice;
 import com.jiruffe.jiraffe.util.StringUtil;
-import com.jiruffe.jiraffe.util.TypeUtil;
+import com.jiruffe.jiraffe.util.StructureScanner;
 
-import java.io.IOException;
-import java.io.StringReader;
-import java.util.ArrayDeque;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.Queue;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * JSON {@link String} &lt;=&gt; {@link JSONElement} conversion.
@@ -36,6 +37,9 @@ import java.util.Queue;
  */
 public abstract class StringAnalyzer {
 
+    // minimum length of the chunks parsed in parallel
+    private static final int MIN_CHUNK_LENGTH = 1 << 16;
+
     /**
      * JSON {@link String} =&gt; {@link JSONElement}.
      *
@@ -48,150 +52,283 @@ public abstract class StringAnalyzer {
             return JSONElement.theVoid();
         }
 
-        // ignore spaces
-        json = json.trim();
+        return analyze(new JSONReader(json));
 
-        // not map or list, return a value
-        if (!json.startsWith("{") && !json.startsWith("[")) {
-            boolean force_set_string = false;
-            if ((json.startsWith("\"") && json.endsWith("\"")) || (json.startsWith("'") && json.endsWith("'"))) {
-                force_set_string = true;
-                json = json.substring(1, json.length() - 1);
-            }
-            return parseValue(json, force_set_string);
+    }
+
+    /**
+     * JSON {@code char[]} =&gt; {@link JSONElement}, read in place.
+     * String values without escapes are views of the array instead of copies, see {@link JSONElement#newView(CharSequence)}.
+     *
+     * @param json the JSON {@code char[]}, which must not be modified afterwards.
+     * @return the {@link JSONElement} converted.
+     */
+    public static JSONElement analyzeInPlace(char[] json) {
+
+        if (null == json) {
+            return JSONElement.theVoid();
         }
 
-        // stack to store upper element
-        Queue<JSONElement> bases = Collections.asLifoQueue(new ArrayDeque<>());
-        // stack to store keys
-        Queue<String> keys = Collections.asLifoQueue(new ArrayDeque<>());
-        // value read
-        StringBuilder sb = new StringBuilder();
-        // reader
-        StringReader sr = new StringReader(json);
-        char c;
-        int ci = 0;
-        // should set value as string
-        boolean force_set_string = false;
-        // the last token
-        char last_token = CharacterUtil.NUL;
-
-        // traversal of json string
-        while (true) {
+        JSONElement element = analyze(new JSONReader(json), Collections.asLifoQueue(new ArrayDeque<>()), Collections.asLifoQueue(new ArrayDeque<>()), true, null);
+        return null != element ? element : JSONElement.theVoid();
 
-            try {
-                if ((ci = sr.read()) == CharacterUtil.EOF) break;
-            } catch (IOException ignored) {
+    }
 
-            }
+    /**
+     * JSON {@link String} =&gt; {@link JSONElement}, of which the maps, the lists and the primitives are taken from the {@link JSONArena}.
+     * The element converted is valid until the arena is reset.
+     *
+     * @param json  the JSON {@link String}.
+     * @param arena the {@link JSONArena}.
+     * @return the {@link JSONElement} converted.
+     */
+    public static JSONElement analyze(String json, JSONArena arena) {
 
-            c = (char) ci;
+        if (null == json) {
+            return JSONElement.theVoid();
+        }
 
-            if (CharacterUtil.isQuote(last_token)) {
-                if (last_token == c) {
-                    last_token = CharacterUtil.NUL;
-                } else {
-                    sb.append(c);
-                }
-                continue;
-            }
+        JSONElement element = analyze(new JSONReader(json), Collections.asLifoQueue(new ArrayDeque<>()), Collections.asLifoQueue(new ArrayDeque<>()), false, arena);
+        return null != element ? element : JSONElement.theVoid();
 
-            switch (c) {
+    }
 
-                case '"':
-                case '\'':
-                    force_set_string = true;
-                    last_token = c;
-                    break;
+    /**
+     * JSON read by {@link JSONReader} =&gt; {@link JSONElement}.
+     * Only the next value is read, so the reader could be positioned anywhere inside a document.
+     *
+     * @param reader the {@link JSONReader}.
+     * @return the {@link JSONElement} converted.
+     */
+    public static JSONElement analyze(JSONReader reader) {
+
+        JSONElement element = analyze(reader, Collections.asLifoQueue(new ArrayDeque<>()), Collections.asLifoQueue(new ArrayDeque<>()));
+        return null != element ? element : JSONElement.theVoid();
+
+    }
 
-                case '{':
-                    bases.offer(JSONElement.newMap());
-                    last_token = c;
+    /**
+     * JSON read by {@link JSONReader} =&gt; {@link JSONElement}, resumable if the reader needs more input.
+     * The upper elements and keys not completed yet are kept in the stacks, so that the conversion
+     * could be resumed with the same stacks after more input is fed to the reader.
+     *
+     * @param reader the {@link JSONReader}.
+     * @param bases  the stack to store upper elements.
+     * @param keys   the stack to store keys.
+     * @return the {@link JSONElement} converted,
+     * or {@code null} if the reader needs more input or there is no element at all.
+     */
+    public static JSONElement analyze(JSONReader reader, Queue<JSONElement> bases, Queue<String> keys) {
+        return analyze(reader, bases, keys, false, null);
+    }
+
+    private static JSONElement analyze(JSONReader reader, Queue<JSONElement> bases, Queue<String> keys, boolean views, JSONArena arena) {
+
+        // traversal of tokens
+        while (true) {
+
+            JSONToken token = reader.nextToken();
+
+            switch (token) {
+
+                case BEGIN_MAP:
+                    bases.offer(null != arena ? arena.newMap() : JSONElement.newMap());
                     break;
 
-                case '[':
-                    bases.offer(JSONElement.newList());
-                    last_token = c;
+                case BEGIN_LIST:
+                    // decided at the first value, to be numbers unboxed if it is a number
+                    bases.offer(null != arena ? arena.newList() : JSONElement.newList());
                     break;
 
-                case ':':
+                case NAME:
                     // new key
-                    keys.offer(StringUtil.unescape(sb.toString()));
-                    StringUtil.clear(sb);
-                    last_token = c;
+                    keys.offer(reader.name());
                     break;
 
-                case ',':
-                    if (StringUtil.isNotEmpty(sb) || force_set_string) {
-                        // set the value to this element
-                        JSONElement self = bases.peek();
-                        if (self.isList()) {
-                            self.offer(parseValue(sb.toString(), force_set_string));
-                        } else if (self.isMap()) {
-                            self.offer(keys.poll(), parseValue(sb.toString(), force_set_string));
-                        }
-                        StringUtil.clear(sb);
-                        force_set_string = false;
-                    } else if (!CharacterUtil.isRightBrackets(last_token) && !bases.isEmpty()) {
-                        // set void
-                        JSONElement self = bases.peek();
-                        if (self.isList()) {
-                            self.offer(JSONElement.theVoid());
-                        } else if (self.isMap()) {
-                            self.offer(keys.poll(), JSONElement.theVoid());
-                        }
+                case END_MAP:
+                case END_LIST:
+                    // current map or list
+                    JSONElement self = bases.poll();
+                    if (null == self) {
+                        // the reader was positioned at the end of its upper element
+                        return JSONElement.theVoid();
                     }
-                    last_token = c;
+                    // if there was no upper element, conversion is finished
+                    if (isSelfTheTopElement(bases, keys, self)) return self;
                     break;
 
-                case '}':
-                    // current map
-                    JSONElement self_map = bases.poll();
-                    // set the last value
-                    if (StringUtil.isNotEmpty(sb) || force_set_string) {
-                        self_map.offer(keys.poll(), parseValue(sb.toString(), force_set_string));
-                        StringUtil.clear(sb);
-                        force_set_string = false;
-                    } else if (CharacterUtil.isColon(last_token)) {
-                        self_map.offer(keys.poll(), JSONElement.theVoid());
+                case END_DOCUMENT:
+                    if (bases.isEmpty()) {
+                        // no element
+                        return null;
                     }
-                    // if there was no upper element, conversion is finished, ignore extra chars
-                    if (isSelfTheTopElement(bases, keys, self_map)) return self_map;
-                    last_token = c;
-                    break;
-
-                case ']':
-                    // current list
-                    JSONElement self_list = bases.poll();
-                    // set the last value
-                    if (StringUtil.isNotEmpty(sb) || force_set_string) {
-                        self_list.offer(parseValue(sb.toString(), force_set_string));
-                        StringUtil.clear(sb);
-                        force_set_string = false;
-                    } else if (CharacterUtil.isComma(last_token)) {
-                        self_list.offer(JSONElement.theVoid());
+                    // incomplete document
+                    bases.clear();
+                    keys.clear();
+                    return JSONElement.theVoid();
+
+                case NEED_INPUT:
+                    return null;
+
+                case NUMBER:
+                    JSONElement base = bases.peek();
+                    if (null == arena && null != base && base.isList() && base.isEmpty() && !base.isNumberArray()) {
+                        // the first value of the list not attached yet is a number
+                        bases.poll();
+                        base = JSONElement.newNumberArray();
+                        bases.offer(base);
+                    }
+                    if (null == base || !base.isNumberArray()) {
+                        JSONElement number = parseValue(token, reader, views, arena);
+                        if (isSelfTheTopElement(bases, keys, number)) return number;
+                    } else if (!base.offer(reader.number()).isNumberArray()) {
+                        // not of the kind of the numbers before, read on to a list
+                        bases.poll();
+                        bases.offer(JSONElement.newList().merge(base));
                     }
-                    // if there was no upper element, conversion is finished, ignore extra chars
-                    if (isSelfTheTopElement(bases, keys, self_list)) return self_list;
-                    last_token = c;
+                    // otherwise stored unboxed, without creating a primitive
                     break;
 
                 default:
-                    if (StringUtil.isNotEmpty(sb)) {
-                        last_token = CharacterUtil.NUL;
-                        sb.append(c);
-                    } else if (CharacterUtil.isVisibleAndNotSpace(c)) {
-                        last_token = CharacterUtil.NUL;
-                        force_set_string = false;
-                        sb.append(c);
-                    }
+                    JSONElement value = parseValue(token, reader, views, arena);
+                    if (isSelfTheTopElement(bases, keys, value)) return value;
                     break;
 
             }
 
         }
 
-        return JSONElement.theVoid();
+    }
+
+    /**
+     * JSON {@link String} =&gt; {@link JSONElement}, parsing the elements of a top list in parallel.
+     * The top list is split between its elements into chunks of roughly equal length,
+     * which are parsed concurrently in the {@link ForkJoinPool} and joined in the original order.
+     * Any other top element is parsed sequentially.
+     *
+     * @param json the JSON {@link String}.
+     * @param pool the {@link ForkJoinPool} to parse in.
+     * @return the {@link JSONElement} converted.
+     */
+    public static JSONElement analyze(String json, ForkJoinPool pool) {
+
+        if (null == json) {
+            return JSONElement.theVoid();
+        }
+
+        int[] delimiters = splitList(json);
+        if (null == delimiters) {
+            return analyze(json);
+        }
+
+        // group the elements into chunks, each chunk is between 2 of the delimiters
+        int chunk_length = Math.max(MIN_CHUNK_LENGTH, json.length() / (pool.getParallelism() << 2));
+        List<ForkJoinTask<JSONElement>> tasks = new ArrayList<>();
+        int from = 0;
+        for (int i = 1; i < delimiters.length; i++) {
+            if (delimiters[i] - delimiters[from] >= chunk_length || i == delimiters.length - 1) {
+                if (0 == from && i == delimiters.length - 1) {
+                    // not worth splitting
+                    return analyze(json);
+                }
+                int start = delimiters[from];
+                int end = delimiters[i];
+                tasks.add(pool.submit(() -> analyzeChunk(json, start, end)));
+                from = i;
+            }
+        }
+
+        List<JSONElement> chunks = new ArrayList<>(tasks.size());
+        boolean numbers = true;
+        // the kind of the numbers of the chunks, Long or Double
+        Class<?> kind = null;
+        for (ForkJoinTask<JSONElement> task : tasks) {
+            JSONElement chunk = task.join();
+            chunks.add(chunk);
+            if (numbers && chunk.isNumberArray()) {
+                Class<?> chunk_kind = chunk.peek(0).asValue().getClass();
+                numbers = null == kind || kind == chunk_kind;
+                kind = chunk_kind;
+            } else {
+                numbers = false;
+            }
+        }
+        if (numbers) {
+            // numbers of one kind only, kept unboxed as in the whole list
+            JSONElement list = chunks.get(0);
+            for (int i = 1; i < chunks.size(); i++) {
+                list.merge(chunks.get(i));
+            }
+            return list;
+        }
+        List<JSONElement> sub_elements = new ArrayList<>();
+        for (JSONElement chunk : chunks) {
+            sub_elements.addAll(chunk.asList());
+        }
+        return JSONElement.newList(sub_elements);
+
+    }
+
+    // parses the elements between 2 delimiters of the top list in place as a list, up to the closing delimiter
+    private static JSONElement analyzeChunk(String json, int start, int end) {
+
+        JSONReader reader = new JSONReader(json, start + 1, end - start).enterList();
+        Queue<JSONElement> bases = Collections.asLifoQueue(new ArrayDeque<>());
+        bases.offer(JSONElement.newList());
+        JSONElement list = analyze(reader, bases, Collections.asLifoQueue(new ArrayDeque<>()));
+        if (list.isEmpty()) {
+            // a blank element between delimiters is void, as in the whole list
+            list.offer(JSONElement.theVoid());
+        }
+        return list;
+
+    }
+
+    // finds the brackets and the commas delimiting the elements of the top list,
+    // or returns null if the top element is not a complete list
+    private static int[] splitList(String json) {
+
+        int len = json.length();
+        int i = 0;
+
+        // stray tokens before the top element are ignored
+        while (i < len) {
+            char c = json.charAt(i);
+            int type = CharacterUtil.typeOf(c);
+            if (CharacterUtil.SPACE != type && (CharacterUtil.STRUCTURAL != type || CharacterUtil.isLeftBrackets(c))) {
+                break;
+            }
+            i++;
+        }
+        if (i >= len || '[' != json.charAt(i)) {
+            return null;
+        }
+
+        int[] delimiters = new int[64];
+        int size = 0;
+        StructureScanner scanner = new StructureScanner(0);
+
+        for (; i < len; i++) {
+            char c = json.charAt(i);
+            int depth = scanner.step(c);
+            if (0 == depth) {
+                // the end of the top list
+                if (size == delimiters.length) {
+                    delimiters = Arrays.copyOf(delimiters, size + 1);
+                }
+                delimiters[size++] = i;
+                return Arrays.copyOf(delimiters, size);
+            } else if (1 == depth && !CharacterUtil.isRightBrackets(c)) {
+                // the beginning of the top list, or a comma in it
+                if (size == delimiters.length) {
+                    delimiters = Arrays.copyOf(delimiters, size << 1);
+                }
+                delimiters[size++] = i;
+            }
+        }
+
+        // incomplete document
+        return null;
 
     }
 
@@ -200,6 +337,12 @@ public abstract class StringAnalyzer {
         // upper element exists, set self to it
         if (!bases.isEmpty()) {
             JSONElement base = bases.peek();
+            if (base.isNumberArray()) {
+                // not numbers only, as numbers are offered to number arrays without this, so read on to a list
+                bases.poll();
+                base = JSONElement.newList().merge(base);
+                bases.offer(base);
+            }
             if (base.isList()) {
                 base.offer(self);
             } else if (base.isMap()) {
@@ -213,28 +356,36 @@ public abstract class StringAnalyzer {
 
     }
 
-    private static JSONElement parseValue(String s, boolean force_set_string) {
+    static JSONElement parseValue(JSONToken token, JSONReader reader, boolean views, JSONArena arena) {
+
+        switch (token) {
+
+            case STRING:
+                CharSequence text = reader.text();
+                if (views && text instanceof CharSlice && !reader.escaped()) {
+                    // the reader reads the array in place, so the text stays valid
+                    CharSlice slice = (CharSlice) text;
+                    return JSONElement.newView(new CharSlice(slice.array(), slice.offset(), slice.length()));
+                }
+                return newPrimitive(reader.value(), arena);
+
+            case NUMBER:
+                return newPrimitive(reader.number(), arena);
+
+            case BOOLEAN:
+                return newPrimitive(StringUtil.equalsIgnoreCase(StringUtil.TRUE, reader.text()), arena);
+
+            default:
+                return JSONElement.theVoid();
 
-        if (force_set_string) {
-            return JSONElement.newPrimitive(StringUtil.unescape(s));
-        } else if (StringUtil.TRUE.equalsIgnoreCase(s)) {
-            return JSONElement.newPrimitive(Boolean.TRUE);
-        } else if (StringUtil.FALSE.equalsIgnoreCase(s)) {
-            return JSONElement.newPrimitive(Boolean.FALSE);
-        } else if (StringUtil.NULL.equalsIgnoreCase(s)) {
-            return JSONElement.theVoid();
-        } else if (StringUtil.NAN.equals(s)) {
-            return JSONElement.theVoid();
-        } else if (StringUtil.UNDEFINED.equalsIgnoreCase(s)) {
-            return JSONElement.theVoid();
-        } else if (TypeUtil.couldCastToNumber(s)) {
-            return JSONElement.newPrimitive(TypeUtil.castToNumber(s));
-        } else {
-            return JSONElement.newPrimitive(StringUtil.unescape(s));
         }
 
     }
 
+    private static JSONElement newPrimitive(Object v, JSONArena arena) {
+        return null != arena ? arena.newPrimitive(v) : JSONElement.newPrimitive(v);
+    }
+
     /**
      * {@link JSONElement} =&gt; JSON {@link String}.
      *
@@ -244,35 +395,44 @@ public abstract class StringAnalyzer {
     public static String analyze(JSONElement element) {
 
         StringBuilder sb = new StringBuilder();
+        analyze(element, sb);
+        return sb.toString();
+
+    }
+
+    // appends the sub-elements to the same builder, traversing without copying the entries
+    private static void analyze(JSONElement element, StringBuilder sb) {
 
         switch (element.getType()) {
 
             case LIST:
+                if (element.isNumberArray()) {
+                    sb.append(element.asString());
+                    break;
+                }
                 sb.append('[');
-                Iterator<JSONElement.Entry> iterator = element.iterator();
-                while (iterator.hasNext()) {
-                    sb.append(analyze(iterator.next().getElement()));
-                    if (iterator.hasNext()) {
+                element.forEachIndexed((sub, i) -> {
+                    if (i > 0) {
                         sb.append(',');
                     }
-                }
+                    analyze(sub, sb);
+                });
                 sb.append(']');
                 break;
 
             case MAP:
                 sb.append('{');
-                Iterator<JSONElement.Entry> iterator1 = element.iterator();
-                while (iterator1.hasNext()) {
-                    JSONElement.Entry e = iterator1.next();
+                int begin = sb.length();
+                element.forEachEntry((k, sub) -> {
+                    if (sb.length() > begin) {
+                        sb.append(',');
+                    }
                     sb.append('"');
-                    sb.append(StringUtil.escape(StringUtil.toString(e.getKey())));
+                    sb.append(StringUtil.escape(StringUtil.toString(k)));
                     sb.append('"');
                     sb.append(':');
-                    sb.append(analyze(e.getElement()));
-                    if (iterator1.hasNext()) {
-                        sb.append(',');
-                    }
-                }
+                    analyze(sub, sb);
+                });
                 sb.append('}');
                 break;
 
@@ -296,8 +456,6 @@ public abstract class StringAnalyzer {
 
         }
 
-        return sb.toString();
-
     }
 
 }
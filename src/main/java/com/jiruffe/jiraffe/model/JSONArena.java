@@ -0,0 +1,119 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.jiruffe.jiraffe.model;
+
+import com.jiruffe.jiraffe.util.ObjectUtil;
+import com.jiruffe.jiraffe.util.TypeUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arena owning the elements created by it, which are recycled after {@link #reset()} instead of being garbage.
+ * Deserializing with the same arena in a loop, such as one request after another,
+ * reuses the maps, the lists and the primitives and the containers inside them once the arena has grown to the largest document.
+ * The elements created by an arena must not be used after it is reset, as they are then emptied and handed out again.
+ * An arena is not thread-safe, so it should be confined to a thread, for example one arena per request handler.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+public final class JSONArena {
+
+    private final List<JSONMap> _maps = new ArrayList<>();
+    private int _maps_used = 0;
+
+    private final List<JSONList> _lists = new ArrayList<>();
+    private int _lists_used = 0;
+
+    private final List<JSONPrimitive> _primitives = new ArrayList<>();
+    private int _primitives_used = 0;
+
+    /**
+     * Get an empty {@link JSONMap} of this arena.
+     *
+     * @return an empty {@link JSONMap}.
+     */
+    public JSONElement newMap() {
+        if (_maps_used < _maps.size()) {
+            return _maps.get(_maps_used++);
+        }
+        JSONMap map = new JSONMap();
+        _maps.add(map);
+        _maps_used++;
+        return map;
+    }
+
+    /**
+     * Get an empty {@link JSONList} of this arena.
+     *
+     * @return an empty {@link JSONList}.
+     */
+    public JSONElement newList() {
+        if (_lists_used < _lists.size()) {
+            return _lists.get(_lists_used++);
+        }
+        JSONList list = new JSONList();
+        _lists.add(list);
+        _lists_used++;
+        return list;
+    }
+
+    /**
+     * Get a {@link JSONPrimitive} of this arena with specified original value.
+     *
+     * @param v the original value.
+     * @return a {@link JSONPrimitive} with specified original value.
+     * @see JSONElement#newPrimitive(Object)
+     */
+    public JSONElement newPrimitive(Object v) {
+        if (null == v || v instanceof JSONElement || v instanceof Boolean) {
+            return JSONElement.newPrimitive(v);
+        } else if (!TypeUtil.isPrimitive(v) && !(v instanceof Number) && !(v instanceof String)) {
+            throw new ClassCastException("Could not cast JSONPrimitive from " + ObjectUtil.getCanonicalName(v));
+        }
+        if (_primitives_used < _primitives.size()) {
+            JSONPrimitive primitive = _primitives.get(_primitives_used++);
+            primitive.recycle(v);
+            return primitive;
+        }
+        JSONPrimitive primitive = new JSONPrimitive(v, true);
+        _primitives.add(primitive);
+        _primitives_used++;
+        return primitive;
+    }
+
+    /**
+     * Empties all the elements created by this arena, to be handed out again.
+     * The references to their values are dropped, so nothing deserialized is kept alive by the arena.
+     */
+    public void reset() {
+        for (int i = 0; i < _maps_used; i++) {
+            _maps.get(i).recycle();
+        }
+        for (int i = 0; i < _lists_used; i++) {
+            _lists.get(i).recycle();
+        }
+        for (int i = 0; i < _primitives_used; i++) {
+            _primitives.get(i).recycle(null);
+        }
+        _maps_used = 0;
+        _lists_used = 0;
+        _primitives_used = 0;
+    }
+
+}
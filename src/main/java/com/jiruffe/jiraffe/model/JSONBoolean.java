@@ -0,0 +1,102 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.jiruffe.jiraffe.model;
+
+import com.jiruffe.jiraffe.util.StringUtil;
+
+/**
+ * JSON primitive value of {@code boolean}, of which there are only the 2 instances {@link #TRUE} and {@link #FALSE}.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+final class JSONBoolean extends JSONPrimitive {
+
+    static final JSONBoolean TRUE = new JSONBoolean(true);
+
+    static final JSONBoolean FALSE = new JSONBoolean(false);
+
+    private final boolean _boolean;
+
+    private JSONBoolean(boolean v) {
+        super(null);
+        _boolean = v;
+    }
+
+    static JSONBoolean valueOf(boolean v) {
+        return v ? TRUE : FALSE;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return false;
+    }
+
+    @Override
+    public JSONElement freeze() {
+        return this;
+    }
+
+    @Override
+    public Object asValue() {
+        return _boolean;
+    }
+
+    @Override
+    public String asString() {
+        return _boolean ? StringUtil.TRUE : StringUtil.FALSE;
+    }
+
+    @Override
+    public int asInt() {
+        return _boolean ? 1 : 0;
+    }
+
+    @Override
+    public long asLong() {
+        return _boolean ? 1L : 0L;
+    }
+
+    @Override
+    public float asFloat() {
+        return _boolean ? 1f : 0f;
+    }
+
+    @Override
+    public double asDouble() {
+        return _boolean ? 1d : 0d;
+    }
+
+    @Override
+    public boolean asBoolean() {
+        return _boolean;
+    }
+
+    @Override
+    public int hashCode() {
+        return Boolean.hashCode(_boolean);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof JSONBoolean) {
+            return this == obj;
+        }
+        return super.equals(obj);
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.jiruffe.jiraffe.model;
+
+/**
+ * JSON primitive value of {@code double}, held unboxed.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+final class JSONDouble extends JSONPrimitive {
+
+    private final double _double;
+
+    JSONDouble(double v) {
+        super(null);
+        _double = v;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return false;
+    }
+
+    @Override
+    public JSONElement freeze() {
+        return this;
+    }
+
+    @Override
+    public Object asValue() {
+        return _double;
+    }
+
+    @Override
+    public String asString() {
+        return Double.toString(_double);
+    }
+
+    @Override
+    public int asInt() {
+        return (int) (long) _double;
+    }
+
+    @Override
+    public long asLong() {
+        return (long) _double;
+    }
+
+    @Override
+    public float asFloat() {
+        return (float) _double;
+    }
+
+    @Override
+    public double asDouble() {
+        return _double;
+    }
+
+    @Override
+    public boolean asBoolean() {
+        return 0 != (int) _double;
+    }
+
+    @Override
+    public int hashCode() {
+        return Double.hashCode(_double);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof JSONDouble) {
+            // the same as Double#equals(Object)
+            return Double.doubleToLongBits(_double) == Double.doubleToLongBits(((JSONDouble) obj)._double);
+        }
+        return super.equals(obj);
+    }
+
+}
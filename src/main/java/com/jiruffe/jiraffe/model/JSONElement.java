@@ -18,6 +18,7 @@ package com.jiruffe.jiraffe.model;
 
 import com.jiruffe.jiraffe.analyzer.ObjectAnalyzer;
 import com.jiruffe.jiraffe.analyzer.StringAnalyzer;
+import com.jiruffe.jiraffe.util.ConcurrentList;
 import com.jiruffe.jiraffe.util.ObjectUtil;
 import com.jiruffe.jiraffe.util.StringUtil;
 import com.jiruffe.jiraffe.util.TypeUtil;
@@ -25,10 +26,14 @@ import com.jiruffe.jiraffe.util.TypeUtil;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.ObjIntConsumer;
 
 /**
  * Represents JSON element including JSON map {}, list [], or primitive value such as integer, string...
@@ -110,6 +115,43 @@ public abstract class JSONElement implements Iterable<JSONElement.Entry> {
         }
     }
 
+    /**
+     * Get a new instance of {@link JSONNumberArray}, of which the kind is decided by the first number offered.
+     *
+     * @return a new instance of {@link JSONNumberArray}.
+     */
+    public static JSONElement newNumberArray() {
+        return new JSONNumberArray();
+    }
+
+    /**
+     * Get a new instance of {@link JSONNumberArray} backed by specified {@code long[]}, which is not copied.
+     *
+     * @param values the numbers.
+     * @return a new instance of {@link JSONNumberArray} with specified numbers.
+     */
+    public static JSONElement newNumberArray(long[] values) {
+        if (null == values) {
+            return newNumberArray();
+        } else {
+            return new JSONNumberArray(values);
+        }
+    }
+
+    /**
+     * Get a new instance of {@link JSONNumberArray} backed by specified {@code double[]}, which is not copied.
+     *
+     * @param values the numbers.
+     * @return a new instance of {@link JSONNumberArray} with specified numbers.
+     */
+    public static JSONElement newNumberArray(double[] values) {
+        if (null == values) {
+            return newNumberArray();
+        } else {
+            return new JSONNumberArray(values);
+        }
+    }
+
     /**
      * Get a new instance of {@link JSONMap}.
      *
@@ -155,13 +197,214 @@ public abstract class JSONElement implements Iterable<JSONElement.Entry> {
             return (JSONElement) v;
         } else if (v instanceof JSONElement) {
             throw new ClassCastException("Could not cast JSONPrimitive from " + ObjectUtil.getSimpleName(v));
-        } else if (TypeUtil.isPrimitive(v) || v instanceof Number || v instanceof String) {
+        } else if (v instanceof Long) {
+            return new JSONLong((Long) v);
+        } else if (v instanceof Double) {
+            return new JSONDouble((Double) v);
+        } else if (v instanceof Boolean) {
+            return JSONBoolean.valueOf((Boolean) v);
+        } else if (v instanceof String) {
+            return new JSONString((String) v);
+        } else if (TypeUtil.isPrimitive(v) || v instanceof Number) {
             return new JSONPrimitive(v);
         } else {
             throw new ClassCastException("Could not cast JSONPrimitive from " + ObjectUtil.getCanonicalName(v));
         }
     }
 
+    /**
+     * Get a new instance of {@link JSONPrimitive} of which the string value is a view of text,
+     * copied only when {@link #asString()} or {@link #asValue()} is called.
+     *
+     * @param s the text, which must not be modified afterwards.
+     * @return a new instance of {@link JSONPrimitive} of the text.
+     */
+    public static JSONElement newView(CharSequence s) {
+        if (null == s) {
+            return newPrimitive();
+        } else {
+            return new JSONString(s);
+        }
+    }
+
+    /**
+     * Get a lazy instance of {@link JSONElement} indexed over JSON text.
+     * Only the structure of the text is indexed up front, the sub-elements of maps and lists
+     * are materialized on first access, so reading a few values out of a large document is cheap.
+     * A {@link String} is indexed in place, other {@link CharSequence}s are copied once, so that they could be modified afterwards.
+     *
+     * @param json the JSON text.
+     * @return the top element of the JSON text, or {@link #theVoid()} if the text is incomplete.
+     */
+    public static JSONElement newLazy(CharSequence json) {
+        if (null == json) {
+            return theVoid();
+        } else {
+            return JSONIndex.index(json.toString());
+        }
+    }
+
+    /**
+     * Get a lazy instance of {@link JSONElement} indexed over JSON {@code char[]}, reading the array in place.
+     * String values without escapes are views of the array, like those deserialized in place.
+     *
+     * @param json the JSON text, which must not be modified afterwards.
+     * @return the top element of the JSON text, or {@link #theVoid()} if the text is incomplete.
+     */
+    public static JSONElement newLazy(char[] json) {
+        if (null == json) {
+            return theVoid();
+        } else {
+            return JSONIndex.index(json);
+        }
+    }
+
+    /**
+     * Get a read-only instance of {@link JSONElement} parsed into a tape.
+     * The whole tree is stored in a flat {@code long[]} and a pool of {@link String}s, instead of an object per element,
+     * which takes much less memory for large documents, and leaves the garbage collector few objects to mark.
+     * The sub-elements are read from the tape on access, so a primitive peeked twice is two equal instances.
+     *
+     * @param json the JSON text.
+     * @return the top element of the JSON text, or {@link #theVoid()} if the text is incomplete.
+     * @see #toTape()
+     */
+    public static JSONElement newTape(CharSequence json) {
+        if (null == json) {
+            return theVoid();
+        } else {
+            return JSONTape.parse(json);
+        }
+    }
+
+    /**
+     * Returns a copy of this element stored in a tape, or this element if it is read from a tape already.
+     *
+     * @return the element read from the tape.
+     * @see #newTape(CharSequence)
+     */
+    public JSONElement toTape() {
+        return JSONTape.of(this);
+    }
+
+    /**
+     * Writes this element to a snapshot file, which is replaced if present, to be opened by {@link #openSnapshot(Path)}.
+     * The snapshot is the tape of this element in binary, see {@link #toTape()}.
+     *
+     * @param path the {@link Path} of the file.
+     */
+    public void writeSnapshot(Path path) {
+        JSONSnapshot.write(this, path);
+    }
+
+    /**
+     * Opens a snapshot file written by {@link #writeSnapshot(Path)}, of which the elements are read in place from the memory-mapped file.
+     * Nothing is parsed or loaded onto the heap up front, so opening takes little time however large the file is,
+     * and the pages are loaded as the elements are read. The elements are read-only as those of a tape.
+     * The file must not be modified while the elements are reachable.
+     *
+     * @param path the {@link Path} of the file.
+     * @return the top element of the snapshot.
+     * @throws IllegalArgumentException if the file is not a snapshot.
+     */
+    public static JSONElement openSnapshot(Path path) {
+        return JSONSnapshot.open(path);
+    }
+
+    /**
+     * Get a new empty {@link JSONElement} map which could be modified by multiple threads without locks,
+     * backed by a {@link ConcurrentHashMap}, so that keys must not be null, and are not kept in insertion order.
+     * Iterating goes over the sub-elements present at some point of it, without {@link java.util.ConcurrentModificationException}.
+     *
+     * @return the new empty concurrent {@link JSONElement} map.
+     */
+    public static JSONElement newConcurrentMap() {
+        return new JSONMap(new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Get a new empty {@link JSONElement} list which could be modified by multiple threads without locks,
+     * backed by a {@link ConcurrentList}, so that offering by different threads scales.
+     * Sub-elements offered by one thread are kept in order, but the ones by different threads may be interleaved.
+     * Iterating goes over a snapshot.
+     *
+     * @return the new empty concurrent {@link JSONElement} list.
+     */
+    public static JSONElement newConcurrentList() {
+        return new JSONList(new ConcurrentList<>());
+    }
+
+    /**
+     * Get a new empty persistent {@link JSONElement} map,
+     * on which modifying returns a new version sharing the sub-elements not changed.
+     *
+     * @return the new empty persistent {@link JSONElement} map.
+     * @see #persist()
+     */
+    public static JSONElement newPersistentMap() {
+        return JSONPersistentMap.EMPTY;
+    }
+
+    /**
+     * Get a new empty persistent {@link JSONElement} list,
+     * on which modifying returns a new version sharing the sub-elements not changed.
+     *
+     * @return the new empty persistent {@link JSONElement} list.
+     * @see #persist()
+     */
+    public static JSONElement newPersistentList() {
+        return JSONPersistentList.EMPTY;
+    }
+
+    /**
+     * Returns a persistent copy of this element, in which the maps and the lists are persistent recursively, and the primitives frozen.
+     * {@link #offer(Object)}, {@link #offer(Object, Object)}, {@link #poll(Object)} and {@link #merge(JSONElement)}
+     * on a persistent map or list leave it as it is, and return a new version instead, in O(log n),
+     * which shares the sub-elements not changed with this one.
+     * So a small modification of a large element does not need a deep copy,
+     * e.g. {@code base.offer("settings", base.peek("settings").offer("debug", true))}.
+     * A persistent element of which the sub-elements are all frozen is frozen as well.
+     *
+     * @return the persistent element.
+     */
+    public JSONElement persist() {
+        return freeze();
+    }
+
+    /**
+     * Returns whether modifying this element returns a new version instead.
+     *
+     * @return {@code true} if persistent, {@code false} otherwise.
+     * @see #persist()
+     */
+    public boolean isPersistent() {
+        return false;
+    }
+
+    /**
+     * Returns a read-only copy of this element, in which the maps and the lists are frozen recursively.
+     * Modifying a frozen map or list throws {@link UnsupportedOperationException}.
+     * The hash codes of frozen maps and lists are computed once, and frozen ones with different hash codes are unequal without comparing them.
+     * The sub-elements of a frozen map or list are built before it and held by final fields,
+     * so a frozen tree could be shared by threads without locks. Views of text are copied, not to keep the text.
+     * An element frozen already is returned itself.
+     *
+     * @return the frozen element.
+     */
+    public JSONElement freeze() {
+        return this;
+    }
+
+    /**
+     * Returns whether this element could not be modified, such as primitives and frozen maps and lists.
+     *
+     * @return {@code true} if read-only, {@code false} otherwise.
+     * @see #freeze()
+     */
+    public boolean isFrozen() {
+        return false;
+    }
+
     /**
      * Returns {@link JSONVoid#INSTANCE} which represents a {@code void} element,
      * also known as {@code null}, {@code undefined} or {@code NaN} in JSON.
@@ -196,7 +439,17 @@ public abstract class JSONElement implements Iterable<JSONElement.Entry> {
      * @return {@code true} if instance of {@link JSONList}, {@code false} otherwise.
      */
     public boolean isList() {
-        return this instanceof JSONList;
+        return this instanceof JSONList || this instanceof JSONNumberArray || this instanceof JSONPersistentList || this instanceof JSONTapeList;
+    }
+
+    /**
+     * Returns whether this element is a list of numbers backed by a primitive array,
+     * of which {@link #asLongArray()} and {@link #asDoubleArray()} are copies of the array.
+     *
+     * @return {@code true} if instance of {@link JSONNumberArray} holding numbers only, {@code false} otherwise.
+     */
+    public boolean isNumberArray() {
+        return false;
     }
 
     /**
@@ -205,7 +458,7 @@ public abstract class JSONElement implements Iterable<JSONElement.Entry> {
      * @return {@code true} if instance of {@link JSONMap}, {@code false} otherwise.
      */
     public boolean isMap() {
-        return this instanceof JSONMap;
+        return this instanceof JSONMap || this instanceof JSONPersistentMap || this instanceof JSONTapeMap;
     }
 
     /**
@@ -256,7 +509,28 @@ public abstract class JSONElement implements Iterable<JSONElement.Entry> {
     }
 
     /**
-     * Get all the keys of this element.
+     * Performs the action for each key and sub-element of this element, without copying the entries.
+     * The keys of a list are its indexes, and a primitive is its own sub-element with the key {@code null}.
+     *
+     * @param action the action taking the key and the sub-element.
+     */
+    public void forEachEntry(BiConsumer<Object, ? super JSONElement> action) {
+        for (Entry e : this) {
+            action.accept(e.getKey(), e.getElement());
+        }
+    }
+
+    /**
+     * Performs the action for each sub-element of this list and its index, without boxing the indexes.
+     *
+     * @param action the action taking the sub-element and its index.
+     */
+    public void forEachIndexed(ObjIntConsumer<? super JSONElement> action) {
+        throw new UnsupportedOperationException("Could not iterate by index over " + ObjectUtil.getSimpleName(this));
+    }
+
+    /**
+     * Get all the keys of this element, as a live view for maps and lists.
      *
      * @return a {@link Collection} of keys.
      */
@@ -265,7 +539,7 @@ public abstract class JSONElement implements Iterable<JSONElement.Entry> {
     }
 
     /**
-     * Get all the values of this element.
+     * Get all the values of this element, as a live view for maps and lists.
      *
      * @return a {@link Collection} of values.
      */
@@ -353,6 +627,24 @@ public abstract class JSONElement implements Iterable<JSONElement.Entry> {
         throw new ClassCastException("Could not cast List from " + ObjectUtil.getSimpleName(this));
     }
 
+    /**
+     * Get the {@code long[]} of the sub-elements of the list that this element represents.
+     *
+     * @return the {@code long[]} of the sub-elements.
+     */
+    public long[] asLongArray() {
+        throw new ClassCastException("Could not cast long[] from " + ObjectUtil.getSimpleName(this));
+    }
+
+    /**
+     * Get the {@code double[]} of the sub-elements of the list that this element represents.
+     *
+     * @return the {@code double[]} of the sub-elements.
+     */
+    public double[] asDoubleArray() {
+        throw new ClassCastException("Could not cast double[] from " + ObjectUtil.getSimpleName(this));
+    }
+
     /**
      * Get the {@link Map} that this element represents.
      *
@@ -381,6 +673,16 @@ public abstract class JSONElement implements Iterable<JSONElement.Entry> {
         return StringAnalyzer.analyze(this);
     }
 
+    /**
+     * Returns the {@link CharSequence} that this element represents, without copying if it is a view of text.
+     *
+     * @return the {@link CharSequence} that this element represents or the JSON expression of this element.
+     * @see #newView(CharSequence)
+     */
+    public CharSequence asCharSequence() {
+        return asString();
+    }
+
     /**
      * Get the {@code byte} that this element represents.
      *
@@ -543,7 +845,7 @@ public abstract class JSONElement implements Iterable<JSONElement.Entry> {
      *
      * @see JSONElement#entries()
      */
-    public final class Entry {
+    public static final class Entry {
 
         private final Object key;
         private final JSONElement element;
@@ -0,0 +1,222 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.jiruffe.jiraffe.model;
+
+import com.jiruffe.jiraffe.JSONReader;
+import com.jiruffe.jiraffe.JSONToken;
+import com.jiruffe.jiraffe.util.CharSlice;
+import com.jiruffe.jiraffe.util.NumberScanner;
+import com.jiruffe.jiraffe.util.StringUtil;
+import com.jiruffe.jiraffe.util.SymbolTable;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * Structural index over JSON text, from which {@link JSONMap} and {@link JSONList} materialize their sub-elements lazily.
+ * The index is a flat {@code int[]} of {@link #SLOT} ints per token:
+ * the token, then the range of its text in the source, or the index of the matching end token for maps and lists.
+ * The source is a {@code char[]} or a {@link String}, read in place without copying,
+ * building the index allocates nothing but the {@code int[]} and the buffer of the reader, and materializing a map or a list only walks its own tokens,
+ * skipping the sub-maps and sub-lists which are left lazy.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+final class JSONIndex {
+
+    private static final int SLOT = 3;
+    // the bit set on the token of names and strings with escapes
+    private static final int ESCAPED = 1 << 8;
+    private static final int TOKEN = ESCAPED - 1;
+    private static final JSONToken[] TOKENS = JSONToken.values();
+
+    // the source if it is a char[], of which the strings are views, null if it is a String
+    private final char[] _array;
+    private final CharSequence _source;
+    private final int[] _tokens;
+
+    private JSONIndex(char[] array, CharSequence source, int[] tokens) {
+        _array = array;
+        _source = source;
+        _tokens = tokens;
+    }
+
+    /**
+     * Indexes JSON text and returns the top element, of which the sub-elements are materialized on first access.
+     *
+     * @param source the JSON text, which must not be modified afterwards.
+     * @return the top element.
+     */
+    static JSONElement index(char[] source) {
+        return index(new JSONReader(source), source, new CharSlice(source, 0, source.length));
+    }
+
+    /**
+     * Indexes JSON text and returns the top element, of which the sub-elements are materialized on first access.
+     *
+     * @param source the JSON text.
+     * @return the top element.
+     */
+    static JSONElement index(String source) {
+        return index(new JSONReader(source), null, source);
+    }
+
+    private static JSONElement index(JSONReader reader, char[] array, CharSequence source) {
+
+        int[] tokens = new int[Math.max(16, source.length() >> 4) * SLOT];
+        int size = 0;
+        // stack of the indexes of maps and lists not ended yet
+        int[] bases = new int[32];
+        int depth = 0;
+
+        while (true) {
+
+            JSONToken token = reader.nextToken();
+            if (JSONToken.END_DOCUMENT == token) {
+                // incomplete document
+                return JSONElement.theVoid();
+            } else if (0 == size && (JSONToken.END_MAP == token || JSONToken.END_LIST == token)) {
+                return JSONElement.theVoid();
+            }
+
+            if (size + SLOT > tokens.length) {
+                tokens = Arrays.copyOf(tokens, tokens.length << 1);
+            }
+            int i = size;
+            size += SLOT;
+            tokens[i] = token.ordinal();
+
+            switch (token) {
+
+                case BEGIN_MAP:
+                case BEGIN_LIST:
+                    if (depth == bases.length) {
+                        bases = Arrays.copyOf(bases, depth << 1);
+                    }
+                    bases[depth++] = i;
+                    break;
+
+                case END_MAP:
+                case END_LIST:
+                    tokens[bases[--depth] + 1] = i;
+                    break;
+
+                case VOID:
+                    break;
+
+                default:
+                    // the text is read from chars, so it is the range of the source at the offset
+                    int offset = (int) reader.offset();
+                    tokens[i + 1] = offset;
+                    tokens[i + 2] = offset + reader.text().length();
+                    if (reader.escaped()) {
+                        tokens[i] |= ESCAPED;
+                    }
+                    break;
+
+            }
+
+            if (0 == depth) {
+                return new JSONIndex(array, source, tokens).element(0);
+            }
+
+        }
+
+    }
+
+    /**
+     * Materializes the sub-elements of the map or the list indexed at {@code i} to {@code sink}.
+     *
+     * @param i    the index of its begin token.
+     * @param sink the consumer of the keys, {@code null} in lists, and the sub-elements.
+     */
+    void materialize(int i, BiConsumer<String, JSONElement> sink) {
+
+        int end = _tokens[i + 1];
+        String key = null;
+
+        for (int j = i + SLOT; j < end; ) {
+            JSONToken token = TOKENS[_tokens[j] & TOKEN];
+            if (JSONToken.NAME == token) {
+                key = symbol(j, SymbolTable.NAMES);
+                j += SLOT;
+                continue;
+            }
+            sink.accept(key, element(j));
+            j = JSONToken.BEGIN_MAP == token || JSONToken.BEGIN_LIST == token ? _tokens[j + 1] + SLOT : j + SLOT;
+        }
+
+    }
+
+    private JSONElement element(int i) {
+
+        switch (TOKENS[_tokens[i] & TOKEN]) {
+
+            case BEGIN_MAP:
+                return new JSONMap(this, i);
+
+            case BEGIN_LIST:
+                return new JSONList(this, i);
+
+            case STRING:
+                return string(i);
+
+            case NUMBER:
+                return JSONElement.newPrimitive(NumberScanner.parse(slice(i)));
+
+            case BOOLEAN:
+                return JSONElement.newPrimitive(StringUtil.equalsIgnoreCase(StringUtil.TRUE, slice(i)));
+
+            default:
+                return JSONElement.theVoid();
+
+        }
+
+    }
+
+    private JSONElement string(int i) {
+        CharSequence slice = slice(i);
+        if (0 != (_tokens[i] & ESCAPED)) {
+            return JSONElement.newPrimitive(StringUtil.unescape(slice));
+        } else if (null != _array) {
+            // the source is never modified, so the view stays valid
+            return JSONElement.newView((CharSlice) slice);
+        } else {
+            return JSONElement.newPrimitive(slice.toString());
+        }
+    }
+
+    private String symbol(int i, SymbolTable symbols) {
+        if (0 != (_tokens[i] & ESCAPED)) {
+            return StringUtil.unescape(slice(i));
+        } else if (null != _array) {
+            return symbols.lookup(_array, _tokens[i + 1], _tokens[i + 2] - _tokens[i + 1]);
+        } else {
+            return symbols.lookup(_source, _tokens[i + 1], _tokens[i + 2] - _tokens[i + 1]);
+        }
+    }
+
+    private CharSequence slice(int i) {
+        if (null != _array) {
+            return new CharSlice(_array, _tokens[i + 1], _tokens[i + 2] - _tokens[i + 1]);
+        } else {
+            return _source.subSequence(_tokens[i + 1], _tokens[i + 2]);
+        }
+    }
+
+}
@@ -17,10 +17,13 @@
 package com.jiruffe.jiraffe.model;
 
 import com.jiruffe.jiraffe.util.Defaults;
+import com.jiruffe.jiraffe.util.PersistentVector;
 import com.jiruffe.jiraffe.util.TypeUtil;
 
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 /**
  * JSON list []
@@ -31,55 +34,124 @@ import java.util.function.Consumer;
 final class JSONList extends JSONElement {
 
     private final List<JSONElement> _sub_elements;
+    private final boolean _frozen;
+    // the hash code memoized once frozen, 0 if not computed yet
+    private int _hash = 0;
+    // the index to materialize the sub-elements from, null once materialized and published
+    private volatile JSONIndex _index = null;
+    private int _begin = 0;
 
     JSONList() {
         this(Defaults.list());
     }
 
     JSONList(List<JSONElement> sub_elements) {
+        this(sub_elements, false);
+    }
+
+    JSONList(List<JSONElement> sub_elements, boolean frozen) {
         _sub_elements = sub_elements;
+        _frozen = frozen;
+    }
+
+    /**
+     * Get a frozen list of the sub-elements frozen.
+     *
+     * @param list the list to be frozen.
+     * @return the frozen list.
+     */
+    static JSONElement freeze(JSONElement list) {
+        List<JSONElement> sub_elements = new ArrayList<>(list.size());
+        list.forEachIndexed((v, i) -> sub_elements.add(v.freeze()));
+        return new JSONList(Collections.unmodifiableList(sub_elements), true);
+    }
+
+    /**
+     * Get a persistent list of the sub-elements persistent.
+     *
+     * @param list the list to be persistent.
+     * @return the persistent list.
+     */
+    static JSONElement persist(JSONElement list) {
+        PersistentVector<JSONElement> sub_elements = PersistentVector.empty();
+        for (JSONElement v : list.asList()) {
+            sub_elements = sub_elements.plus(v.persist());
+        }
+        return new JSONPersistentList(sub_elements, true);
+    }
+
+    JSONList(JSONIndex index, int begin) {
+        this();
+        _begin = begin;
+        _index = index;
+    }
+
+    @Override
+    public JSONElement freeze() {
+        return _frozen ? this : freeze(this);
+    }
+
+    @Override
+    public JSONElement persist() {
+        return persist(this);
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return _frozen;
     }
 
     @Override
     public boolean isEmpty() {
-        return _sub_elements.isEmpty();
+        return subElements().isEmpty();
     }
 
     @Override
     public int size() {
-        return _sub_elements.size();
+        return subElements().size();
     }
 
     @Override
     public Collection<Entry> entries() {
         Collection<Entry> entries = Defaults.collection();
-        for (int i = 0; i < _sub_elements.size(); i++) {
-            entries.add(new Entry(i, _sub_elements.get(i)));
-        }
+        forEachEntry((k, v) -> entries.add(new Entry(k, v)));
         return entries;
     }
 
     @Override
-    public Collection<Object> keys() {
-        Set<Object> s = new HashSet<>();
-        for (int i = 0; i < _sub_elements.size(); i++) {
-            s.add(i);
+    public void forEachEntry(BiConsumer<Object, ? super JSONElement> action) {
+        // iterates rather than gets by index, which takes the lock on each call for concurrent lists
+        int i = 0;
+        for (JSONElement v : subElements()) {
+            action.accept(i++, v);
+        }
+    }
+
+    @Override
+    public void forEachIndexed(ObjIntConsumer<? super JSONElement> action) {
+        int i = 0;
+        for (JSONElement v : subElements()) {
+            action.accept(v, i++);
         }
-        return s;
+    }
+
+    @Override
+    public Collection<Object> keys() {
+        return new Indexes(this);
     }
 
     @Override
     public Collection<JSONElement> values() {
-        return _sub_elements;
+        return subElements();
     }
 
     @Override
     public JSONElement peek(Object k) {
         if (TypeUtil.couldCastToInteger(k)) {
             int ik = TypeUtil.castToInteger(k);
-            int sz = _sub_elements.size();
+            int sz = subElements().size();
             if (ik >= 0 && ik < sz) {
-                JSONElement v = _sub_elements.get(ik);
+                JSONElement v = subElements().get(ik);
                 return null != v ? v : JSONElement.theVoid();
             } else {
                 throw new IndexOutOfBoundsException("Index: " + ik + ", Size: " + sz);
@@ -93,9 +165,9 @@ final class JSONList extends JSONElement {
     public JSONElement poll(Object k) {
         if (TypeUtil.couldCastToInteger(k)) {
             int ik = TypeUtil.castToInteger(k);
-            int sz = _sub_elements.size();
+            int sz = subElements().size();
             if (ik >= 0 && ik < sz) {
-                JSONElement v = _sub_elements.remove(ik);
+                JSONElement v = subElements().remove(ik);
                 return null != v ? v : JSONElement.theVoid();
             } else {
                 throw new IndexOutOfBoundsException("Index: " + ik + ", Size: " + sz);
@@ -108,13 +180,13 @@ final class JSONList extends JSONElement {
     @Override
     public JSONElement offer(Object v) {
         if (null == v) {
-            _sub_elements.add(JSONElement.theVoid());
+            subElements().add(JSONElement.theVoid());
         } else if (v instanceof JSONElement) {
-            _sub_elements.add((JSONElement) v);
+            subElements().add((JSONElement) v);
         } else if (v instanceof Entry) {
-            _sub_elements.add(JSONElement.newMap().offer(v));
+            subElements().add(JSONElement.newMap().offer(v));
         } else {
-            _sub_elements.add(JSONElement.newPrimitive(v));
+            subElements().add(JSONElement.newPrimitive(v));
         }
         return this;
     }
@@ -123,16 +195,16 @@ final class JSONList extends JSONElement {
     public JSONElement offer(Object k, Object v) {
         if (TypeUtil.couldCastToInteger(k)) {
             int ik = TypeUtil.castToInteger(k);
-            int sz = _sub_elements.size();
+            int sz = subElements().size();
             if (ik >= 0 && ik < sz) {
                 if (null == v) {
-                    _sub_elements.set(ik, JSONElement.theVoid());
+                    subElements().set(ik, JSONElement.theVoid());
                 } else if (v instanceof JSONElement) {
-                    _sub_elements.set(ik, (JSONElement) v);
+                    subElements().set(ik, (JSONElement) v);
                 } else if (v instanceof Entry) {
-                    _sub_elements.set(ik, JSONElement.newMap().offer(v));
+                    subElements().set(ik, JSONElement.newMap().offer(v));
                 } else {
-                    _sub_elements.set(ik, JSONElement.newPrimitive(v));
+                    subElements().set(ik, JSONElement.newPrimitive(v));
                 }
             } else {
                 throw new IndexOutOfBoundsException("Index: " + ik + ", Size: " + sz);
@@ -145,8 +217,8 @@ final class JSONList extends JSONElement {
 
     @Override
     public JSONElement merge(JSONElement e) {
-        if (e instanceof JSONList) {
-            _sub_elements.addAll(e.asList());
+        if (e.isList()) {
+            subElements().addAll(e.asList());
         } else {
             super.merge(e);
         }
@@ -159,7 +231,7 @@ final class JSONList extends JSONElement {
             return false;
         } else if (TypeUtil.couldCastToInteger(k)) {
             int ik = TypeUtil.castToInteger(k);
-            return ik >= 0 && ik < _sub_elements.size();
+            return ik >= 0 && ik < subElements().size();
         } else {
             return false;
         }
@@ -173,13 +245,31 @@ final class JSONList extends JSONElement {
             return false;
         } else {
             JSONElement ev = JSONElement.newInstance(v);
-            return _sub_elements.contains(JSONElement.newInstance(ev)) || equals(ev);
+            return subElements().contains(JSONElement.newInstance(ev)) || equals(ev);
         }
     }
 
     @Override
     public List<JSONElement> asList() {
-        return _sub_elements;
+        return subElements();
+    }
+
+    @Override
+    public long[] asLongArray() {
+        long[] longs = new long[subElements().size()];
+        for (int i = 0; i < longs.length; i++) {
+            longs[i] = peek(i).asLong();
+        }
+        return longs;
+    }
+
+    @Override
+    public double[] asDoubleArray() {
+        double[] doubles = new double[subElements().size()];
+        for (int i = 0; i < doubles.length; i++) {
+            doubles[i] = peek(i).asDouble();
+        }
+        return doubles;
     }
 
     @Override
@@ -197,4 +287,93 @@ final class JSONList extends JSONElement {
         return entries().spliterator();
     }
 
+    @Override
+    public int hashCode() {
+        if (!_frozen) {
+            return super.hashCode();
+        }
+        int h = _hash;
+        if (0 == h) {
+            h = super.hashCode();
+            _hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (_frozen && obj instanceof JSONElement && ((JSONElement) obj).isList() && ((JSONElement) obj).isFrozen() && hashCode() != obj.hashCode()) {
+            return false;
+        }
+        return super.equals(obj);
+    }
+
+    /**
+     * Empties this element to be reused by {@link JSONArena}.
+     */
+    void recycle() {
+        _sub_elements.clear();
+        _index = null;
+        _begin = 0;
+    }
+
+    /**
+     * Live {@link Set} view of the indexes of a list.
+     */
+    static final class Indexes extends AbstractSet<Object> {
+
+        private final JSONElement _list;
+
+        Indexes(JSONElement list) {
+            _list = list;
+        }
+
+        @Override
+        public int size() {
+            return _list.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Integer && (Integer) o >= 0 && (Integer) o < _list.size();
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            return new Iterator<Object>() {
+
+                private int _cursor = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return _cursor < _list.size();
+                }
+
+                @Override
+                public Object next() {
+                    if (_cursor >= _list.size()) {
+                        throw new NoSuchElementException();
+                    }
+                    return _cursor++;
+                }
+
+            };
+        }
+
+    }
+
+    private List<JSONElement> subElements() {
+        if (null != _index) {
+            // materialized once by the first reader, the others wait for it
+            synchronized (this) {
+                JSONIndex index = _index;
+                if (null != index) {
+                    index.materialize(_begin, (k, v) -> _sub_elements.add(v));
+                    _index = null;
+                }
+            }
+        }
+        return _sub_elements;
+    }
+
 }
@@ -0,0 +1,92 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.jiruffe.jiraffe.model;
+
+/**
+ * JSON primitive value of {@code long}, held unboxed.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+final class JSONLong extends JSONPrimitive {
+
+    private final long _long;
+
+    JSONLong(long v) {
+        super(null);
+        _long = v;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return false;
+    }
+
+    @Override
+    public JSONElement freeze() {
+        return this;
+    }
+
+    @Override
+    public Object asValue() {
+        return _long;
+    }
+
+    @Override
+    public String asString() {
+        return Long.toString(_long);
+    }
+
+    @Override
+    public int asInt() {
+        return (int) _long;
+    }
+
+    @Override
+    public long asLong() {
+        return _long;
+    }
+
+    @Override
+    public float asFloat() {
+        return (float) (double) _long;
+    }
+
+    @Override
+    public double asDouble() {
+        return (double) _long;
+    }
+
+    @Override
+    public boolean asBoolean() {
+        return 0 != (int) _long;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(_long);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof JSONLong) {
+            return _long == ((JSONLong) obj)._long;
+        }
+        return super.equals(obj);
+    }
+
+}
@@ -16,12 +16,17 @@
 
 package com.jiruffe.jiraffe.model;
 
+import com.jiruffe.jiraffe.util.CompactMap;
 import com.jiruffe.jiraffe.util.Defaults;
+import com.jiruffe.jiraffe.util.PersistentMap;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Spliterator;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 /**
@@ -33,53 +38,106 @@ import java.util.function.Consumer;
 final class JSONMap extends JSONElement {
 
     private final Map<Object, JSONElement> _sub_elements;
+    private final boolean _frozen;
+    // the hash code memoized once frozen, 0 if not computed yet
+    private int _hash = 0;
+    // the index to materialize the sub-elements from, null once materialized and published
+    private volatile JSONIndex _index = null;
+    private int _begin = 0;
 
     JSONMap() {
-        this(Defaults.map());
+        this(new CompactMap<>());
     }
 
     JSONMap(Map<?, JSONElement> sub_elements) {
+        this(sub_elements, false);
+    }
+
+    JSONMap(Map<?, JSONElement> sub_elements, boolean frozen) {
         _sub_elements = (Map<Object, JSONElement>) sub_elements;
+        _frozen = frozen;
+    }
+
+    JSONMap(JSONIndex index, int begin) {
+        this();
+        _begin = begin;
+        _index = index;
+    }
+
+    @Override
+    public JSONElement freeze() {
+        if (_frozen) {
+            return this;
+        }
+        Map<Object, JSONElement> sub_elements = new CompactMap<>();
+        forEachEntry((k, v) -> sub_elements.put(k, v.freeze()));
+        return new JSONMap(Collections.unmodifiableMap(sub_elements), true);
+    }
+
+    @Override
+    public JSONElement persist() {
+        PersistentMap<Object, JSONElement> sub_elements = PersistentMap.empty();
+        for (Map.Entry<Object, JSONElement> e : subElements().entrySet()) {
+            sub_elements = sub_elements.with(e.getKey(), e.getValue().persist());
+        }
+        return new JSONPersistentMap(sub_elements, true);
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return _frozen;
     }
 
     @Override
     public boolean isEmpty() {
-        return _sub_elements.isEmpty();
+        return subElements().isEmpty();
     }
 
     @Override
     public int size() {
-        return _sub_elements.size();
+        return subElements().size();
     }
 
     @Override
     public Collection<Entry> entries() {
         Collection<Entry> entries = Defaults.collection();
-        for (Map.Entry<Object, JSONElement> e : _sub_elements.entrySet()) {
+        for (Map.Entry<Object, JSONElement> e : subElements().entrySet()) {
             entries.add(new Entry(e.getKey(), e.getValue()));
         }
         return entries;
     }
 
+    @Override
+    public void forEachEntry(BiConsumer<Object, ? super JSONElement> action) {
+        subElements().forEach(action);
+    }
+
     @Override
     public Collection<Object> keys() {
-        return _sub_elements.keySet();
+        return subElements().keySet();
     }
 
     @Override
     public Collection<JSONElement> values() {
-        return _sub_elements.values();
+        return subElements().values();
     }
 
     @Override
     public JSONElement peek(Object k) {
-        JSONElement v = _sub_elements.get(k);
+        if (null == k && _sub_elements instanceof ConcurrentMap) {
+            // concurrent maps do not permit null keys, so none is present
+            return JSONElement.theVoid();
+        }
+        JSONElement v = subElements().get(k);
         return null != v ? v : JSONElement.theVoid();
     }
 
     @Override
     public JSONElement poll(Object k) {
-        JSONElement v = _sub_elements.remove(k);
+        if (null == k && _sub_elements instanceof ConcurrentMap) {
+            return JSONElement.theVoid();
+        }
+        JSONElement v = subElements().remove(k);
         return null != v ? v : JSONElement.theVoid();
     }
 
@@ -95,20 +153,23 @@ final class JSONMap extends JSONElement {
 
     @Override
     public JSONElement offer(Object k, Object v) {
+        if (null == k && _sub_elements instanceof ConcurrentMap) {
+            throw new IllegalArgumentException("Could not offer null key to concurrent JSONMap");
+        }
         if (null == v) {
-            _sub_elements.put(k, JSONElement.theVoid());
+            subElements().put(k, JSONElement.theVoid());
         } else if (v instanceof JSONElement) {
-            _sub_elements.put(k, (JSONElement) v);
+            subElements().put(k, (JSONElement) v);
         } else {
-            _sub_elements.put(k, JSONElement.newPrimitive(v));
+            subElements().put(k, JSONElement.newPrimitive(v));
         }
         return this;
     }
 
     @Override
     public JSONElement merge(JSONElement e) {
-        if (e instanceof JSONMap) {
-            _sub_elements.putAll(e.asMap());
+        if (e.isMap()) {
+            subElements().putAll(e.asMap());
         } else {
             super.merge(e);
         }
@@ -120,7 +181,7 @@ final class JSONMap extends JSONElement {
         if (null == k) {
             return false;
         } else {
-            return _sub_elements.containsKey(k);
+            return subElements().containsKey(k);
         }
     }
 
@@ -132,13 +193,13 @@ final class JSONMap extends JSONElement {
             return false;
         } else {
             JSONElement ev = JSONElement.newInstance(v);
-            return _sub_elements.containsValue(ev) || equals(ev);
+            return subElements().containsValue(ev) || equals(ev);
         }
     }
 
     @Override
     public Map<Object, JSONElement> asMap() {
-        return _sub_elements;
+        return subElements();
     }
 
     @Override
@@ -156,4 +217,48 @@ final class JSONMap extends JSONElement {
         return entries().spliterator();
     }
 
+    @Override
+    public int hashCode() {
+        if (!_frozen) {
+            return super.hashCode();
+        }
+        int h = _hash;
+        if (0 == h) {
+            h = super.hashCode();
+            _hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (_frozen && obj instanceof JSONElement && ((JSONElement) obj).isMap() && ((JSONElement) obj).isFrozen() && hashCode() != obj.hashCode()) {
+            return false;
+        }
+        return super.equals(obj);
+    }
+
+    /**
+     * Empties this element to be reused by {@link JSONArena}.
+     */
+    void recycle() {
+        _sub_elements.clear();
+        _index = null;
+        _begin = 0;
+    }
+
+    private Map<Object, JSONElement> subElements() {
+        if (null != _index) {
+            // materialized once by the first reader, the others wait for it
+            synchronized (this) {
+                JSONIndex index = _index;
+                if (null != index) {
+                    index.materialize(_begin, (k, v) -> _sub_elements.put(k, v));
+                    _index = null;
+                }
+            }
+        }
+        return _sub_elements;
+    }
+
 }
@@ -0,0 +1,498 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.jiruffe.jiraffe.model;
+
+import com.jiruffe.jiraffe.util.Defaults;
+import com.jiruffe.jiraffe.util.TypeUtil;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * JSON list [] of numbers backed by {@code long[]} or {@code double[]}, which holds 8 bytes per number
+ * instead of a {@link JSONPrimitive} wrapping a boxed {@link Long} or {@link Double}.
+ * The sub-elements are {@link Long} only or {@link Double} only, so that they are equal to the ones of a {@link JSONList};
+ * the kind of an empty one is decided by the first number offered.
+ * Offering anything else converts the storage to boxed elements, after which it behaves as a {@link JSONList}.
+ * The primitives peeked are created on each access.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+final class JSONNumberArray extends JSONElement {
+
+    private static final int MIN_CAPACITY = 8;
+
+    // at most one of the arrays is not null, both are null if empty and undecided or converted
+    private long[] _longs = null;
+    private double[] _doubles = null;
+    private int _size = 0;
+    // the boxed elements once converted
+    private List<JSONElement> _sub_elements = null;
+    private final boolean _frozen;
+    // the hash code memoized once frozen, 0 if not computed yet
+    private int _hash = 0;
+
+    JSONNumberArray() {
+        _frozen = false;
+    }
+
+    JSONNumberArray(long[] longs) {
+        this(longs, false);
+    }
+
+    JSONNumberArray(long[] longs, boolean frozen) {
+        _longs = longs;
+        _size = longs.length;
+        _frozen = frozen;
+    }
+
+    JSONNumberArray(double[] doubles) {
+        this(doubles, false);
+    }
+
+    JSONNumberArray(double[] doubles, boolean frozen) {
+        _doubles = doubles;
+        _size = doubles.length;
+        _frozen = frozen;
+    }
+
+    @Override
+    public JSONElement freeze() {
+        if (_frozen) {
+            return this;
+        } else if (null != _sub_elements) {
+            return JSONList.freeze(this);
+        } else if (null != _doubles) {
+            return new JSONNumberArray(Arrays.copyOf(_doubles, _size), true);
+        } else {
+            return new JSONNumberArray(null != _longs ? Arrays.copyOf(_longs, _size) : new long[0], true);
+        }
+    }
+
+    @Override
+    public JSONElement persist() {
+        return JSONList.persist(this);
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return _frozen;
+    }
+
+    @Override
+    public boolean isNumberArray() {
+        return null == _sub_elements;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return 0 == size();
+    }
+
+    @Override
+    public int size() {
+        return null != _sub_elements ? _sub_elements.size() : _size;
+    }
+
+    @Override
+    public Collection<Entry> entries() {
+        Collection<Entry> entries = Defaults.collection();
+        for (int i = 0; i < size(); i++) {
+            entries.add(new Entry(i, element(i)));
+        }
+        return entries;
+    }
+
+    @Override
+    public void forEachEntry(BiConsumer<Object, ? super JSONElement> action) {
+        for (int i = 0; i < size(); i++) {
+            action.accept(i, element(i));
+        }
+    }
+
+    @Override
+    public void forEachIndexed(ObjIntConsumer<? super JSONElement> action) {
+        for (int i = 0; i < size(); i++) {
+            action.accept(element(i), i);
+        }
+    }
+
+    @Override
+    public Collection<Object> keys() {
+        return new JSONList.Indexes(this);
+    }
+
+    @Override
+    public Collection<JSONElement> values() {
+        return asList();
+    }
+
+    @Override
+    public JSONElement peek(Object k) {
+        return element(index(k));
+    }
+
+    @Override
+    public JSONElement poll(Object k) {
+        checkNotFrozen();
+        int ik = index(k);
+        if (null != _sub_elements) {
+            return _sub_elements.remove(ik);
+        }
+        JSONElement v = element(ik);
+        if (null != _longs) {
+            System.arraycopy(_longs, ik + 1, _longs, ik, _size - ik - 1);
+        } else {
+            System.arraycopy(_doubles, ik + 1, _doubles, ik, _size - ik - 1);
+        }
+        _size--;
+        return v;
+    }
+
+    @Override
+    public JSONElement offer(Object v) {
+        insert(size(), v);
+        return this;
+    }
+
+    @Override
+    public JSONElement offer(Object k, Object v) {
+        checkNotFrozen();
+        int ik = index(k);
+        Object n = number(v);
+        if (n instanceof Long && null != _longs) {
+            _longs[ik] = (Long) n;
+        } else if (n instanceof Double && null != _doubles) {
+            _doubles[ik] = (Double) n;
+        } else {
+            convert();
+            _sub_elements.set(ik, toElement(v));
+        }
+        return this;
+    }
+
+    @Override
+    public JSONElement merge(JSONElement e) {
+        if (e instanceof JSONNumberArray && e.isNumberArray() && null == _sub_elements) {
+            // appended unboxed if of the same kind
+            JSONNumberArray other = (JSONNumberArray) e;
+            int size = _size + other._size;
+            if (0 == other._size) {
+                return this;
+            } else if (null != other._longs && null == _doubles) {
+                checkNotFrozen();
+                long[] longs = null != _longs && size <= _longs.length ? _longs : Arrays.copyOf(null != _longs ? _longs : new long[0], Math.max(MIN_CAPACITY, size));
+                System.arraycopy(other._longs, 0, longs, _size, other._size);
+                _longs = longs;
+                _size = size;
+                return this;
+            } else if (null != other._doubles && null == _longs) {
+                checkNotFrozen();
+                double[] doubles = null != _doubles && size <= _doubles.length ? _doubles : Arrays.copyOf(null != _doubles ? _doubles : new double[0], Math.max(MIN_CAPACITY, size));
+                System.arraycopy(other._doubles, 0, doubles, _size, other._size);
+                _doubles = doubles;
+                _size = size;
+                return this;
+            }
+        }
+        if (e.isList()) {
+            for (JSONElement v : e.asList()) {
+                offer(v);
+            }
+        } else {
+            super.merge(e);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean containsKey(Object k) {
+        if (null == k) {
+            return false;
+        } else if (TypeUtil.couldCastToInteger(k)) {
+            int ik = TypeUtil.castToInteger(k);
+            return ik >= 0 && ik < size();
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean containsValue(Object v) {
+        if (this == v) {
+            return true;
+        } else if (null == v) {
+            return false;
+        } else {
+            JSONElement ev = JSONElement.newInstance(v);
+            return asList().contains(ev) || equals(ev);
+        }
+    }
+
+    @Override
+    public List<JSONElement> asList() {
+        return null != _sub_elements ? _sub_elements : new Elements();
+    }
+
+    @Override
+    public long[] asLongArray() {
+        if (null != _longs) {
+            return Arrays.copyOf(_longs, _size);
+        } else if (null != _doubles) {
+            long[] longs = new long[_size];
+            for (int i = 0; i < _size; i++) {
+                longs[i] = (long) _doubles[i];
+            }
+            return longs;
+        } else {
+            long[] longs = new long[size()];
+            for (int i = 0; i < longs.length; i++) {
+                longs[i] = element(i).asLong();
+            }
+            return longs;
+        }
+    }
+
+    @Override
+    public double[] asDoubleArray() {
+        if (null != _doubles) {
+            return Arrays.copyOf(_doubles, _size);
+        } else if (null != _longs) {
+            double[] doubles = new double[_size];
+            for (int i = 0; i < _size; i++) {
+                doubles[i] = (double) _longs[i];
+            }
+            return doubles;
+        } else {
+            double[] doubles = new double[size()];
+            for (int i = 0; i < doubles.length; i++) {
+                doubles[i] = element(i).asDouble();
+            }
+            return doubles;
+        }
+    }
+
+    @Override
+    public String asString() {
+        if (null != _sub_elements) {
+            return super.asString();
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append('[');
+        for (int i = 0; i < _size; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            if (null != _longs) {
+                sb.append(_longs[i]);
+            } else {
+                sb.append(_doubles[i]);
+            }
+        }
+        sb.append(']');
+        return sb.toString();
+    }
+
+    @Override
+    public Iterator<Entry> iterator() {
+        return entries().iterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Entry> action) {
+        entries().forEach(action);
+    }
+
+    @Override
+    public Spliterator<Entry> spliterator() {
+        return entries().spliterator();
+    }
+
+    @Override
+    public int hashCode() {
+        if (null != _sub_elements || 0 == _size) {
+            return super.hashCode();
+        } else if (_frozen && 0 != _hash) {
+            return _hash;
+        }
+        // the same as the hash code of the list of primitives
+        int h = 1;
+        for (int i = 0; i < _size; i++) {
+            h = 31 * h + (null != _longs ? Long.hashCode(_longs[i]) : Double.hashCode(_doubles[i]));
+        }
+        if (_frozen) {
+            _hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (_frozen && obj instanceof JSONElement && ((JSONElement) obj).isList() && ((JSONElement) obj).isFrozen() && hashCode() != obj.hashCode()) {
+            return false;
+        } else if (obj instanceof JSONNumberArray) {
+            JSONNumberArray other = (JSONNumberArray) obj;
+            if (null == _sub_elements && null == other._sub_elements && _size == other._size
+                    && (0 == _size || (null == _longs) == (null == other._longs))) {
+                for (int i = 0; i < _size; i++) {
+                    if (null != _longs ? _longs[i] != other._longs[i]
+                            : Double.doubleToLongBits(_doubles[i]) != Double.doubleToLongBits(other._doubles[i])) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return super.equals(obj);
+    }
+
+    private void checkNotFrozen() {
+        if (_frozen) {
+            throw new UnsupportedOperationException("Could not modify frozen " + getClass().getSimpleName());
+        }
+    }
+
+    private int index(Object k) {
+        if (TypeUtil.couldCastToInteger(k)) {
+            int ik = TypeUtil.castToInteger(k);
+            int sz = size();
+            if (ik >= 0 && ik < sz) {
+                return ik;
+            } else {
+                throw new IndexOutOfBoundsException("Index: " + ik + ", Size: " + sz);
+            }
+        } else {
+            throw new IllegalArgumentException("Argument k must be Integer");
+        }
+    }
+
+    private JSONElement element(int i) {
+        if (null != _sub_elements) {
+            JSONElement v = _sub_elements.get(i);
+            return null != v ? v : JSONElement.theVoid();
+        } else if (null != _longs) {
+            return new JSONLong(_longs[i]);
+        } else {
+            return new JSONDouble(_doubles[i]);
+        }
+    }
+
+    private void insert(int i, Object v) {
+        checkNotFrozen();
+        if (i < 0 || i > size()) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size());
+        }
+        Object n = number(v);
+        if (n instanceof Long && null == _doubles && null == _sub_elements) {
+            if (null == _longs) {
+                _longs = new long[MIN_CAPACITY];
+            } else if (_size == _longs.length) {
+                _longs = Arrays.copyOf(_longs, Math.max(MIN_CAPACITY, _size + (_size >> 1)));
+            }
+            System.arraycopy(_longs, i, _longs, i + 1, _size - i);
+            _longs[i] = (Long) n;
+            _size++;
+        } else if (n instanceof Double && null == _longs && null == _sub_elements) {
+            if (null == _doubles) {
+                _doubles = new double[MIN_CAPACITY];
+            } else if (_size == _doubles.length) {
+                _doubles = Arrays.copyOf(_doubles, Math.max(MIN_CAPACITY, _size + (_size >> 1)));
+            }
+            System.arraycopy(_doubles, i, _doubles, i + 1, _size - i);
+            _doubles[i] = (Double) n;
+            _size++;
+        } else {
+            convert();
+            _sub_elements.add(i, toElement(v));
+        }
+    }
+
+    // converts the storage to boxed elements
+    private void convert() {
+        if (null != _sub_elements) {
+            return;
+        }
+        List<JSONElement> sub_elements = Defaults.list();
+        for (int i = 0; i < _size; i++) {
+            sub_elements.add(element(i));
+        }
+        _sub_elements = sub_elements;
+        _longs = null;
+        _doubles = null;
+        _size = 0;
+    }
+
+    // the Long or Double which could be stored unboxed
+    private static Object number(Object v) {
+        if (v instanceof JSONPrimitive) {
+            v = ((JSONPrimitive) v).asValue();
+        }
+        return v instanceof Long || v instanceof Double ? v : null;
+    }
+
+    private static JSONElement toElement(Object v) {
+        if (null == v) {
+            return JSONElement.theVoid();
+        } else if (v instanceof JSONElement) {
+            return (JSONElement) v;
+        } else if (v instanceof Entry) {
+            return JSONElement.newMap().offer(v);
+        } else {
+            return JSONElement.newPrimitive(v);
+        }
+    }
+
+    /**
+     * Live {@link List} view of the numbers, creating the primitives on access.
+     */
+    private final class Elements extends AbstractList<JSONElement> {
+
+        @Override
+        public JSONElement get(int index) {
+            return peek(index);
+        }
+
+        @Override
+        public int size() {
+            return JSONNumberArray.this.size();
+        }
+
+        @Override
+        public JSONElement set(int index, JSONElement element) {
+            JSONElement v = peek(index);
+            offer(index, element);
+            return v;
+        }
+
+        @Override
+        public void add(int index, JSONElement element) {
+            insert(index, element);
+            modCount++;
+        }
+
+        @Override
+        public JSONElement remove(int index) {
+            modCount++;
+            return poll(index);
+        }
+
+    }
+
+}
@@ -0,0 +1,271 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.jiruffe.jiraffe.model;
+
+import com.jiruffe.jiraffe.util.Defaults;
+import com.jiruffe.jiraffe.util.PersistentVector;
+import com.jiruffe.jiraffe.util.TypeUtil;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * JSON list [] which could not be modified, backed by a {@link PersistentVector}.
+ * {@link #offer(Object)}, {@link #offer(Object, Object)}, {@link #poll(Object)} and {@link #merge(JSONElement)} return a new version,
+ * which shares the sub-elements not changed with this one.
+ * Polling other than the last sub-element rebuilds the list.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+final class JSONPersistentList extends JSONElement {
+
+    static final JSONPersistentList EMPTY = new JSONPersistentList(PersistentVector.empty(), true);
+
+    private final PersistentVector<JSONElement> _sub_elements;
+    // whether the sub-elements are all frozen
+    private final boolean _frozen;
+    // the hash code memoized once frozen, 0 if not computed yet
+    private int _hash = 0;
+
+    JSONPersistentList(PersistentVector<JSONElement> sub_elements, boolean frozen) {
+        _sub_elements = sub_elements;
+        _frozen = frozen;
+    }
+
+    @Override
+    public JSONElement freeze() {
+        return persist();
+    }
+
+    @Override
+    public JSONElement persist() {
+        if (_frozen) {
+            return this;
+        }
+        PersistentVector<JSONElement> sub_elements = _sub_elements;
+        for (int i = 0; i < _sub_elements.size(); i++) {
+            JSONElement v = _sub_elements.get(i);
+            if (!v.isFrozen()) {
+                sub_elements = sub_elements.with(i, v.persist());
+            }
+        }
+        return new JSONPersistentList(sub_elements, true);
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return _frozen;
+    }
+
+    @Override
+    public boolean isPersistent() {
+        return true;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return _sub_elements.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return _sub_elements.size();
+    }
+
+    @Override
+    public Collection<Entry> entries() {
+        Collection<Entry> entries = Defaults.collection();
+        forEachEntry((k, v) -> entries.add(new Entry(k, v)));
+        return entries;
+    }
+
+    @Override
+    public void forEachEntry(BiConsumer<Object, ? super JSONElement> action) {
+        int i = 0;
+        for (JSONElement v : _sub_elements) {
+            action.accept(i++, v);
+        }
+    }
+
+    @Override
+    public void forEachIndexed(ObjIntConsumer<? super JSONElement> action) {
+        int i = 0;
+        for (JSONElement v : _sub_elements) {
+            action.accept(v, i++);
+        }
+    }
+
+    @Override
+    public Collection<Object> keys() {
+        return new JSONList.Indexes(this);
+    }
+
+    @Override
+    public Collection<JSONElement> values() {
+        return _sub_elements;
+    }
+
+    @Override
+    public JSONElement peek(Object k) {
+        return _sub_elements.get(index(k));
+    }
+
+    @Override
+    public JSONElement poll(Object k) {
+        return new JSONPersistentList(_sub_elements.without(index(k)), _frozen);
+    }
+
+    @Override
+    public JSONElement offer(Object v) {
+        JSONElement ev = element(v);
+        return new JSONPersistentList(_sub_elements.plus(ev), _frozen && ev.isFrozen());
+    }
+
+    @Override
+    public JSONElement offer(Object k, Object v) {
+        JSONElement ev = element(v);
+        return new JSONPersistentList(_sub_elements.with(index(k), ev), _frozen && ev.isFrozen());
+    }
+
+    @Override
+    public JSONElement merge(JSONElement e) {
+        if (e.isList()) {
+            PersistentVector<JSONElement> sub_elements = _sub_elements;
+            boolean frozen = _frozen;
+            for (JSONElement v : e.asList()) {
+                sub_elements = sub_elements.plus(v);
+                frozen &= v.isFrozen();
+            }
+            return new JSONPersistentList(sub_elements, frozen);
+        } else {
+            return super.merge(e);
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object k) {
+        if (null == k) {
+            return false;
+        } else if (TypeUtil.couldCastToInteger(k)) {
+            int ik = TypeUtil.castToInteger(k);
+            return ik >= 0 && ik < _sub_elements.size();
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean containsValue(Object v) {
+        if (this == v) {
+            return true;
+        } else if (null == v) {
+            return false;
+        } else {
+            JSONElement ev = JSONElement.newInstance(v);
+            return _sub_elements.contains(ev) || equals(ev);
+        }
+    }
+
+    @Override
+    public List<JSONElement> asList() {
+        return _sub_elements;
+    }
+
+    @Override
+    public long[] asLongArray() {
+        long[] longs = new long[_sub_elements.size()];
+        forEachIndexed((v, i) -> longs[i] = v.asLong());
+        return longs;
+    }
+
+    @Override
+    public double[] asDoubleArray() {
+        double[] doubles = new double[_sub_elements.size()];
+        forEachIndexed((v, i) -> doubles[i] = v.asDouble());
+        return doubles;
+    }
+
+    @Override
+    public Iterator<Entry> iterator() {
+        return entries().iterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Entry> action) {
+        entries().forEach(action);
+    }
+
+    @Override
+    public Spliterator<Entry> spliterator() {
+        return entries().spliterator();
+    }
+
+    @Override
+    public int hashCode() {
+        if (!_frozen) {
+            return super.hashCode();
+        }
+        int h = _hash;
+        if (0 == h) {
+            h = super.hashCode();
+            _hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (_frozen && obj instanceof JSONElement && ((JSONElement) obj).isList() && ((JSONElement) obj).isFrozen() && hashCode() != obj.hashCode()) {
+            return false;
+        }
+        return super.equals(obj);
+    }
+
+    private int index(Object k) {
+        if (TypeUtil.couldCastToInteger(k)) {
+            int ik = TypeUtil.castToInteger(k);
+            int sz = _sub_elements.size();
+            if (ik >= 0 && ik < sz) {
+                return ik;
+            } else {
+                throw new IndexOutOfBoundsException("Index: " + ik + ", Size: " + sz);
+            }
+        } else {
+            throw new IllegalArgumentException("Argument k must be Integer");
+        }
+    }
+
+    private static JSONElement element(Object v) {
+        if (null == v) {
+            return JSONElement.theVoid();
+        } else if (v instanceof JSONElement) {
+            return (JSONElement) v;
+        } else if (v instanceof Entry) {
+            return JSONPersistentMap.EMPTY.offer(v);
+        } else {
+            return JSONElement.newPrimitive(v);
+        }
+    }
+
+}
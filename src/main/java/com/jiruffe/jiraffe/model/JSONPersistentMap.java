@@ -0,0 +1,224 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.jiruffe.jiraffe.model;
+
+import com.jiruffe.jiraffe.util.Defaults;
+import com.jiruffe.jiraffe.util.PersistentMap;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * JSON map {} which could not be modified, backed by a {@link PersistentMap}.
+ * {@link #offer(Object, Object)}, {@link #poll(Object)} and {@link #merge(JSONElement)} return a new version,
+ * which shares the sub-elements not changed with this one.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+final class JSONPersistentMap extends JSONElement {
+
+    static final JSONPersistentMap EMPTY = new JSONPersistentMap(PersistentMap.empty(), true);
+
+    private final PersistentMap<Object, JSONElement> _sub_elements;
+    // whether the sub-elements are all frozen
+    private final boolean _frozen;
+    // the hash code memoized once frozen, 0 if not computed yet
+    private int _hash = 0;
+
+    JSONPersistentMap(PersistentMap<Object, JSONElement> sub_elements, boolean frozen) {
+        _sub_elements = sub_elements;
+        _frozen = frozen;
+    }
+
+    @Override
+    public JSONElement freeze() {
+        return persist();
+    }
+
+    @Override
+    public JSONElement persist() {
+        if (_frozen) {
+            return this;
+        }
+        PersistentMap<Object, JSONElement> sub_elements = _sub_elements;
+        for (Map.Entry<Object, JSONElement> e : _sub_elements.entrySet()) {
+            if (!e.getValue().isFrozen()) {
+                sub_elements = sub_elements.with(e.getKey(), e.getValue().persist());
+            }
+        }
+        return new JSONPersistentMap(sub_elements, true);
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return _frozen;
+    }
+
+    @Override
+    public boolean isPersistent() {
+        return true;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return _sub_elements.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return _sub_elements.size();
+    }
+
+    @Override
+    public Collection<Entry> entries() {
+        Collection<Entry> entries = Defaults.collection();
+        _sub_elements.forEach((k, v) -> entries.add(new Entry(k, v)));
+        return entries;
+    }
+
+    @Override
+    public void forEachEntry(BiConsumer<Object, ? super JSONElement> action) {
+        _sub_elements.forEach(action);
+    }
+
+    @Override
+    public Collection<Object> keys() {
+        return _sub_elements.keySet();
+    }
+
+    @Override
+    public Collection<JSONElement> values() {
+        return _sub_elements.values();
+    }
+
+    @Override
+    public JSONElement peek(Object k) {
+        JSONElement v = _sub_elements.get(k);
+        return null != v ? v : JSONElement.theVoid();
+    }
+
+    @Override
+    public JSONElement poll(Object k) {
+        PersistentMap<Object, JSONElement> sub_elements = _sub_elements.without(k);
+        return sub_elements == _sub_elements ? this : new JSONPersistentMap(sub_elements, _frozen);
+    }
+
+    @Override
+    public JSONElement offer(Object v) {
+        if (v instanceof Entry) {
+            return offer(((Entry) v).getKey(), ((Entry) v).getElement());
+        } else {
+            return super.offer(v);
+        }
+    }
+
+    @Override
+    public JSONElement offer(Object k, Object v) {
+        JSONElement ev;
+        if (null == v) {
+            ev = JSONElement.theVoid();
+        } else if (v instanceof JSONElement) {
+            ev = (JSONElement) v;
+        } else {
+            ev = JSONElement.newPrimitive(v);
+        }
+        PersistentMap<Object, JSONElement> sub_elements = _sub_elements.with(k, ev);
+        return sub_elements == _sub_elements ? this : new JSONPersistentMap(sub_elements, _frozen && ev.isFrozen());
+    }
+
+    @Override
+    public JSONElement merge(JSONElement e) {
+        if (e.isMap()) {
+            JSONElement merged = this;
+            for (Map.Entry<Object, JSONElement> entry : e.asMap().entrySet()) {
+                merged = merged.offer(entry.getKey(), entry.getValue());
+            }
+            return merged;
+        } else {
+            return super.merge(e);
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object k) {
+        if (null == k) {
+            return false;
+        } else {
+            return _sub_elements.containsKey(k);
+        }
+    }
+
+    @Override
+    public boolean containsValue(Object v) {
+        if (this == v) {
+            return true;
+        } else if (null == v) {
+            return false;
+        } else {
+            JSONElement ev = JSONElement.newInstance(v);
+            return _sub_elements.containsValue(ev) || equals(ev);
+        }
+    }
+
+    @Override
+    public Map<Object, JSONElement> asMap() {
+        return _sub_elements;
+    }
+
+    @Override
+    public Iterator<Entry> iterator() {
+        return entries().iterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Entry> action) {
+        entries().forEach(action);
+    }
+
+    @Override
+    public Spliterator<Entry> spliterator() {
+        return entries().spliterator();
+    }
+
+    @Override
+    public int hashCode() {
+        if (!_frozen) {
+            return super.hashCode();
+        }
+        int h = _hash;
+        if (0 == h) {
+            h = super.hashCode();
+            _hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (_frozen && obj instanceof JSONElement && ((JSONElement) obj).isMap() && ((JSONElement) obj).isFrozen() && hashCode() != obj.hashCode()) {
+            return false;
+        }
+        return super.equals(obj);
+    }
+
+}
@@ -25,94 +25,132 @@ import java.math.BigInteger;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.Spliterator;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 /**
  * JSON primitive value such as integer, string...
+ * The {@code long}, {@code double}, {@code boolean} and string values are held by the variants
+ * {@link JSONLong}, {@link JSONDouble}, {@link JSONBoolean} and {@link JSONString},
+ * which read them without boxing or casting through {@link TypeUtil}.
  *
  * @author Jiruffe
  * 2018.10.23
  */
-final class JSONPrimitive extends JSONElement {
+class JSONPrimitive extends JSONElement {
 
-    private final Object _value;
+    // a String view of text is replaced by its copy on first use as String
+    private Object _value;
+    // whether owned by a JSONArena, which replaces the value on reset
+    private final boolean _owned;
 
     JSONPrimitive() {
         this(Defaults.primitive());
     }
 
     JSONPrimitive(Object v) {
+        this(v, false);
+    }
+
+    JSONPrimitive(Object v, boolean owned) {
         _value = v;
+        _owned = owned;
     }
 
     @Override
     public boolean isEmpty() {
+        if (_value instanceof CharSequence) {
+            return 0 == ((CharSequence) _value).length();
+        }
         return StringUtil.EMPTY.equals(TypeUtil.castToString(_value));
     }
 
+    @Override
+    public boolean isFrozen() {
+        return !_owned;
+    }
+
+    @Override
+    public JSONElement freeze() {
+        return _owned ? new JSONPrimitive(asValue()) : this;
+    }
+
     @Override
     public Object asValue() {
-        return _value;
+        return value();
     }
 
     @Override
     public String asString() {
-        return TypeUtil.castToString(_value);
+        return TypeUtil.castToString(asValue());
+    }
+
+    @Override
+    public CharSequence asCharSequence() {
+        if (_value instanceof CharSequence) {
+            return (CharSequence) _value;
+        }
+        return asString();
     }
 
     @Override
     public byte asByte() {
-        return TypeUtil.castToByte(_value);
+        return TypeUtil.castToByte(asValue());
     }
 
     @Override
     public short asShort() {
-        return TypeUtil.castToShort(_value);
+        return TypeUtil.castToShort(asValue());
     }
 
     @Override
     public int asInt() {
-        return TypeUtil.castToInteger(_value);
+        return TypeUtil.castToInteger(asValue());
     }
 
     @Override
     public long asLong() {
-        return TypeUtil.castToLong(_value);
+        return TypeUtil.castToLong(asValue());
     }
 
     @Override
     public float asFloat() {
-        return TypeUtil.castToFloat(_value);
+        return TypeUtil.castToFloat(asValue());
     }
 
     @Override
     public double asDouble() {
-        return TypeUtil.castToDouble(_value);
+        return TypeUtil.castToDouble(asValue());
     }
 
     @Override
     public boolean asBoolean() {
-        return TypeUtil.castToBoolean(_value);
+        return TypeUtil.castToBoolean(asValue());
     }
 
     @Override
     public char asChar() {
-        return TypeUtil.castToCharacter(_value);
+        return TypeUtil.castToCharacter(asValue());
     }
 
     @Override
     public Number asNumber() {
-        return TypeUtil.castToNumber(_value);
+        return TypeUtil.castToNumber(asValue());
     }
 
     @Override
     public BigInteger asBigInteger() {
-        return TypeUtil.castToBigInteger(_value);
+        return TypeUtil.castToBigInteger(asValue());
     }
 
     @Override
     public BigDecimal asBigDecimal() {
-        return TypeUtil.castToBigDecimal(_value);
+        return TypeUtil.castToBigDecimal(asValue());
+    }
+
+    @Override
+    public void forEachEntry(BiConsumer<Object, ? super JSONElement> action) {
+        action.accept(null, this);
     }
 
     @Override
@@ -130,4 +168,22 @@ final class JSONPrimitive extends JSONElement {
         return Collections.singleton(new Entry(null, this)).spliterator();
     }
 
+    /**
+     * Replaces the value to be reused by {@link JSONArena}.
+     *
+     * @param v the new value.
+     */
+    void recycle(Object v) {
+        _value = v;
+    }
+
+    private Object value() {
+        Object v = _value;
+        if (v instanceof CharSequence && !(v instanceof String)) {
+            v = v.toString();
+            _value = v;
+        }
+        return v;
+    }
+
 }
@@ -0,0 +1,290 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.jiruffe.jiraffe.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * {@link JSONTape} read in place from a memory-mapped file, so that opening it costs only the mapping,
+ * and the pages are loaded by the OS as the elements are read.
+ * The file is laid out in little-endian as a header of {@value #HEADER} bytes,
+ * which is the magic number, the count of entries, the count of {@link String}s and the length of their bytes,
+ * followed by the entries, the offsets of the {@link String}s into their bytes, one more for the end, and their UTF-8 bytes.
+ * The file is mapped in windows of 1GB, so it could be larger than 2GB.
+ * Keys are compared and hashed as their UTF-8 bytes in place, and only a fixed number of {@link String}s decoded recently are kept,
+ * so the heap used does not grow with the strings read.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+final class JSONSnapshot extends JSONTape {
+
+    // "JIRAFFE1" in little-endian
+    private static final long MAGIC = 0x3145464641524A49L;
+    private static final int HEADER = 32;
+    private static final int WINDOW_BITS = 30;
+    private static final long WINDOW_MASK = (1L << WINDOW_BITS) - 1;
+    // the size of the buffer to write by
+    private static final int BUFFER = 1 << 16;
+    // the maximum count of strings decoded kept
+    private static final int CACHE = 1 << 12;
+
+    private final ByteBuffer[] _windows;
+    private final int _length;
+    private final int _pooled_count;
+    // the positions of the offsets of the strings and of their bytes in the file
+    private final long _offsets;
+    private final long _bytes;
+    // the strings decoded recently, each one at the slot of its index in the pool until replaced by another one
+    private final Decoded[] _decoded;
+
+    private JSONSnapshot(ByteBuffer[] windows, int length, int pooled_count) {
+        super(null, null);
+        _windows = windows;
+        _length = length;
+        _pooled_count = pooled_count;
+        _offsets = HEADER + (long) length * Long.BYTES;
+        _bytes = _offsets + (pooled_count + 1L) * Long.BYTES;
+        _decoded = new Decoded[Integer.highestOneBit(Math.max(1, Math.min(CACHE, pooled_count)))];
+    }
+
+    /**
+     * Writes the tape of an element to a file, which is replaced if present.
+     *
+     * @param element the element.
+     * @param path    the {@link Path} of the file.
+     */
+    static void write(JSONElement element, Path path) {
+
+        JSONTape tape = JSONTape.tapeOf(element);
+        int length = tape.length();
+        int pooled_count = tape.pooledCount();
+        byte[][] strings = new byte[pooled_count][];
+        long bytes_length = 0;
+        for (int i = 0; i < pooled_count; i++) {
+            strings[i] = tape.pooled(i).getBytes(StandardCharsets.UTF_8);
+            bytes_length += strings[i].length;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putLong(MAGIC).putLong(length).putLong(pooled_count).putLong(bytes_length);
+            for (int i = 0; i < length; i++) {
+                putLong(channel, buffer, tape.entry(i));
+            }
+            long offset = 0;
+            for (byte[] s : strings) {
+                putLong(channel, buffer, offset);
+                offset += s.length;
+            }
+            putLong(channel, buffer, offset);
+            for (byte[] s : strings) {
+                if (s.length > buffer.remaining()) {
+                    flush(channel, buffer);
+                    if (s.length > buffer.remaining()) {
+                        write(channel, ByteBuffer.wrap(s));
+                        continue;
+                    }
+                }
+                buffer.put(s);
+            }
+            flush(channel, buffer);
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+    }
+
+    /**
+     * Maps a file written by {@link #write(JSONElement, Path)} and returns the top element.
+     *
+     * @param path the {@link Path} of the file.
+     * @return the top element.
+     */
+    static JSONElement open(Path path) {
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+            long size = channel.size();
+            if (size < HEADER) {
+                throw new IllegalArgumentException("Not a JSON snapshot: " + path);
+            }
+            int count = (int) ((size + WINDOW_MASK) >>> WINDOW_BITS);
+            ByteBuffer[] windows = new ByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long position = (long) i << WINDOW_BITS;
+                // the mapping stays valid after the channel is closed
+                windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(1L << WINDOW_BITS, size - position)).order(ByteOrder.LITTLE_ENDIAN);
+            }
+
+            if (MAGIC != windows[0].getLong(0)) {
+                throw new IllegalArgumentException("Not a JSON snapshot: " + path);
+            }
+            long length = windows[0].getLong(8);
+            long pooled_count = windows[0].getLong(16);
+            long bytes_length = windows[0].getLong(24);
+            if (length <= 0 || length > Integer.MAX_VALUE || pooled_count < 0 || pooled_count > Integer.MAX_VALUE
+                    || HEADER + (length + pooled_count + 1) * Long.BYTES + bytes_length != size) {
+                throw new IllegalArgumentException("Corrupted JSON snapshot: " + path);
+            }
+
+            return new JSONSnapshot(windows, (int) length, (int) pooled_count).element(0);
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+    }
+
+    @Override
+    long entry(int i) {
+        return getLong(HEADER + (long) i * Long.BYTES);
+    }
+
+    @Override
+    int length() {
+        return _length;
+    }
+
+    @Override
+    String pooled(int i) {
+        int slot = i & (_decoded.length - 1);
+        Decoded decoded = _decoded[slot];
+        if (null == decoded || i != decoded.i) {
+            long begin = offset(i);
+            decoded = new Decoded(i, new String(getBytes(_bytes + begin, (int) (offset(i + 1) - begin)), StandardCharsets.UTF_8));
+            _decoded[slot] = decoded;
+        }
+        return decoded.s;
+    }
+
+    @Override
+    Object probe(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    int hash(Object probe) {
+        return Arrays.hashCode((byte[]) probe);
+    }
+
+    @Override
+    int hashAt(int j) {
+        int i = (int) entry(j);
+        long begin = _bytes + offset(i);
+        long end = _bytes + offset(i + 1);
+        // as Arrays.hashCode(byte[])
+        int h = 1;
+        for (long p = begin; p < end; p++) {
+            h = 31 * h + getByte(p);
+        }
+        return h;
+    }
+
+    @Override
+    boolean matches(int j, Object probe) {
+        byte[] bytes = (byte[]) probe;
+        int i = (int) entry(j);
+        long begin = _bytes + offset(i);
+        if (offset(i + 1) - offset(i) != bytes.length) {
+            return false;
+        }
+        for (int n = 0; n < bytes.length; n++) {
+            if (bytes[n] != getByte(begin + n)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    int pooledCount() {
+        return _pooled_count;
+    }
+
+    // the offset of the string at i of the pool into the bytes of the strings
+    private long offset(int i) {
+        return getLong(_offsets + (long) i * Long.BYTES);
+    }
+
+    // longs are aligned to 8 bytes, so never across windows
+    private long getLong(long position) {
+        return _windows[(int) (position >>> WINDOW_BITS)].getLong((int) (position & WINDOW_MASK));
+    }
+
+    private byte getByte(long position) {
+        return _windows[(int) (position >>> WINDOW_BITS)].get((int) (position & WINDOW_MASK));
+    }
+
+    private byte[] getBytes(long position, int length) {
+        byte[] bytes = new byte[length];
+        for (int n = 0; n < length; ) {
+            ByteBuffer window = _windows[(int) ((position + n) >>> WINDOW_BITS)].duplicate();
+            window.position((int) ((position + n) & WINDOW_MASK));
+            int m = Math.min(length - n, window.remaining());
+            window.get(bytes, n, m);
+            n += m;
+        }
+        return bytes;
+    }
+
+    private static void putLong(FileChannel channel, ByteBuffer buffer, long v) throws IOException {
+        if (buffer.remaining() < Long.BYTES) {
+            flush(channel, buffer);
+        }
+        buffer.putLong(v);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        write(channel, buffer);
+        buffer.clear();
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * {@link String} decoded with its index in the pool, replaced as a whole so that it is safe to read concurrently.
+     */
+    private static final class Decoded {
+
+        private final int i;
+        private final String s;
+
+        private Decoded(int i, String s) {
+            this.i = i;
+            this.s = s;
+        }
+
+    }
+
+}
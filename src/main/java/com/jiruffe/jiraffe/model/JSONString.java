@@ -0,0 +1,64 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.jiruffe.jiraffe.model;
+
+import com.jiruffe.jiraffe.util.StringUtil;
+
+/**
+ * JSON primitive value of string, which could be a view of text until used as {@link String}.
+ * Views are compared without being copied.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+final class JSONString extends JSONPrimitive {
+
+    JSONString(CharSequence s) {
+        super(s);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return 0 == asCharSequence().length();
+    }
+
+    @Override
+    public JSONElement freeze() {
+        // copies the view, not to keep the text
+        asValue();
+        return this;
+    }
+
+    @Override
+    public String asString() {
+        return (String) asValue();
+    }
+
+    @Override
+    public int hashCode() {
+        return isEmpty() ? 0 : asString().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof JSONString) {
+            return StringUtil.equals(asCharSequence(), ((JSONString) obj).asCharSequence());
+        }
+        return super.equals(obj);
+    }
+
+}
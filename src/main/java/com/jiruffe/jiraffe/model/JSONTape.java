@@ -0,0 +1,570 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.jiruffe.jiraffe.model;
+
+import com.jiruffe.jiraffe.JSONReader;
+import com.jiruffe.jiraffe.JSONToken;
+import com.jiruffe.jiraffe.util.NumberScanner;
+import com.jiruffe.jiraffe.util.StringUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Whole {@link JSONElement} tree stored flat in a {@code long[]} tape and a pool of {@link String}s,
+ * instead of an object per element, from which {@link JSONTapeMap}, {@link JSONTapeList} and primitives are read.
+ * Each entry has the tag in its top {@value #TAG_BITS} bits, and the payload in the others:
+ * maps and lists hold the count of sub-elements and the index of the entry after their end, to skip over them,
+ * keys and strings hold an index into the pool, longs hold the value itself if it fits in the payload,
+ * and wide longs and doubles are followed by an entry of the bits of the value.
+ * Other numbers, such as {@link java.math.BigDecimal}s, are kept as their text in the pool.
+ * Duplicate keys of a map are resolved to the last value at the position of the first key, as a {@link JSONMap} would.
+ * A tape could not be modified. The entries are kept on the heap, or read from a file by {@link JSONSnapshot}.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+class JSONTape {
+
+    static final int MAP = 1;
+    static final int LIST = 2;
+    static final int KEY = 3;
+    static final int STRING = 4;
+    static final int LONG = 5;
+    static final int WIDE_LONG = 6;
+    static final int DOUBLE = 7;
+    static final int NUMBER = 8;
+    static final int TRUE = 9;
+    static final int FALSE = 10;
+    static final int VOID = 11;
+
+    private static final int TAG_BITS = 4;
+    private static final int TAG_SHIFT = Long.SIZE - TAG_BITS;
+    private static final long PAYLOAD = (1L << TAG_SHIFT) - 1;
+    private static final long MIN_INLINE = -(1L << (TAG_SHIFT - 1));
+    private static final long MAX_INLINE = (1L << (TAG_SHIFT - 1)) - 1;
+    // the count of sub-elements saturates at, beyond which they are counted by walking
+    private static final int MAX_COUNT = (1 << (TAG_SHIFT - Integer.SIZE)) - 1;
+    // the total slots of the indexes kept, beyond which the least recently used ones are dropped
+    private static final int MAX_INDEXED = 1 << 22;
+
+    private final long[] _tape;
+    private final String[] _strings;
+    // the indexes of the keys of the maps peeked by the index of the map, the least recently used first
+    private final LinkedHashMap<Integer, int[]> _indexes = new LinkedHashMap<>(16, 0.75f, true);
+    private int _indexed = 0;
+
+    JSONTape(long[] tape, String[] strings) {
+        _tape = tape;
+        _strings = strings;
+    }
+
+    /**
+     * Parses JSON text into a tape and returns the top element.
+     *
+     * @param json the JSON text.
+     * @return the top element, or {@link JSONElement#theVoid()} if the text is incomplete.
+     */
+    static JSONElement parse(CharSequence json) {
+
+        JSONReader reader = new JSONReader(json);
+        Builder builder = new Builder(Math.max(16, json.length() >> 3));
+
+        do {
+            JSONToken token = reader.nextToken();
+            switch (token) {
+                case BEGIN_MAP:
+                    builder.begin(MAP);
+                    break;
+                case BEGIN_LIST:
+                    builder.begin(LIST);
+                    break;
+                case END_MAP:
+                case END_LIST:
+                    if (0 == builder._depth) {
+                        return JSONElement.theVoid();
+                    }
+                    builder.end();
+                    break;
+                case NAME:
+                    builder.key(reader.name());
+                    break;
+                case STRING:
+                    builder.string(reader.value());
+                    break;
+                case NUMBER:
+                    builder.number(reader.number());
+                    break;
+                case BOOLEAN:
+                    builder.bool(StringUtil.equalsIgnoreCase(StringUtil.TRUE, reader.text()));
+                    break;
+                case VOID:
+                    builder.theVoid();
+                    break;
+                default:
+                    // incomplete document
+                    return JSONElement.theVoid();
+            }
+        } while (0 != builder._depth);
+
+        return builder.build().element(0);
+
+    }
+
+    /**
+     * Copies an element into a tape and returns the top element of the tape.
+     *
+     * @param element the element.
+     * @return the top element of the tape.
+     */
+    static JSONElement of(JSONElement element) {
+        Builder builder = new Builder(16);
+        builder.write(element);
+        return builder.build().element(0);
+    }
+
+    /**
+     * Returns the tape of an element, which is the tape read from if the element is the top of it, or a new one otherwise.
+     *
+     * @param element the element.
+     * @return the tape.
+     */
+    static JSONTape tapeOf(JSONElement element) {
+        if (element instanceof JSONTapeMap && 0 == ((JSONTapeMap) element).begin()) {
+            return ((JSONTapeMap) element).tape();
+        } else if (element instanceof JSONTapeList && 0 == ((JSONTapeList) element).begin()) {
+            return ((JSONTapeList) element).tape();
+        }
+        Builder builder = new Builder(16);
+        builder.write(element);
+        return builder.build();
+    }
+
+    /**
+     * Returns the entry at {@code i}.
+     */
+    long entry(int i) {
+        return _tape[i];
+    }
+
+    /**
+     * Returns the count of entries.
+     */
+    int length() {
+        return _tape.length;
+    }
+
+    /**
+     * Returns the {@link String} at {@code i} of the pool.
+     */
+    String pooled(int i) {
+        return _strings[i];
+    }
+
+    /**
+     * Returns the count of {@link String}s in the pool.
+     */
+    int pooledCount() {
+        return _strings.length;
+    }
+
+    int tag(int i) {
+        return (int) (entry(i) >>> TAG_SHIFT);
+    }
+
+    /**
+     * Returns the index of the entry after the element at {@code i}.
+     */
+    int next(int i) {
+        switch (tag(i)) {
+            case MAP:
+            case LIST:
+                return (int) entry(i);
+            case WIDE_LONG:
+            case DOUBLE:
+                return i + 2;
+            default:
+                return i + 1;
+        }
+    }
+
+    /**
+     * Returns the count of the sub-elements of the map or the list at {@code i}.
+     */
+    int count(int i) {
+        int count = (int) (entry(i) >>> Integer.SIZE) & MAX_COUNT;
+        if (MAX_COUNT == count) {
+            count = 0;
+            for (int j = i + 1, end = next(i); j < end; j = next(j)) {
+                if (KEY != tag(j)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    String string(int i) {
+        return pooled((int) entry(i));
+    }
+
+    /**
+     * Returns the index of the value of {@code key} in the map at {@code i}, or -1 if absent.
+     * The keys are compared one by one, or looked up by hash in the index of the map if {@code indexed}.
+     * The indexes are built on first call, since the facades of the map are created anew on every read,
+     * and only the recently used ones are kept.
+     */
+    int find(int i, String key, boolean indexed) {
+
+        Object probe = probe(key);
+
+        if (!indexed) {
+            for (int j = i + 1, end = next(i); j < end; j = next(j + 1)) {
+                if (matches(j, probe)) {
+                    return j + 1;
+                }
+            }
+            return -1;
+        }
+
+        // open addressing by the hashes of the keys, slots hold the index of the value, 0 if empty
+        int[] index = index(i);
+        int mask = index.length - 1;
+        for (int slot = hash(probe) & mask, v; 0 != (v = index[slot]); slot = (slot + 1) & mask) {
+            if (matches(v - 1, probe)) {
+                return v;
+            }
+        }
+        return -1;
+
+    }
+
+    /**
+     * Returns the form of {@code key} compared with the keys by {@link #matches(int, Object)}.
+     */
+    Object probe(String key) {
+        return key;
+    }
+
+    /**
+     * Returns the hash of the form of a key returned by {@link #probe(String)}.
+     */
+    int hash(Object probe) {
+        return probe.hashCode();
+    }
+
+    /**
+     * Returns the hash of the key at {@code j}, equal to the one of its probe.
+     */
+    int hashAt(int j) {
+        return string(j).hashCode();
+    }
+
+    /**
+     * Returns whether the key at {@code j} equals the form of a key returned by {@link #probe(String)}.
+     */
+    boolean matches(int j, Object probe) {
+        return probe.equals(string(j));
+    }
+
+    private int[] index(int i) {
+
+        synchronized (_indexes) {
+            int[] index = _indexes.get(i);
+            if (null != index) {
+                return index;
+            }
+        }
+
+        // at most half full
+        int[] index = new int[Integer.highestOneBit(count(i)) << 2];
+        int mask = index.length - 1;
+        for (int j = i + 1, end = next(i); j < end; j = next(j + 1)) {
+            int slot = hashAt(j) & mask;
+            while (0 != index[slot]) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = j + 1;
+        }
+
+        synchronized (_indexes) {
+            int[] previous = _indexes.put(i, index);
+            _indexed += index.length - (null != previous ? previous.length : 0);
+            for (Iterator<int[]> it = _indexes.values().iterator(); _indexed > MAX_INDEXED && it.hasNext(); ) {
+                _indexed -= it.next().length;
+                it.remove();
+            }
+        }
+        return index;
+
+    }
+
+    JSONElement element(int i) {
+        long entry = entry(i);
+        switch (tag(i)) {
+            case MAP:
+                return new JSONTapeMap(this, i);
+            case LIST:
+                return new JSONTapeList(this, i);
+            case STRING:
+                return new JSONString(string(i));
+            case LONG:
+                // sign extends the payload
+                return new JSONLong(entry << TAG_BITS >> TAG_BITS);
+            case WIDE_LONG:
+                return new JSONLong(entry(i + 1));
+            case DOUBLE:
+                return new JSONDouble(Double.longBitsToDouble(entry(i + 1)));
+            case NUMBER:
+                return JSONElement.newPrimitive(NumberScanner.parse(string(i)));
+            case TRUE:
+                return JSONBoolean.TRUE;
+            case FALSE:
+                return JSONBoolean.FALSE;
+            default:
+                return JSONElement.theVoid();
+        }
+    }
+
+    /**
+     * Appends the entries of a tape.
+     */
+    static final class Builder {
+
+        private long[] _tape;
+        private int _size = 0;
+        private final Map<String, Integer> _pool = new HashMap<>();
+        private final List<String> _strings = new ArrayList<>();
+        // the indexes and the counts of sub-elements of the maps and lists not ended yet
+        private int[] _bases = new int[32];
+        private int[] _counts = new int[32];
+        private int _depth = 0;
+
+        Builder(int capacity) {
+            _tape = new long[capacity];
+        }
+
+        void begin(int tag) {
+            sub();
+            if (_depth == _bases.length) {
+                _bases = Arrays.copyOf(_bases, _depth << 1);
+                _counts = Arrays.copyOf(_counts, _depth << 1);
+            }
+            _bases[_depth] = _size;
+            _counts[_depth++] = 0;
+            append((long) tag << TAG_SHIFT);
+        }
+
+        void end() {
+            int base = _bases[--_depth];
+            int count = _counts[_depth];
+            if (MAP == (int) (_tape[base] >>> TAG_SHIFT) && count > 1) {
+                count = distinct(base, count);
+            }
+            _tape[base] |= (long) Math.min(count, MAX_COUNT) << Integer.SIZE | _size;
+        }
+
+        void key(String key) {
+            append((long) KEY << TAG_SHIFT | pool(key));
+        }
+
+        void string(String s) {
+            sub();
+            append((long) STRING << TAG_SHIFT | pool(s));
+        }
+
+        void number(Number n) {
+            sub();
+            if (n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte) {
+                long v = n.longValue();
+                if (v >= MIN_INLINE && v <= MAX_INLINE) {
+                    append((long) LONG << TAG_SHIFT | (v & PAYLOAD));
+                } else {
+                    append((long) WIDE_LONG << TAG_SHIFT);
+                    append(v);
+                }
+            } else if (n instanceof Double || n instanceof Float) {
+                append((long) DOUBLE << TAG_SHIFT);
+                append(Double.doubleToRawLongBits(n.doubleValue()));
+            } else {
+                // big numbers and others are kept as text
+                append((long) NUMBER << TAG_SHIFT | pool(n.toString()));
+            }
+        }
+
+        void bool(boolean b) {
+            sub();
+            append((long) (b ? TRUE : FALSE) << TAG_SHIFT);
+        }
+
+        void theVoid() {
+            sub();
+            append((long) VOID << TAG_SHIFT);
+        }
+
+        void write(JSONElement element) {
+            if (element.isMap()) {
+                begin(MAP);
+                element.forEachEntry((k, v) -> {
+                    key(StringUtil.toString(k));
+                    write(v);
+                });
+                end();
+            } else if (element.isList()) {
+                begin(LIST);
+                element.forEachIndexed((v, i) -> write(v));
+                end();
+            } else if (element.isPrimitive()) {
+                Object v = element.asValue();
+                if (null == v) {
+                    theVoid();
+                } else if (v instanceof Boolean) {
+                    bool((Boolean) v);
+                } else if (v instanceof Number) {
+                    number((Number) v);
+                } else {
+                    string(element.asString());
+                }
+            } else {
+                theVoid();
+            }
+        }
+
+        JSONTape build() {
+            return new JSONTape(Arrays.copyOf(_tape, _size), _strings.toArray(new String[0]));
+        }
+
+        /**
+         * Resolves the duplicate keys of the map at {@code base} not ended yet, and returns the count of distinct keys.
+         */
+        private int distinct(int base, int count) {
+
+            int[] keys = new int[count];
+            for (int j = base + 1, n = 0; j < _size; j = skip(j + 1)) {
+                keys[n++] = j;
+            }
+
+            // keys are pooled, so equal keys have equal entries
+            boolean duplicated = false;
+            if (count <= 8) {
+                for (int m = 0; m < count && !duplicated; m++) {
+                    for (int n = m + 1; n < count && !duplicated; n++) {
+                        duplicated = _tape[keys[m]] == _tape[keys[n]];
+                    }
+                }
+            } else {
+                long[] sorted = new long[count];
+                for (int n = 0; n < count; n++) {
+                    sorted[n] = _tape[keys[n]];
+                }
+                Arrays.sort(sorted);
+                for (int n = 1; n < count && !duplicated; n++) {
+                    duplicated = sorted[n - 1] == sorted[n];
+                }
+            }
+            if (!duplicated) {
+                return count;
+            }
+
+            Map<Long, Integer> lasts = new HashMap<>();
+            for (int key : keys) {
+                lasts.put(_tape[key], key);
+            }
+            long[] entries = new long[_size - base - 1];
+            int size = 0;
+            int distinct = 0;
+            for (int key : keys) {
+                Integer last = lasts.remove(_tape[key]);
+                if (null == last) {
+                    // written at the first key already
+                    continue;
+                }
+                entries[size++] = _tape[key];
+                // moves the last value, and the ends of the maps and lists in it along
+                long delta = base + 1 + size - (last + 1);
+                for (int j = last + 1, end = skip(last + 1); j < end; j++) {
+                    switch ((int) (_tape[j] >>> TAG_SHIFT)) {
+                        case MAP:
+                        case LIST:
+                            entries[size++] = _tape[j] + delta;
+                            break;
+                        case WIDE_LONG:
+                        case DOUBLE:
+                            entries[size++] = _tape[j++];
+                            entries[size++] = _tape[j];
+                            break;
+                        default:
+                            entries[size++] = _tape[j];
+                            break;
+                    }
+                }
+                distinct++;
+            }
+            System.arraycopy(entries, 0, _tape, base + 1, size);
+            _size = base + 1 + size;
+            return distinct;
+
+        }
+
+        /**
+         * Returns the index of the entry after the ended element at {@code i}.
+         */
+        private int skip(int i) {
+            switch ((int) (_tape[i] >>> TAG_SHIFT)) {
+                case MAP:
+                case LIST:
+                    return (int) _tape[i];
+                case WIDE_LONG:
+                case DOUBLE:
+                    return i + 2;
+                default:
+                    return i + 1;
+            }
+        }
+
+        private void sub() {
+            if (_depth > 0) {
+                _counts[_depth - 1]++;
+            }
+        }
+
+        private int pool(String s) {
+            Integer i = _pool.get(s);
+            if (null == i) {
+                i = _strings.size();
+                _pool.put(s, i);
+                _strings.add(s);
+            }
+            return i;
+        }
+
+        private void append(long entry) {
+            if (_size == _tape.length) {
+                _tape = Arrays.copyOf(_tape, _tape.length << 1);
+            }
+            _tape[_size++] = entry;
+        }
+
+    }
+
+}
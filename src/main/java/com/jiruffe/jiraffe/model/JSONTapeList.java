@@ -0,0 +1,285 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.jiruffe.jiraffe.model;
+
+import com.jiruffe.jiraffe.util.Defaults;
+import com.jiruffe.jiraffe.util.PersistentVector;
+import com.jiruffe.jiraffe.util.TypeUtil;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * JSON list [] read from a {@link JSONTape}, which could not be modified.
+ * Sub-elements are found by skipping over the ones before, or by an index built on first peek for lists of more than {@value #THRESHOLD} sub-elements.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+final class JSONTapeList extends JSONElement {
+
+    // the maximum size to find sub-elements by skipping
+    private static final int THRESHOLD = 8;
+
+    private final JSONTape _tape;
+    private final int _begin;
+    // the hash code memoized, 0 if not computed yet
+    private int _hash = 0;
+    // the indexes of the sub-elements in the tape, null if not built yet
+    private int[] _index = null;
+
+    JSONTapeList(JSONTape tape, int begin) {
+        _tape = tape;
+        _begin = begin;
+    }
+
+    JSONTape tape() {
+        return _tape;
+    }
+
+    int begin() {
+        return _begin;
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return true;
+    }
+
+    @Override
+    public JSONElement persist() {
+        PersistentVector<JSONElement> sub_elements = PersistentVector.empty();
+        for (int j = _begin + 1, end = _tape.next(_begin); j < end; j = _tape.next(j)) {
+            sub_elements = sub_elements.plus(_tape.element(j).persist());
+        }
+        return new JSONPersistentList(sub_elements, true);
+    }
+
+    @Override
+    public JSONElement toTape() {
+        return this;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return _tape.next(_begin) == _begin + 1;
+    }
+
+    @Override
+    public int size() {
+        return _tape.count(_begin);
+    }
+
+    @Override
+    public Collection<Entry> entries() {
+        Collection<Entry> entries = Defaults.collection();
+        forEachEntry((k, v) -> entries.add(new Entry(k, v)));
+        return entries;
+    }
+
+    @Override
+    public void forEachEntry(BiConsumer<Object, ? super JSONElement> action) {
+        int i = 0;
+        for (int j = _begin + 1, end = _tape.next(_begin); j < end; j = _tape.next(j)) {
+            action.accept(i++, _tape.element(j));
+        }
+    }
+
+    @Override
+    public void forEachIndexed(ObjIntConsumer<? super JSONElement> action) {
+        int i = 0;
+        for (int j = _begin + 1, end = _tape.next(_begin); j < end; j = _tape.next(j)) {
+            action.accept(_tape.element(j), i++);
+        }
+    }
+
+    @Override
+    public Collection<Object> keys() {
+        return new JSONList.Indexes(this);
+    }
+
+    @Override
+    public Collection<JSONElement> values() {
+        return asList();
+    }
+
+    @Override
+    public JSONElement peek(Object k) {
+        if (TypeUtil.couldCastToInteger(k)) {
+            int ik = TypeUtil.castToInteger(k);
+            int sz = size();
+            if (ik >= 0 && ik < sz) {
+                return _tape.element(indexOf(ik));
+            } else {
+                throw new IndexOutOfBoundsException("Index: " + ik + ", Size: " + sz);
+            }
+        } else {
+            throw new IllegalArgumentException("Argument k must be Integer");
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object k) {
+        if (null == k) {
+            return false;
+        } else if (TypeUtil.couldCastToInteger(k)) {
+            int ik = TypeUtil.castToInteger(k);
+            return ik >= 0 && ik < size();
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean containsValue(Object v) {
+        if (this == v) {
+            return true;
+        } else if (null == v) {
+            return false;
+        } else {
+            JSONElement ev = JSONElement.newInstance(v);
+            return asList().contains(ev) || equals(ev);
+        }
+    }
+
+    @Override
+    public List<JSONElement> asList() {
+        return new View();
+    }
+
+    @Override
+    public long[] asLongArray() {
+        long[] longs = new long[size()];
+        forEachIndexed((v, i) -> longs[i] = v.asLong());
+        return longs;
+    }
+
+    @Override
+    public double[] asDoubleArray() {
+        double[] doubles = new double[size()];
+        forEachIndexed((v, i) -> doubles[i] = v.asDouble());
+        return doubles;
+    }
+
+    @Override
+    public Iterator<Entry> iterator() {
+        return entries().iterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Entry> action) {
+        entries().forEach(action);
+    }
+
+    @Override
+    public Spliterator<Entry> spliterator() {
+        return entries().spliterator();
+    }
+
+    @Override
+    public int hashCode() {
+        int h = _hash;
+        if (0 == h) {
+            h = super.hashCode();
+            _hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof JSONElement && ((JSONElement) obj).isList() && ((JSONElement) obj).isFrozen() && hashCode() != obj.hashCode()) {
+            return false;
+        }
+        return super.equals(obj);
+    }
+
+    /**
+     * Returns the index in the tape of the sub-element at {@code i}, which is in range.
+     */
+    private int indexOf(int i) {
+        int[] index = _index;
+        if (null == index && size() > THRESHOLD) {
+            index = new int[size()];
+            int n = 0;
+            for (int j = _begin + 1, end = _tape.next(_begin); j < end; j = _tape.next(j)) {
+                index[n++] = j;
+            }
+            _index = index;
+        }
+        if (null != index) {
+            return index[i];
+        }
+        int j = _begin + 1;
+        for (; i > 0; i--) {
+            j = _tape.next(j);
+        }
+        return j;
+    }
+
+    /**
+     * Read-only {@link List} view of the sub-elements.
+     */
+    private final class View extends AbstractList<JSONElement> implements RandomAccess {
+
+        @Override
+        public JSONElement get(int index) {
+            return peek(index);
+        }
+
+        @Override
+        public int size() {
+            return JSONTapeList.this.size();
+        }
+
+        @Override
+        public Iterator<JSONElement> iterator() {
+            return new Iterator<JSONElement>() {
+
+                private int _cursor = _begin + 1;
+                private final int _end = _tape.next(_begin);
+
+                @Override
+                public boolean hasNext() {
+                    return _cursor < _end;
+                }
+
+                @Override
+                public JSONElement next() {
+                    if (_cursor >= _end) {
+                        throw new NoSuchElementException();
+                    }
+                    int j = _cursor;
+                    _cursor = _tape.next(j);
+                    return _tape.element(j);
+                }
+
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,253 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.jiruffe.jiraffe.model;
+
+import com.jiruffe.jiraffe.util.Defaults;
+import com.jiruffe.jiraffe.util.PersistentMap;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * JSON map {} read from a {@link JSONTape}, which could not be modified.
+ * Keys are found by a linear scan of the tape, or by an index of their hashes built on first peek for maps of more than {@value #THRESHOLD} keys,
+ * of which the tape keeps the recently used ones only.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+final class JSONTapeMap extends JSONElement {
+
+    // the maximum size to find keys by linear scan
+    private static final int THRESHOLD = 8;
+
+    private final JSONTape _tape;
+    private final int _begin;
+    // the hash code memoized, 0 if not computed yet
+    private int _hash = 0;
+
+    JSONTapeMap(JSONTape tape, int begin) {
+        _tape = tape;
+        _begin = begin;
+    }
+
+    JSONTape tape() {
+        return _tape;
+    }
+
+    int begin() {
+        return _begin;
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return true;
+    }
+
+    @Override
+    public JSONElement persist() {
+        PersistentMap<Object, JSONElement> sub_elements = PersistentMap.empty();
+        for (int j = _begin + 1, end = _tape.next(_begin); j < end; j = _tape.next(j + 1)) {
+            sub_elements = sub_elements.with(_tape.string(j), _tape.element(j + 1).persist());
+        }
+        return new JSONPersistentMap(sub_elements, true);
+    }
+
+    @Override
+    public JSONElement toTape() {
+        return this;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return _tape.next(_begin) == _begin + 1;
+    }
+
+    @Override
+    public int size() {
+        return _tape.count(_begin);
+    }
+
+    @Override
+    public Collection<Entry> entries() {
+        Collection<Entry> entries = Defaults.collection();
+        forEachEntry((k, v) -> entries.add(new Entry(k, v)));
+        return entries;
+    }
+
+    @Override
+    public void forEachEntry(BiConsumer<Object, ? super JSONElement> action) {
+        for (int j = _begin + 1, end = _tape.next(_begin); j < end; j = _tape.next(j + 1)) {
+            action.accept(_tape.string(j), _tape.element(j + 1));
+        }
+    }
+
+    @Override
+    public Collection<Object> keys() {
+        Collection<Object> keys = Defaults.collection();
+        forEachEntry((k, v) -> keys.add(k));
+        return keys;
+    }
+
+    @Override
+    public Collection<JSONElement> values() {
+        Collection<JSONElement> values = Defaults.collection();
+        forEachEntry((k, v) -> values.add(v));
+        return values;
+    }
+
+    @Override
+    public JSONElement peek(Object k) {
+        int j = indexOf(k);
+        return j >= 0 ? _tape.element(j) : JSONElement.theVoid();
+    }
+
+    @Override
+    public boolean containsKey(Object k) {
+        return indexOf(k) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object v) {
+        if (this == v) {
+            return true;
+        } else if (null == v) {
+            return false;
+        } else {
+            JSONElement ev = JSONElement.newInstance(v);
+            return values().contains(ev) || equals(ev);
+        }
+    }
+
+    @Override
+    public Map<Object, JSONElement> asMap() {
+        return new View();
+    }
+
+    @Override
+    public Iterator<Entry> iterator() {
+        return entries().iterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Entry> action) {
+        entries().forEach(action);
+    }
+
+    @Override
+    public Spliterator<Entry> spliterator() {
+        return entries().spliterator();
+    }
+
+    @Override
+    public int hashCode() {
+        int h = _hash;
+        if (0 == h) {
+            h = super.hashCode();
+            _hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof JSONElement && ((JSONElement) obj).isMap() && ((JSONElement) obj).isFrozen() && hashCode() != obj.hashCode()) {
+            return false;
+        }
+        return super.equals(obj);
+    }
+
+    /**
+     * Returns the index of the value of the key in the tape, or -1 if absent.
+     */
+    private int indexOf(Object k) {
+        if (!(k instanceof String)) {
+            return -1;
+        }
+        return _tape.find(_begin, (String) k, size() > THRESHOLD);
+    }
+
+    /**
+     * Read-only {@link Map} view of the sub-elements.
+     */
+    private final class View extends AbstractMap<Object, JSONElement> {
+
+        @Override
+        public int size() {
+            return JSONTapeMap.this.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return JSONTapeMap.this.containsKey(key);
+        }
+
+        @Override
+        public JSONElement get(Object key) {
+            int j = indexOf(key);
+            return j >= 0 ? _tape.element(j) : null;
+        }
+
+        @Override
+        public Set<Map.Entry<Object, JSONElement>> entrySet() {
+            return new AbstractSet<Map.Entry<Object, JSONElement>>() {
+
+                @Override
+                public int size() {
+                    return JSONTapeMap.this.size();
+                }
+
+                @Override
+                public Iterator<Map.Entry<Object, JSONElement>> iterator() {
+                    return new Iterator<Map.Entry<Object, JSONElement>>() {
+
+                        private int _cursor = _begin + 1;
+                        private final int _end = _tape.next(_begin);
+
+                        @Override
+                        public boolean hasNext() {
+                            return _cursor < _end;
+                        }
+
+                        @Override
+                        public Map.Entry<Object, JSONElement> next() {
+                            if (_cursor >= _end) {
+                                throw new NoSuchElementException();
+                            }
+                            int j = _cursor;
+                            _cursor = _tape.next(j + 1);
+                            return new SimpleImmutableEntry<>(_tape.string(j), _tape.element(j + 1));
+                        }
+
+                    };
+                }
+
+            };
+        }
+
+    }
+
+}
@@ -17,7 +17,9 @@
 package com.jiruffe.jiraffe.model;
 
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 /**
  * JSON {@code null}, {@code undefined} or {@code NaN}
@@ -40,6 +42,21 @@ final class JSONVoid extends JSONElement {
         return true;
     }
 
+    @Override
+    public boolean isFrozen() {
+        return true;
+    }
+
+    @Override
+    public void forEachEntry(BiConsumer<Object, ? super JSONElement> action) {
+        Objects.requireNonNull(action);
+    }
+
+    @Override
+    public void forEachIndexed(ObjIntConsumer<? super JSONElement> action) {
+        Objects.requireNonNull(action);
+    }
+
     @Override
     public Iterator<Entry> iterator() {
         return Collections.emptyIterator();
@@ -0,0 +1,84 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.jiruffe.jiraffe.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link CharSequence} view of a range of {@code byte[]} without copying, each byte is read as a Latin-1 char.
+ * It is meant for ASCII text, multi-byte encoded text must be decoded instead.
+ * The view could be moved to another range, so it is only valid as long as the owner keeps it.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+public final class ByteSlice implements CharSequence {
+
+    private byte[] _array;
+    private int _offset;
+    private int _length;
+
+    public ByteSlice() {
+        this(new byte[0], 0, 0);
+    }
+
+    public ByteSlice(byte[] array, int offset, int length) {
+        set(array, offset, length);
+    }
+
+    public ByteSlice set(byte[] array, int offset, int length) {
+        _array = array;
+        _offset = offset;
+        _length = length;
+        return this;
+    }
+
+    public byte[] array() {
+        return _array;
+    }
+
+    public int offset() {
+        return _offset;
+    }
+
+    @Override
+    public int length() {
+        return _length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= _length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + _length);
+        }
+        return (char) (_array[_offset + index] & 0xff);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > _length || start > end) {
+            throw new IndexOutOfBoundsException("Start: " + start + ", End: " + end + ", Length: " + _length);
+        }
+        return new ByteSlice(_array, _offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(_array, _offset, _length, StandardCharsets.ISO_8859_1);
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.jiruffe.jiraffe.util;
+
+/**
+ * {@link CharSequence} view of a range of {@code char[]} without copying.
+ * The view could be moved to another range, so it is only valid as long as the owner keeps it.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+public final class CharSlice implements CharSequence {
+
+    private char[] _array;
+    private int _offset;
+    private int _length;
+
+    public CharSlice() {
+        this(new char[0], 0, 0);
+    }
+
+    public CharSlice(char[] array, int offset, int length) {
+        set(array, offset, length);
+    }
+
+    public CharSlice set(char[] array, int offset, int length) {
+        _array = array;
+        _offset = offset;
+        _length = length;
+        return this;
+    }
+
+    public char[] array() {
+        return _array;
+    }
+
+    public int offset() {
+        return _offset;
+    }
+
+    @Override
+    public int length() {
+        return _length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= _length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + _length);
+        }
+        return _array[_offset + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > _length || start > end) {
+            throw new IndexOutOfBoundsException("Start: " + start + ", End: " + end + ", Length: " + _length);
+        }
+        return new CharSlice(_array, _offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(_array, _offset, _length);
+    }
+
+}
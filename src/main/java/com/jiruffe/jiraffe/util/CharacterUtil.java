@@ -30,6 +30,11 @@ public abstract class CharacterUtil {
     public final static int[] CHAR_TO_DIGIT = new int[(int) 'f' + 1];
     public final static char[] ESCAPE_CHARACTER = new char[93];
     public final static char[] UNESCAPE_CHARACTER = new char[120];
+    public final static int SPACE = 1;
+    public final static int STRUCTURAL = 2;
+    public final static int QUOTE = 4;
+    public final static int BACKSLASH = 8;
+    public final static byte[] CHARACTER_TYPE = new byte[128];
 
     static {
 
@@ -82,6 +87,24 @@ public abstract class CharacterUtil {
         UNESCAPE_CHARACTER['/'] = '/'; // 47
         UNESCAPE_CHARACTER['\\'] = '\\'; // 92
 
+        for (int i = 0; i <= ' '; ++i) {
+            CHARACTER_TYPE[i] = SPACE;
+        }
+        CHARACTER_TYPE[127] = SPACE;
+        CHARACTER_TYPE['{'] = STRUCTURAL;
+        CHARACTER_TYPE['}'] = STRUCTURAL;
+        CHARACTER_TYPE['['] = STRUCTURAL;
+        CHARACTER_TYPE[']'] = STRUCTURAL;
+        CHARACTER_TYPE[','] = STRUCTURAL;
+        CHARACTER_TYPE[':'] = STRUCTURAL;
+        CHARACTER_TYPE['"'] = QUOTE;
+        CHARACTER_TYPE['\''] = QUOTE;
+        CHARACTER_TYPE['\\'] = BACKSLASH;
+
+    }
+
+    public static int typeOf(char c) {
+        return c < 128 ? CHARACTER_TYPE[c] : 0;
     }
 
     public static boolean isVisible(char c) {
@@ -124,4 +147,8 @@ public abstract class CharacterUtil {
         return '\'' == c || '"' == c;
     }
 
+    public static boolean isStructural(char c) {
+        return STRUCTURAL == typeOf(c);
+    }
+
 }
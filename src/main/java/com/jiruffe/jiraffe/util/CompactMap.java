@@ -0,0 +1,425 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.jiruffe.jiraffe.util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link Map} in insertion order backed by parallel arrays of keys and values, without a node per entry.
+ * Keys are found by a linear scan while there are at most {@value #THRESHOLD} entries,
+ * which is faster than hashing for small maps, and by an open addressing table of indexes into the arrays beyond.
+ * Removing an entry shifts the entries after it, so it is O(n), as well as rebuilding the table if there is one.
+ * Null keys and values are permitted. A map is not thread-safe.
+ * <p>
+ * Maps with the same {@link String} keys put in the same order share the keys and the table, called a shape,
+ * and hold only their values. Shapes are found by transitions from the empty shape, one for each key put,
+ * so the records of a list share one shape as they are filled, without any lookup in advance.
+ * A map leaves its shape for keys of its own when a key is removed or is not a {@link String},
+ * or when the shape would have more than {@value #MAX_SHAPE_SIZE} keys,
+ * or the shape has {@value #MAX_TRANSITIONS} transitions already, such as maps keyed by ids, which stops sharing below that shape only,
+ * or there are {@value #MAX_SHAPES} shapes already. Shapes are never released, so the latter bounds the keys they keep alive
+ * however many distinct keys are read, see {@link #shapes()}.
+ *
+ * @param <K> the type of keys.
+ * @param <V> the type of values.
+ * @author Jiruffe
+ * 2026.10.18
+ */
+public final class CompactMap<K, V> extends AbstractMap<K, V> {
+
+    // the maximum size to find keys by linear scan
+    private static final int THRESHOLD = 8;
+    private static final int MIN_CAPACITY = 4;
+    private static final Object[] EMPTY = {};
+    private static final int MAX_SHAPE_SIZE = 64;
+    private static final int MAX_TRANSITIONS = 16;
+    private static final int MAX_SHAPES = 1 << 14;
+
+    // the keys of the shape if there is one, which must not be modified
+    private Object[] _keys = EMPTY;
+    private Object[] _values = EMPTY;
+    private int _size = 0;
+    // indexes + 1 into the arrays by hash, 0 for empty slots, null while the size is not beyond the threshold
+    private int[] _table = null;
+    // the shape shared with other maps, or null if the keys are of this map only
+    private Shape _shape = Shape.EMPTY;
+    private int _modifications = 0;
+    private Set<Map.Entry<K, V>> _entry_set = null;
+
+    /**
+     * Get the number of shapes created, which never exceeds {@value #MAX_SHAPES}.
+     *
+     * @return the number of shapes.
+     */
+    public static int shapes() {
+        return Shape.COUNT.get();
+    }
+
+    @Override
+    public int size() {
+        return _size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return 0 == _size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        int i = indexOf(key);
+        return i >= 0 ? valueAt(i) : null;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        int i = indexOf(key);
+        if (i >= 0) {
+            V old = valueAt(i);
+            _values[i] = value;
+            return old;
+        }
+        _modifications++;
+        if (null != _shape) {
+            Shape shape = _shape.transition(key);
+            if (null != shape) {
+                if (_size == _values.length) {
+                    _values = Arrays.copyOf(_values, Math.max(MIN_CAPACITY, _size << 1));
+                }
+                _shape = shape;
+                _keys = shape._keys;
+                _table = shape._table;
+                _values[_size++] = value;
+                return null;
+            }
+            unshape();
+        }
+        if (_size == _keys.length) {
+            int capacity = Math.max(MIN_CAPACITY, _size << 1);
+            _keys = Arrays.copyOf(_keys, capacity);
+            _values = Arrays.copyOf(_values, capacity);
+        }
+        _keys[_size] = key;
+        _values[_size] = value;
+        _size++;
+        if (null != _table && _size << 1 <= _table.length) {
+            insert(_size - 1);
+        } else if (_size > THRESHOLD) {
+            rebuild();
+        }
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        int i = indexOf(key);
+        return i >= 0 ? removeAt(i) : null;
+    }
+
+    @Override
+    public void clear() {
+        // the values are kept to be filled again, while the keys are dropped to share the shapes from the empty one
+        Arrays.fill(_values, 0, _size, null);
+        _size = 0;
+        _keys = EMPTY;
+        _table = null;
+        _shape = Shape.EMPTY;
+        _modifications++;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        int modifications = _modifications;
+        for (int i = 0; i < _size; i++) {
+            action.accept(keyAt(i), valueAt(i));
+            if (modifications != _modifications) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (null == _entry_set) {
+            _entry_set = new EntrySet();
+        }
+        return _entry_set;
+    }
+
+    private int indexOf(Object key) {
+        if (null == _table) {
+            for (int i = 0; i < _size; i++) {
+                Object k = _keys[i];
+                if (k == key || (null != key && key.equals(k))) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int mask = _table.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int i = _table[slot] - 1;
+            if (i < 0) {
+                return -1;
+            }
+            Object k = _keys[i];
+            if (k == key || (null != key && key.equals(k))) {
+                return i;
+            }
+        }
+    }
+
+    private V removeAt(int i) {
+        unshape();
+        V old = valueAt(i);
+        int moved = _size - i - 1;
+        System.arraycopy(_keys, i + 1, _keys, i, moved);
+        System.arraycopy(_values, i + 1, _values, i, moved);
+        _size--;
+        _keys[_size] = null;
+        _values[_size] = null;
+        _modifications++;
+        if (null != _table) {
+            // the indexes after i have moved
+            if (_size > THRESHOLD) {
+                rebuild();
+            } else {
+                _table = null;
+            }
+        }
+        return old;
+    }
+
+    // the arrays hold only the keys and the values put
+    @SuppressWarnings("unchecked")
+    private K keyAt(int i) {
+        return (K) _keys[i];
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int i) {
+        return (V) _values[i];
+    }
+
+    // copies the keys and the table of the shape to be modified
+    private void unshape() {
+        if (null == _shape) {
+            return;
+        }
+        _shape = null;
+        _keys = Arrays.copyOf(_keys, _values.length);
+        if (null != _table) {
+            _table = _table.clone();
+        }
+    }
+
+    private void rebuild() {
+        _table = table(_keys, _size);
+    }
+
+    private void insert(int i) {
+        insert(_table, _keys, i);
+    }
+
+    // builds the table with at most a half of the slots used
+    private static int[] table(Object[] keys, int size) {
+        int[] table = new int[Integer.highestOneBit(size) << 2];
+        for (int i = 0; i < size; i++) {
+            insert(table, keys, i);
+        }
+        return table;
+    }
+
+    private static void insert(int[] table, Object[] keys, int i) {
+        int mask = table.length - 1;
+        int slot = hash(keys[i]) & mask;
+        while (0 != table[slot]) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = i + 1;
+    }
+
+    private static int hash(Object key) {
+        int h = null == key ? 0 : key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Immutable keys in order and their table, shared by the maps of the same keys.
+     */
+    private static final class Shape {
+
+        private static final Shape EMPTY = new Shape(CompactMap.EMPTY);
+        private static final AtomicInteger COUNT = new AtomicInteger();
+
+        private final Object[] _keys;
+        private final int[] _table;
+        // the shapes of one more key
+        private final ConcurrentHashMap<String, Shape> _transitions = new ConcurrentHashMap<>(4);
+
+        private Shape(Object[] keys) {
+            _keys = keys;
+            _table = keys.length > THRESHOLD ? table(keys, keys.length) : null;
+        }
+
+        /**
+         * Get the shape of the keys of this shape and the key.
+         *
+         * @return the shape, or {@code null} if the key could not be in a shape.
+         */
+        private Shape transition(Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            Shape shape = _transitions.get(key);
+            if (null != shape) {
+                return shape;
+            } else if (_keys.length >= MAX_SHAPE_SIZE || _transitions.size() >= MAX_TRANSITIONS) {
+                return null;
+            }
+            return _transitions.computeIfAbsent((String) key, k -> {
+                // reserved before creating, so that racing threads never exceed the budget
+                int count;
+                do {
+                    count = COUNT.get();
+                    if (count >= MAX_SHAPES) {
+                        return null;
+                    }
+                } while (!COUNT.compareAndSet(count, count + 1));
+                Object[] keys = Arrays.copyOf(_keys, _keys.length + 1);
+                keys[_keys.length] = k;
+                return new Shape(keys);
+            });
+        }
+
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        @Override
+        public int size() {
+            return _size;
+        }
+
+        @Override
+        public void clear() {
+            CompactMap.this.clear();
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<K, V>> {
+
+        private int _cursor = 0;
+        private int _last = -1;
+        private int _modifications = CompactMap.this._modifications;
+
+        @Override
+        public boolean hasNext() {
+            return _cursor < _size;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (_modifications != CompactMap.this._modifications) {
+                throw new ConcurrentModificationException();
+            } else if (_cursor >= _size) {
+                throw new NoSuchElementException();
+            }
+            _last = _cursor++;
+            return new Node(_last);
+        }
+
+        @Override
+        public void remove() {
+            if (_last < 0) {
+                throw new IllegalStateException();
+            } else if (_modifications != CompactMap.this._modifications) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(_last);
+            _cursor = _last;
+            _last = -1;
+            _modifications = CompactMap.this._modifications;
+        }
+
+    }
+
+    /**
+     * Entry at an index, valid until the map is structurally modified.
+     */
+    private final class Node implements Map.Entry<K, V> {
+
+        private final int _index;
+
+        private Node(int index) {
+            _index = index;
+        }
+
+        @Override
+        public K getKey() {
+            return keyAt(_index);
+        }
+
+        @Override
+        public V getValue() {
+            return valueAt(_index);
+        }
+
+        @Override
+        public V setValue(V value) {
+            V old = valueAt(_index);
+            _values[_index] = value;
+            return old;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            } else if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            return Objects.equals(getKey(), ((Map.Entry<?, ?>) obj).getKey()) && Objects.equals(getValue(), ((Map.Entry<?, ?>) obj).getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.jiruffe.jiraffe.util;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * Thread-safe {@link java.util.List} of which appending scales with the number of threads.
+ * Elements appended go to one of several stripes, chosen by the thread, each with a lock of its own,
+ * so threads appending at the same time rarely wait for each other.
+ * Any other operation first merges the stripes into the list under a single lock,
+ * so the elements appended by one thread are kept in order, but the ones appended by different threads may be interleaved by stripes.
+ * Iterators go over a snapshot, and do not support modifying.
+ *
+ * @param <E> the type of elements.
+ * @author Jiruffe
+ * 2026.10.18
+ */
+public final class ConcurrentList<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final int STRIPES = stripes();
+
+    // the elements appended by the threads of each stripe, not merged yet
+    private final List<List<E>> _stripes;
+    // the elements merged, which is also the lock of merging
+    private final ArrayList<E> _merged = new ArrayList<>();
+
+    public ConcurrentList() {
+        _stripes = new ArrayList<>(STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            _stripes.add(new ArrayList<>());
+        }
+    }
+
+    @Override
+    public boolean add(E e) {
+        List<E> stripe = stripe();
+        synchronized (stripe) {
+            stripe.add(e);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        List<E> stripe = stripe();
+        synchronized (stripe) {
+            return stripe.addAll(c);
+        }
+    }
+
+    @Override
+    public E get(int index) {
+        synchronized (_merged) {
+            merge();
+            return _merged.get(index);
+        }
+    }
+
+    @Override
+    public E set(int index, E e) {
+        synchronized (_merged) {
+            merge();
+            return _merged.set(index, e);
+        }
+    }
+
+    @Override
+    public void add(int index, E e) {
+        synchronized (_merged) {
+            merge();
+            _merged.add(index, e);
+        }
+    }
+
+    @Override
+    public E remove(int index) {
+        synchronized (_merged) {
+            merge();
+            return _merged.remove(index);
+        }
+    }
+
+    @Override
+    public int size() {
+        synchronized (_merged) {
+            merge();
+            return _merged.size();
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (_merged) {
+            merge();
+            _merged.clear();
+        }
+    }
+
+    @Override
+    public Object[] toArray() {
+        synchronized (_merged) {
+            merge();
+            return _merged.toArray();
+        }
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return snapshot().iterator();
+    }
+
+    @Override
+    public ListIterator<E> listIterator(int index) {
+        return snapshot().listIterator(index);
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        snapshot().forEach(action);
+    }
+
+    private List<E> snapshot() {
+        synchronized (_merged) {
+            merge();
+            return Collections.unmodifiableList(new ArrayList<>(_merged));
+        }
+    }
+
+    private List<E> stripe() {
+        long id = Thread.currentThread().getId();
+        return _stripes.get((int) (id ^ (id >>> 16)) & (STRIPES - 1));
+    }
+
+    // must be called with the lock of merging
+    private void merge() {
+        for (List<E> stripe : _stripes) {
+            synchronized (stripe) {
+                if (!stripe.isEmpty()) {
+                    _merged.addAll(stripe);
+                    stripe.clear();
+                }
+            }
+        }
+    }
+
+    private static int stripes() {
+        // the power of 2 not less than twice the processors
+        return Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+    }
+
+}
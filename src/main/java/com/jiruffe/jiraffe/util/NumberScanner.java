@@ -0,0 +1,373 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.jiruffe.jiraffe.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Scanner reading a number from text in a single pass, to a {@code long}, a correctly rounded {@code double},
+ * or {@link BigInteger} and {@link BigDecimal} for the numbers which do not fit.
+ * Integers are read to {@code long}, and real numbers of at most 17 significant digits within the range of {@code double} to {@code double},
+ * which allocates nothing; the others are read to {@link BigInteger} or {@link BigDecimal} without losing precision.
+ * The {@code double} is computed by the fast path of Clinger if exact,
+ * or else by the algorithm of Eisel and Lemire, falling back to {@link Double#parseDouble(String)} in the rare ambiguous cases.
+ * Hexadecimal, binary and octal integers in BCPL style are read as before.
+ * A scanner keeps the result of the last scan, so it is not thread-safe.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+public final class NumberScanner {
+
+    public static final int LONG = 1;
+
+    public static final int DOUBLE = 2;
+
+    public static final int BIG_INTEGER = 3;
+
+    public static final int BIG_DECIMAL = 4;
+
+    private static final int MAX_LONG_DIGITS = 19;
+    // significant digits a double holds faithfully
+    private static final int MAX_DOUBLE_DIGITS = 17;
+    private static final int MAX_EXPONENT = 100000;
+
+    private static final double[] SMALL_POWERS = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // 128 bits of 5^q normalized, truncated for positive q and rounded up for negative q
+    private static final int MIN_POWER = -342;
+    private static final int MAX_POWER = 308;
+    private static final long[] POWERS_HIGH = new long[MAX_POWER - MIN_POWER + 1];
+    private static final long[] POWERS_LOW = new long[MAX_POWER - MIN_POWER + 1];
+
+    static {
+        BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+        for (int q = MIN_POWER; q <= MAX_POWER; q++) {
+            BigInteger power = BigInteger.valueOf(5).pow(Math.abs(q));
+            BigInteger normalized;
+            if (q >= 0) {
+                int shift = power.bitLength() - 128;
+                normalized = shift > 0 ? power.shiftRight(shift) : power.shiftLeft(-shift);
+            } else {
+                normalized = BigInteger.ONE.shiftLeft(power.bitLength() + 127).divide(power).add(BigInteger.ONE);
+            }
+            POWERS_HIGH[q - MIN_POWER] = normalized.shiftRight(64).longValue();
+            POWERS_LOW[q - MIN_POWER] = normalized.and(mask).longValue();
+        }
+    }
+
+    private int _type = 0;
+    private long _long = 0;
+    private double _double = 0;
+    private Number _big = null;
+
+    /**
+     * Read a number from text by a new scanner.
+     *
+     * @param s the text.
+     * @return the {@link Long}, {@link Double}, {@link BigInteger} or {@link BigDecimal} read,
+     * or {@code null} if the text is not a number.
+     */
+    public static Number parse(CharSequence s) {
+        NumberScanner scanner = new NumberScanner();
+        return scanner.scan(s) ? scanner.toNumber() : null;
+    }
+
+    /**
+     * Scans the text as a number.
+     *
+     * @param s the text.
+     * @return whether the text is a number, the result is kept only if so.
+     */
+    public boolean scan(CharSequence s) {
+
+        int len = s.length();
+        if (0 == len) {
+            return false;
+        }
+
+        char c = s.charAt(0);
+        if ('0' == c && len > 1 && StringUtil.isBCPLStyleNumeric(s)) {
+            return scanBCPLStyle(s);
+        }
+
+        int i = 0;
+        boolean negative = '-' == c;
+        if (negative || '+' == c) {
+            i++;
+        }
+
+        // the first significant digits and the decimal exponent to them
+        long w = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean real = false;
+
+        int start = i;
+        for (; i < len; i++) {
+            c = s.charAt(i);
+            if ('0' > c || '9' < c) {
+                break;
+            }
+            if (0 != w || '0' != c) {
+                if (++digits <= MAX_LONG_DIGITS) {
+                    w = w * 10 + (c - '0');
+                } else {
+                    exponent++;
+                }
+            }
+        }
+        int count = i - start;
+
+        if (i < len && '.' == s.charAt(i)) {
+            real = true;
+            start = ++i;
+            for (; i < len; i++) {
+                c = s.charAt(i);
+                if ('0' > c || '9' < c) {
+                    break;
+                }
+                if (0 != w || '0' != c) {
+                    if (++digits <= MAX_LONG_DIGITS) {
+                        w = w * 10 + (c - '0');
+                        exponent--;
+                    }
+                } else {
+                    exponent--;
+                }
+            }
+            count += i - start;
+        }
+
+        if (0 == count) {
+            return false;
+        }
+
+        if (i < len && ('e' == s.charAt(i) || 'E' == s.charAt(i))) {
+            real = true;
+            boolean negative_exponent = false;
+            if (++i < len && ('-' == s.charAt(i) || '+' == s.charAt(i))) {
+                negative_exponent = '-' == s.charAt(i++);
+            }
+            int e = 0;
+            for (start = i; i < len; i++) {
+                c = s.charAt(i);
+                if ('0' > c || '9' < c) {
+                    break;
+                }
+                if (e < MAX_EXPONENT) {
+                    e = e * 10 + (c - '0');
+                }
+            }
+            if (i == start) {
+                return false;
+            }
+            exponent += negative_exponent ? -e : e;
+        }
+
+        if (i != len) {
+            return false;
+        }
+
+        _big = null;
+        if (!real) {
+            if (digits < MAX_LONG_DIGITS
+                    || (MAX_LONG_DIGITS == digits && Long.compareUnsigned(w, negative ? Long.MIN_VALUE : Long.MAX_VALUE) <= 0)) {
+                _type = LONG;
+                _long = negative ? -w : w;
+                _double = _long;
+            } else {
+                _type = BIG_INTEGER;
+                _big = new BigInteger(s.toString());
+                _long = _big.longValue();
+                _double = _big.doubleValue();
+            }
+        } else if (digits <= MAX_DOUBLE_DIGITS && (0 == w || (exponent >= MIN_POWER && exponent <= MAX_POWER))
+                && isFinite(_double = toDouble(negative, w, exponent, s)) && (0 == w || 0 != _double)) {
+            _type = DOUBLE;
+            _long = (long) _double;
+        } else {
+            // beyond the range of double, overflowing to infinity or underflowing to zero
+            try {
+                _big = new BigDecimal(s.toString());
+            } catch (NumberFormatException e) {
+                // exponent out of range
+                return false;
+            }
+            _type = BIG_DECIMAL;
+            _long = _big.longValue();
+            _double = _big.doubleValue();
+        }
+        return true;
+
+    }
+
+    /**
+     * Get the type of the number scanned.
+     *
+     * @return {@link #LONG}, {@link #DOUBLE}, {@link #BIG_INTEGER} or {@link #BIG_DECIMAL}.
+     */
+    public int type() {
+        return _type;
+    }
+
+    /**
+     * Get the number scanned as {@code long}.
+     *
+     * @return the {@code long} value.
+     */
+    public long longValue() {
+        return _long;
+    }
+
+    /**
+     * Get the number scanned as {@code double}.
+     *
+     * @return the {@code double} value.
+     */
+    public double doubleValue() {
+        return _double;
+    }
+
+    /**
+     * Get the number scanned.
+     *
+     * @return the {@link Long}, {@link Double}, {@link BigInteger} or {@link BigDecimal}.
+     */
+    public Number toNumber() {
+        switch (_type) {
+            case LONG:
+                return _long;
+            case DOUBLE:
+                return _double;
+            default:
+                return _big;
+        }
+    }
+
+    private boolean scanBCPLStyle(CharSequence s) {
+        if (s.length() > 16) {
+            _type = BIG_INTEGER;
+            _big = TypeUtil.castToBigInteger(s);
+            _long = _big.longValue();
+        } else {
+            _type = LONG;
+            _big = null;
+            _long = TypeUtil.castToLong(s);
+        }
+        _double = _long;
+        return true;
+    }
+
+    private static boolean isFinite(double d) {
+        return !Double.isInfinite(d) && !Double.isNaN(d);
+    }
+
+    private static double toDouble(boolean negative, long w, int q, CharSequence s) {
+
+        if (0 == w || q < MIN_POWER) {
+            return negative ? -0d : 0d;
+        } else if (q > MAX_POWER) {
+            return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+
+        // both w and 10^q are exact doubles, so is the result of one operation on them
+        if (w < 1L << 53 && q >= -22 && q <= 22) {
+            double d = q < 0 ? w / SMALL_POWERS[-q] : w * SMALL_POWERS[q];
+            return negative ? -d : d;
+        }
+
+        long bits = eiselLemire(w, q);
+        if (bits < 0) {
+            return Double.parseDouble(s.toString());
+        }
+        return Double.longBitsToDouble(negative ? bits | Long.MIN_VALUE : bits);
+
+    }
+
+    /**
+     * Computes the bits of the {@code double} nearest to {@code w * 10^q}.
+     *
+     * @return the bits, or -1 if the result could not be decided.
+     */
+    private static long eiselLemire(long w, int q) {
+
+        int index = q - MIN_POWER;
+        int lz = Long.numberOfLeadingZeros(w);
+        w <<= lz;
+
+        long upper = multiplyHigh(w, POWERS_HIGH[index]);
+        long lower = w * POWERS_HIGH[index];
+        if (0x1FF == (upper & 0x1FF) && Long.compareUnsigned(lower + w, lower) < 0) {
+            // the truncated bits could carry, so take the lower half of the power
+            long second_upper = multiplyHigh(w, POWERS_LOW[index]);
+            long second_lower = w * POWERS_LOW[index];
+            long middle = lower + second_upper;
+            if (Long.compareUnsigned(middle, lower) < 0) {
+                upper++;
+            }
+            if (-1 == middle && 0x1FF == (upper & 0x1FF) && Long.compareUnsigned(second_lower + w, second_lower) < 0) {
+                return -1;
+            }
+            lower = middle;
+        }
+
+        long upper_bit = upper >>> 63;
+        long mantissa = upper >>> (upper_bit + 9);
+        lz += (int) (1 ^ upper_bit);
+
+        // exactly halfway between two doubles, which needs rounding to even
+        if (0 == lower && 0 == (upper & 0x1FF) && 1 == (mantissa & 3)) {
+            return -1;
+        }
+
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if (mantissa >= 1L << 53) {
+            // rounded up to the next power of 2
+            mantissa = 1L << 52;
+            lz--;
+        }
+        mantissa &= ~(1L << 52);
+
+        long exponent = ((217706L * q) >> 16) + 1024 + 63 - lz;
+        if (exponent < 1 || exponent > 2046) {
+            // subnormal or infinite
+            return -1;
+        }
+        return mantissa | exponent << 52;
+
+    }
+
+    /**
+     * Returns the high 64 bits of the unsigned 128 bits product of two unsigned {@code long}.
+     */
+    private static long multiplyHigh(long a, long b) {
+        long a_low = a & 0xFFFFFFFFL;
+        long a_high = a >>> 32;
+        long b_low = b & 0xFFFFFFFFL;
+        long b_high = b >>> 32;
+        long high_low = a_high * b_low;
+        long cross = ((a_low * b_low) >>> 32) + (high_low & 0xFFFFFFFFL) + a_low * b_high;
+        return a_high * b_high + (high_low >>> 32) + (cross >>> 32);
+    }
+
+}
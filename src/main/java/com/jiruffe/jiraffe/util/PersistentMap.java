@@ -0,0 +1,447 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.jiruffe.jiraffe.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable {@link Map} in insertion order of which a modified version shares most of its structure with this one.
+ * The entries are found by a hash array mapped trie, branching by {@value #BITS} bits of the hash code at each level,
+ * and kept in order by a {@link PersistentVector}, so that putting and removing copy only the nodes on the paths, O(log n).
+ * A removed entry leaves a hole in the order, and the holes are dropped by rebuilding once they outnumber the entries.
+ * Null keys and values are permitted. The methods of {@link Map} modifying it throw {@link UnsupportedOperationException}.
+ *
+ * @param <K> the type of keys.
+ * @param <V> the type of values.
+ * @author Jiruffe
+ * 2026.10.18
+ */
+public final class PersistentMap<K, V> extends AbstractMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    // the holes tolerated in the order regardless of the size
+    private static final int MIN_HOLES = 32;
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(0, Node.EMPTY, PersistentVector.empty());
+
+    private final int _size;
+    private final Node _root;
+    // the leaves in insertion order, null for the removed ones
+    private final PersistentVector<Leaf<K, V>> _order;
+    private Set<Map.Entry<K, V>> _entry_set = null;
+
+    private PersistentMap(int size, Node root, PersistentVector<Leaf<K, V>> order) {
+        _size = size;
+        _root = root;
+        _order = order;
+    }
+
+    /**
+     * Returns the empty map.
+     *
+     * @param <K> the type of keys.
+     * @param <V> the type of values.
+     * @return the empty map.
+     */
+    // the empty map holds no keys or values of any type
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Returns a map of the entries given.
+     *
+     * @param entries the entries.
+     * @param <K>     the type of keys.
+     * @param <V>     the type of values.
+     * @return the map.
+     */
+    // the persistent map could not be modified, so it is a map of the supertypes as well
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> of(Map<? extends K, ? extends V> entries) {
+        if (entries instanceof PersistentMap) {
+            return (PersistentMap<K, V>) entries;
+        }
+        PersistentMap<K, V> map = empty();
+        for (Map.Entry<? extends K, ? extends V> e : entries.entrySet()) {
+            map = map.with(e.getKey(), e.getValue());
+        }
+        return map;
+    }
+
+    @Override
+    public int size() {
+        return _size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return 0 == _size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return null != find(key);
+    }
+
+    @Override
+    public V get(Object key) {
+        Leaf<K, V> leaf = find(key);
+        return null != leaf ? leaf.getValue() : null;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (null == _entry_set) {
+            _entry_set = new EntrySet();
+        }
+        return _entry_set;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        _order.forEach(leaf -> {
+            if (null != leaf) {
+                action.accept(leaf.getKey(), leaf.getValue());
+            }
+        });
+    }
+
+    /**
+     * Returns a map with the key mapped to the value, in place of the key if present, or at the end otherwise.
+     *
+     * @param key   the key.
+     * @param value the value.
+     * @return the new map.
+     */
+    public PersistentMap<K, V> with(K key, V value) {
+        int hash = hash(key);
+        Leaf<K, V> old = find(hash, key);
+        if (null != old) {
+            if (old.getValue() == value) {
+                return this;
+            }
+            Leaf<K, V> leaf = new Leaf<>(key, value, hash, old.index);
+            return new PersistentMap<>(_size, _root.put(0, leaf), _order.with(old.index, leaf));
+        }
+        Leaf<K, V> leaf = new Leaf<>(key, value, hash, _order.size());
+        return new PersistentMap<>(_size + 1, _root.put(0, leaf), _order.plus(leaf));
+    }
+
+    /**
+     * Returns a map without the key.
+     *
+     * @param key the key.
+     * @return the new map, or this map if the key is absent.
+     */
+    public PersistentMap<K, V> without(Object key) {
+        int hash = hash(key);
+        Leaf<K, V> old = find(hash, key);
+        if (null == old) {
+            return this;
+        } else if (1 == _size) {
+            return empty();
+        }
+        Node root = (Node) _root.remove(0, hash, key);
+        PersistentVector<Leaf<K, V>> order = old.index == _order.size() - 1 ? _order.pop() : _order.with(old.index, null);
+        int holes = order.size() - (_size - 1);
+        if (holes > MIN_HOLES && holes > _size - 1) {
+            // rebuilds without the holes
+            PersistentMap<K, V> map = empty();
+            for (Leaf<K, V> leaf : order) {
+                if (null != leaf) {
+                    map = map.with(leaf.getKey(), leaf.getValue());
+                }
+            }
+            return map;
+        }
+        return new PersistentMap<>(_size - 1, root, order);
+    }
+
+    private Leaf<K, V> find(Object key) {
+        return find(hash(key), key);
+    }
+
+    // the trie holds only the leaves of this map
+    @SuppressWarnings("unchecked")
+    private Leaf<K, V> find(int hash, Object key) {
+        return (Leaf<K, V>) _root.find(0, hash, key);
+    }
+
+    private static int hash(Object key) {
+        int h = null == key ? 0 : key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    /**
+     * Entry of the map, which could not be modified.
+     */
+    private static final class Leaf<K, V> extends SimpleImmutableEntry<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int hash;
+        // the index in the order
+        private final int index;
+
+        private Leaf(K key, V value, int hash, int index) {
+            super(key, value);
+            this.hash = hash;
+            this.index = index;
+        }
+
+    }
+
+    /**
+     * Node of the trie, of which the slots are leaves, nodes and collisions, present by the bits of the bitmap.
+     */
+    private static final class Node {
+
+        private static final Node EMPTY = new Node(0, new Object[0]);
+
+        private final int bitmap;
+        private final Object[] slots;
+
+        private Node(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        private Leaf<?, ?> find(int shift, int hash, Object key) {
+            Node node = this;
+            while (true) {
+                int bit = bit(hash, shift);
+                if (0 == (node.bitmap & bit)) {
+                    return null;
+                }
+                Object slot = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+                if (slot instanceof Leaf) {
+                    Leaf<?, ?> leaf = (Leaf<?, ?>) slot;
+                    return hash == leaf.hash && Objects.equals(key, leaf.getKey()) ? leaf : null;
+                } else if (slot instanceof Collision) {
+                    return ((Collision) slot).find(hash, key);
+                }
+                node = (Node) slot;
+                shift += BITS;
+            }
+        }
+
+        private Node put(int shift, Leaf<?, ?> leaf) {
+            int bit = bit(leaf.hash, shift);
+            int i = Integer.bitCount(bitmap & (bit - 1));
+            if (0 == (bitmap & bit)) {
+                Object[] slots = new Object[this.slots.length + 1];
+                System.arraycopy(this.slots, 0, slots, 0, i);
+                slots[i] = leaf;
+                System.arraycopy(this.slots, i, slots, i + 1, this.slots.length - i);
+                return new Node(bitmap | bit, slots);
+            }
+            Object slot = this.slots[i];
+            Object replacement;
+            if (slot instanceof Node) {
+                replacement = ((Node) slot).put(shift + BITS, leaf);
+            } else if (slot instanceof Collision && ((Collision) slot).hash == leaf.hash) {
+                replacement = ((Collision) slot).put(leaf);
+            } else if (slot instanceof Leaf && ((Leaf<?, ?>) slot).hash == leaf.hash) {
+                Leaf<?, ?> old = (Leaf<?, ?>) slot;
+                replacement = Objects.equals(old.getKey(), leaf.getKey()) ? leaf : new Collision(leaf.hash, new Leaf<?, ?>[]{old, leaf});
+            } else {
+                replacement = split(shift + BITS, slot, hashOf(slot), leaf, leaf.hash);
+            }
+            Object[] slots = this.slots.clone();
+            slots[i] = replacement;
+            return new Node(bitmap, slots);
+        }
+
+        // returns null if the node becomes empty, the remaining leaf if only it remains under a child node
+        private Object remove(int shift, int hash, Object key) {
+            int bit = bit(hash, shift);
+            if (0 == (bitmap & bit)) {
+                return this;
+            }
+            int i = Integer.bitCount(bitmap & (bit - 1));
+            Object slot = slots[i];
+            Object replacement;
+            if (slot instanceof Leaf) {
+                replacement = null;
+            } else if (slot instanceof Collision) {
+                replacement = ((Collision) slot).remove(key);
+            } else {
+                replacement = ((Node) slot).remove(shift + BITS, hash, key);
+            }
+            if (slot == replacement) {
+                return this;
+            } else if (null != replacement) {
+                if (1 == slots.length && !(replacement instanceof Node) && shift > 0) {
+                    // collapses into the parent
+                    return replacement;
+                }
+                Object[] slots = this.slots.clone();
+                slots[i] = replacement;
+                return new Node(bitmap, slots);
+            } else if (1 == slots.length) {
+                return 0 == shift ? EMPTY : null;
+            }
+            Object[] slots = new Object[this.slots.length - 1];
+            System.arraycopy(this.slots, 0, slots, 0, i);
+            System.arraycopy(this.slots, i + 1, slots, i, slots.length - i);
+            Node node = new Node(bitmap & ~bit, slots);
+            if (1 == slots.length && !(slots[0] instanceof Node) && shift > 0) {
+                return slots[0];
+            }
+            return node;
+        }
+
+        private static Node split(int shift, Object a, int hash_a, Object b, int hash_b) {
+            int bit_a = bit(hash_a, shift);
+            int bit_b = bit(hash_b, shift);
+            if (bit_a == bit_b) {
+                return new Node(bit_a, new Object[]{split(shift + BITS, a, hash_a, b, hash_b)});
+            }
+            return new Node(bit_a | bit_b, Integer.compareUnsigned(bit_a, bit_b) < 0 ? new Object[]{a, b} : new Object[]{b, a});
+        }
+
+        private static int hashOf(Object slot) {
+            return slot instanceof Leaf ? ((Leaf<?, ?>) slot).hash : ((Collision) slot).hash;
+        }
+
+    }
+
+    /**
+     * Leaves of keys with the same hash code.
+     */
+    private static final class Collision {
+
+        private final int hash;
+        private final Leaf<?, ?>[] leaves;
+
+        private Collision(int hash, Leaf<?, ?>[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+
+        private Leaf<?, ?> find(int hash, Object key) {
+            if (hash != this.hash) {
+                return null;
+            }
+            for (Leaf<?, ?> leaf : leaves) {
+                if (Objects.equals(key, leaf.getKey())) {
+                    return leaf;
+                }
+            }
+            return null;
+        }
+
+        private Collision put(Leaf<?, ?> leaf) {
+            for (int i = 0; i < leaves.length; i++) {
+                if (Objects.equals(leaf.getKey(), leaves[i].getKey())) {
+                    Leaf<?, ?>[] copy = leaves.clone();
+                    copy[i] = leaf;
+                    return new Collision(hash, copy);
+                }
+            }
+            Leaf<?, ?>[] copy = new Leaf<?, ?>[leaves.length + 1];
+            System.arraycopy(leaves, 0, copy, 0, leaves.length);
+            copy[leaves.length] = leaf;
+            return new Collision(hash, copy);
+        }
+
+        // returns the remaining leaf if only it remains
+        private Object remove(Object key) {
+            for (int i = 0; i < leaves.length; i++) {
+                if (Objects.equals(key, leaves[i].getKey())) {
+                    if (2 == leaves.length) {
+                        return leaves[1 - i];
+                    }
+                    Leaf<?, ?>[] copy = new Leaf<?, ?>[leaves.length - 1];
+                    System.arraycopy(leaves, 0, copy, 0, i);
+                    System.arraycopy(leaves, i + 1, copy, i, copy.length - i);
+                    return new Collision(hash, copy);
+                }
+            }
+            return this;
+        }
+
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        @Override
+        public int size() {
+            return _size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Leaf<K, V> leaf = find(((Map.Entry<?, ?>) o).getKey());
+            return null != leaf && Objects.equals(leaf.getValue(), ((Map.Entry<?, ?>) o).getValue());
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new Iterator<Map.Entry<K, V>>() {
+
+                private final Iterator<Leaf<K, V>> _leaves = _order.iterator();
+                private Leaf<K, V> _next = advance();
+
+                private Leaf<K, V> advance() {
+                    while (_leaves.hasNext()) {
+                        Leaf<K, V> leaf = _leaves.next();
+                        if (null != leaf) {
+                            return leaf;
+                        }
+                    }
+                    return null;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return null != _next;
+                }
+
+                @Override
+                public Map.Entry<K, V> next() {
+                    if (null == _next) {
+                        throw new NoSuchElementException();
+                    }
+                    Leaf<K, V> leaf = _next;
+                    _next = advance();
+                    return leaf;
+                }
+
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,337 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.jiruffe.jiraffe.util;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * Immutable {@link java.util.List} of which a modified version shares most of its structure with this one.
+ * The elements are stored in a tree of arrays of {@value #WIDTH}, with the last ones in a separate tail,
+ * so that getting, setting, appending and removing the last element copy only the arrays on the path, O(log n).
+ * Inserting or removing elsewhere rebuilds the list, O(n).
+ * Null elements are permitted. The methods of {@link java.util.List} modifying it throw {@link UnsupportedOperationException}.
+ *
+ * @param <E> the type of elements.
+ * @author Jiruffe
+ * 2026.10.18
+ */
+public final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final Object[] EMPTY_NODE = new Object[WIDTH];
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(0, BITS, EMPTY_NODE, new Object[0]);
+
+    private final int _size;
+    // the bits to shift the index by at the root
+    private final int _shift;
+    private final Object[] _root;
+    // the last elements, not in the tree yet
+    private final Object[] _tail;
+
+    private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+        _size = size;
+        _shift = shift;
+        _root = root;
+        _tail = tail;
+    }
+
+    /**
+     * Returns the empty list.
+     *
+     * @param <E> the type of elements.
+     * @return the empty list.
+     */
+    // the empty list holds no elements of any type
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    /**
+     * Returns a list of the elements given.
+     *
+     * @param elements the elements.
+     * @param <E>      the type of elements.
+     * @return the list.
+     */
+    // the persistent list could not be modified, so it is a list of the supertype as well
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> of(Collection<? extends E> elements) {
+        if (elements instanceof PersistentVector) {
+            return (PersistentVector<E>) elements;
+        }
+        PersistentVector<E> vector = empty();
+        for (E e : elements) {
+            vector = vector.plus(e);
+        }
+        return vector;
+    }
+
+    @Override
+    public int size() {
+        return _size;
+    }
+
+    @Override
+    public E get(int index) {
+        checkIndex(index, _size);
+        return elementAt(arrayFor(index), index);
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        for (int i = 0; i < _size; i += WIDTH) {
+            Object[] array = arrayFor(i);
+            for (int j = 0, n = Math.min(WIDTH, _size - i); j < n; j++) {
+                action.accept(elementAt(array, j));
+            }
+        }
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+
+            private int _index = 0;
+            private Object[] _array = null;
+
+            @Override
+            public boolean hasNext() {
+                return _index < _size;
+            }
+
+            @Override
+            public E next() {
+                if (_index >= _size) {
+                    throw new NoSuchElementException();
+                }
+                if (0 == (_index & MASK)) {
+                    _array = arrayFor(_index);
+                }
+                return elementAt(_array, _index++);
+            }
+
+        };
+    }
+
+    /**
+     * Returns a list with the element appended.
+     *
+     * @param e the element.
+     * @return the new list.
+     */
+    public PersistentVector<E> plus(E e) {
+        int in_tail = _size - tailOffset();
+        if (in_tail < WIDTH) {
+            Object[] tail = new Object[in_tail + 1];
+            System.arraycopy(_tail, 0, tail, 0, in_tail);
+            tail[in_tail] = e;
+            return new PersistentVector<>(_size + 1, _shift, _root, tail);
+        }
+        // the tail is full, and is pushed into the tree
+        Object[] root;
+        int shift = _shift;
+        if ((_size >>> BITS) > (1 << _shift)) {
+            // the tree is full
+            root = new Object[WIDTH];
+            root[0] = _root;
+            root[1] = newPath(_shift, _tail);
+            shift += BITS;
+        } else {
+            root = pushTail(_shift, _root, _tail);
+        }
+        return new PersistentVector<>(_size + 1, shift, root, new Object[]{e});
+    }
+
+    /**
+     * Returns a list with the element at the index replaced.
+     *
+     * @param index the index.
+     * @param e     the element.
+     * @return the new list.
+     */
+    public PersistentVector<E> with(int index, E e) {
+        checkIndex(index, _size);
+        if (index >= tailOffset()) {
+            Object[] tail = _tail.clone();
+            tail[index & MASK] = e;
+            return new PersistentVector<>(_size, _shift, _root, tail);
+        }
+        return new PersistentVector<>(_size, _shift, with(_shift, _root, index, e), _tail);
+    }
+
+    /**
+     * Returns a list with the element inserted at the index, which rebuilds the list unless it is appended.
+     *
+     * @param index the index.
+     * @param e     the element.
+     * @return the new list.
+     */
+    public PersistentVector<E> insert(int index, E e) {
+        checkIndex(index, _size + 1);
+        if (index == _size) {
+            return plus(e);
+        }
+        PersistentVector<E> vector = empty();
+        for (int i = 0; i < _size; i++) {
+            if (i == index) {
+                vector = vector.plus(e);
+            }
+            vector = vector.plus(get(i));
+        }
+        return vector;
+    }
+
+    /**
+     * Returns a list without the element at the index, which rebuilds the list unless it is the last one.
+     *
+     * @param index the index.
+     * @return the new list.
+     */
+    public PersistentVector<E> without(int index) {
+        checkIndex(index, _size);
+        if (index == _size - 1) {
+            return pop();
+        }
+        PersistentVector<E> vector = empty();
+        for (int i = 0; i < _size; i++) {
+            if (i != index) {
+                vector = vector.plus(get(i));
+            }
+        }
+        return vector;
+    }
+
+    /**
+     * Returns a list without the last element.
+     *
+     * @return the new list.
+     */
+    public PersistentVector<E> pop() {
+        if (0 == _size) {
+            throw new IllegalStateException("Could not pop from empty PersistentVector");
+        } else if (1 == _size) {
+            return empty();
+        }
+        int in_tail = _size - tailOffset();
+        if (in_tail > 1) {
+            Object[] tail = new Object[in_tail - 1];
+            System.arraycopy(_tail, 0, tail, 0, in_tail - 1);
+            return new PersistentVector<>(_size - 1, _shift, _root, tail);
+        }
+        // the tail is empty, and the last array of the tree becomes the tail
+        Object[] tail = arrayFor(_size - 2);
+        Object[] root = popTail(_shift, _root);
+        int shift = _shift;
+        if (null == root) {
+            root = EMPTY_NODE;
+        }
+        if (_shift > BITS && null == root[1]) {
+            root = (Object[]) root[0];
+            shift -= BITS;
+        }
+        return new PersistentVector<>(_size - 1, shift, root, tail);
+    }
+
+    private int tailOffset() {
+        return _size < WIDTH ? 0 : ((_size - 1) >>> BITS) << BITS;
+    }
+
+    // the arrays hold only the elements of this list
+    @SuppressWarnings("unchecked")
+    private static <E> E elementAt(Object[] array, int index) {
+        return (E) array[index & MASK];
+    }
+
+    private Object[] arrayFor(int index) {
+        if (index >= tailOffset()) {
+            return _tail;
+        }
+        Object[] node = _root;
+        for (int level = _shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    private static Object[] with(int level, Object[] node, int index, Object e) {
+        Object[] copy = node.clone();
+        if (0 == level) {
+            copy[index & MASK] = e;
+        } else {
+            int i = (index >>> level) & MASK;
+            copy[i] = with(level - BITS, (Object[]) node[i], index, e);
+        }
+        return copy;
+    }
+
+    private Object[] pushTail(int level, Object[] parent, Object[] tail) {
+        int i = ((_size - 1) >>> level) & MASK;
+        Object[] copy = parent.clone();
+        if (BITS == level) {
+            copy[i] = tail;
+        } else {
+            Object[] child = (Object[]) parent[i];
+            copy[i] = null != child ? pushTail(level - BITS, child, tail) : newPath(level - BITS, tail);
+        }
+        return copy;
+    }
+
+    private static Object[] newPath(int level, Object[] node) {
+        if (0 == level) {
+            return node;
+        }
+        Object[] path = new Object[WIDTH];
+        path[0] = newPath(level - BITS, node);
+        return path;
+    }
+
+    // returns null if the node becomes empty
+    private Object[] popTail(int level, Object[] node) {
+        int i = ((_size - 2) >>> level) & MASK;
+        if (level > BITS) {
+            Object[] child = popTail(level - BITS, (Object[]) node[i]);
+            if (null == child && 0 == i) {
+                return null;
+            }
+            Object[] copy = node.clone();
+            copy[i] = child;
+            return copy;
+        } else if (0 == i) {
+            return null;
+        } else {
+            Object[] copy = node.clone();
+            copy[i] = null;
+            return copy;
+        }
+    }
+
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+}
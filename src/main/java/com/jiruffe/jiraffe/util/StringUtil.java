@@ -36,12 +36,12 @@ public abstract class StringUtil {
 
     public static final String FALSE = "false";
 
-    public static boolean isRealNumber(String s) {
+    public static boolean isRealNumber(CharSequence s) {
 
-        if (s == null || "".equals(s))
+        if (s == null || 0 == s.length())
             return false;
 
-        int index = s.indexOf(".");
+        int index = indexOf(s, '.');
 
         if (index < 0) {
 
@@ -49,18 +49,21 @@ public abstract class StringUtil {
 
         } else {
 
-            String num1 = s.substring(0, index);
-            String num2 = s.substring(index + 1);
-
-            return isNumeric(num1) && isNumeric(num2);
+            return s.length() > 1 && isNumeric(s, 0, index) && isNumeric(s, index + 1, s.length());
 
         }
 
     }
 
-    public static boolean isNumeric(String s) {
+    public static boolean isNumeric(CharSequence s) {
 
-        for (int i = 0; i < s.length(); i++) {
+        return isNumeric(s, 0, s.length());
+
+    }
+
+    public static boolean isNumeric(CharSequence s, int start, int end) {
+
+        for (int i = start; i < end; i++) {
             char c = s.charAt(i);
             if ('0' > c || '9' < c) {
                 return false;
@@ -71,7 +74,7 @@ public abstract class StringUtil {
 
     }
 
-    public static boolean isBCPLStyleNumeric(String s) {
+    public static boolean isBCPLStyleNumeric(CharSequence s) {
 
         int len = s.length();
 
@@ -114,6 +117,56 @@ public abstract class StringUtil {
 
     }
 
+    public static int indexOf(CharSequence s, char c) {
+
+        for (int i = 0; i < s.length(); i++) {
+            if (c == s.charAt(i)) {
+                return i;
+            }
+        }
+
+        return -1;
+
+    }
+
+    public static boolean equals(CharSequence s1, CharSequence s2) {
+
+        if (s1 == s2) {
+            return true;
+        } else if (null == s1 || null == s2 || s1.length() != s2.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < s1.length(); i++) {
+            if (s1.charAt(i) != s2.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+
+    }
+
+    public static boolean equalsIgnoreCase(CharSequence s1, CharSequence s2) {
+
+        if (s1 == s2) {
+            return true;
+        } else if (null == s1 || null == s2 || s1.length() != s2.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < s1.length(); i++) {
+            char c1 = s1.charAt(i);
+            char c2 = s2.charAt(i);
+            if (c1 != c2 && Character.toUpperCase(c1) != Character.toUpperCase(c2) && Character.toLowerCase(c1) != Character.toLowerCase(c2)) {
+                return false;
+            }
+        }
+
+        return true;
+
+    }
+
     public static String escape(String s) {
 
         StringBuilder sb = new StringBuilder();
@@ -149,23 +202,32 @@ public abstract class StringUtil {
 
     }
 
-    public static String unescape(String s) {
+    public static String unescape(CharSequence s) {
 
-        StringBuilder sb = new StringBuilder();
+        int len = s.length();
+        int i = indexOf(s, '\\');
 
-        for (int i = 0; i < s.length(); i++) {
+        if (i < 0) {
+            // nothing to unescape
+            return s.toString();
+        }
+
+        StringBuilder sb = new StringBuilder(len);
+        sb.append(s, 0, i);
+
+        for (; i < len; i++) {
 
             char c = s.charAt(i);
 
-            if ('\\' == c) {
+            if ('\\' == c && i + 1 < len) {
 
                 c = s.charAt(++i);
 
                 if ('b' == c || 't' == c || 'n' == c || 'v' == c || 'f' == c || 'r' == c || '\\' == c || '/' == c || '"' == c || '\'' == c || (c >= '0' && c <= '7')) {
                     sb.append(CharacterUtil.UNESCAPE_CHARACTER[(int) c]);
-                } else if ('x' == c) {
+                } else if ('x' == c && i + 2 < len) {
                     sb.append((char) (((CharacterUtil.CHAR_TO_DIGIT[(int) s.charAt(++i)]) << 4) + CharacterUtil.CHAR_TO_DIGIT[(int) s.charAt(++i)]));
-                } else if ('u' == c) {
+                } else if ('u' == c && i + 4 < len) {
                     int d = 0;
                     for (int j = 0; j < 4; j++) {
                         d = (d << 4) + CharacterUtil.CHAR_TO_DIGIT[(int) s.charAt(++i)];
@@ -0,0 +1,95 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.jiruffe.jiraffe.util;
+
+/**
+ * Scanner tracking the nesting of maps and lists in JSON text character by character, without tokenizing it,
+ * so that the brackets and commas delimiting the elements could be found by a single pass.
+ * Quoted strings and the escaped characters in them are skipped the same way as {@link com.jiruffe.jiraffe.JSONReader} reads them,
+ * and quotes inside a literal do not start a string.
+ * The state is kept between steps, so the text could be scanned piece by piece as a buffer is refilled.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+public final class StructureScanner {
+
+    /**
+     * Returned by {@link #step(int)} for the characters other than the brackets and commas outside strings.
+     */
+    public static final int NONE = -1;
+
+    private int _depth;
+    // the quote of the string inside, 0 if none
+    private int _quote = 0;
+    private boolean _escaped = false;
+    private boolean _literal = false;
+
+    /**
+     * Constructs a scanner starting at the nesting depth.
+     *
+     * @param depth the count of maps and lists entered before the text scanned.
+     */
+    public StructureScanner(int depth) {
+        _depth = depth;
+    }
+
+    /**
+     * Steps over the next character.
+     *
+     * @param c the character, or the byte of UTF-8 text as unsigned.
+     * @return the depth after the character if it is a bracket or a comma outside strings, {@link #NONE} otherwise.
+     */
+    public int step(int c) {
+
+        if (0 != _quote) {
+            if (_escaped) {
+                _escaped = false;
+            } else if ('\\' == c) {
+                _escaped = true;
+            } else if (_quote == c) {
+                _quote = 0;
+            }
+            return NONE;
+        }
+
+        switch (CharacterUtil.typeOf((char) c)) {
+            case CharacterUtil.STRUCTURAL:
+                _literal = false;
+                if (CharacterUtil.isLeftBrackets((char) c)) {
+                    return ++_depth;
+                } else if (CharacterUtil.isRightBrackets((char) c)) {
+                    return --_depth;
+                } else if (CharacterUtil.isComma((char) c)) {
+                    return _depth;
+                }
+                return NONE;
+            case CharacterUtil.QUOTE:
+                if (!_literal) {
+                    _quote = c;
+                }
+                return NONE;
+            case CharacterUtil.SPACE:
+                return NONE;
+            default:
+                _literal = true;
+                return NONE;
+        }
+
+    }
+
+}
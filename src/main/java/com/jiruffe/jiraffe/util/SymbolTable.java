@@ -0,0 +1,173 @@
+/*
+ *    Copyright 2018 Jiruffe
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.jiruffe.jiraffe.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Bounded table sharing {@link String} instances of short texts which repeat, such as the keys of maps.
+ * Texts are looked up by their raw range of {@code char[]} or {@code byte[]}, so no {@link String} is created on a hit.
+ * The table is direct-mapped: each hash has a single slot, and a miss replaces the symbol in it,
+ * so the memory used is fixed however many distinct texts are looked up.
+ * It is safe to share between threads without locking, as a slot holds an immutable {@link String}
+ * and a stale read is nothing but a miss.
+ *
+ * @author Jiruffe
+ * 2026.10.18
+ */
+public final class SymbolTable {
+
+    /**
+     * Table of the names of maps.
+     */
+    public static final SymbolTable NAMES = new SymbolTable(4096, 64);
+
+    /**
+     * Table of short string values.
+     */
+    public static final SymbolTable VALUES = new SymbolTable(4096, 16);
+
+    private final String[] _symbols;
+    private final int _mask;
+    private final int _max_length;
+
+    /**
+     * Constructs a symbol table.
+     *
+     * @param capacity   the number of slots, rounded up to a power of 2.
+     * @param max_length the maximum length of the texts shared, longer ones are always copied.
+     */
+    public SymbolTable(int capacity, int max_length) {
+        int n = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        _symbols = new String[n];
+        _mask = n - 1;
+        _max_length = max_length;
+    }
+
+    /**
+     * Get the {@link String} of a range of {@code char[]}, shared with the previous lookups of equal texts if possible.
+     *
+     * @param array  the {@code char[]}.
+     * @param offset the start of the range.
+     * @param length the length of the range.
+     * @return the {@link String}.
+     */
+    public String lookup(char[] array, int offset, int length) {
+
+        if (length > _max_length) {
+            return new String(array, offset, length);
+        }
+
+        int h = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            h = 31 * h + array[i];
+        }
+        int slot = (h ^ (h >>> 16)) & _mask;
+
+        String symbol = _symbols[slot];
+        if (null != symbol && symbol.length() == length) {
+            int i = 0;
+            while (i < length && symbol.charAt(i) == array[offset + i]) {
+                i++;
+            }
+            if (i == length) {
+                return symbol;
+            }
+        }
+
+        symbol = new String(array, offset, length);
+        _symbols[slot] = symbol;
+        return symbol;
+
+    }
+
+    /**
+     * Get the {@link String} of a range of {@link CharSequence}, shared with the previous lookups of equal texts if possible.
+     *
+     * @param sequence the {@link CharSequence}.
+     * @param offset   the start of the range.
+     * @param length   the length of the range.
+     * @return the {@link String}.
+     */
+    public String lookup(CharSequence sequence, int offset, int length) {
+
+        if (length > _max_length) {
+            return sequence.subSequence(offset, offset + length).toString();
+        }
+
+        int h = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            h = 31 * h + sequence.charAt(i);
+        }
+        int slot = (h ^ (h >>> 16)) & _mask;
+
+        String symbol = _symbols[slot];
+        if (null != symbol && symbol.length() == length) {
+            int i = 0;
+            while (i < length && symbol.charAt(i) == sequence.charAt(offset + i)) {
+                i++;
+            }
+            if (i == length) {
+                return symbol;
+            }
+        }
+
+        symbol = sequence.subSequence(offset, offset + length).toString();
+        _symbols[slot] = symbol;
+        return symbol;
+
+    }
+
+    /**
+     * Get the {@link String} of a range of ASCII {@code byte[]}, shared with the previous lookups of equal texts if possible.
+     * Each byte is read as a Latin-1 char, so multi-byte encoded text must be decoded instead.
+     *
+     * @param array  the {@code byte[]}.
+     * @param offset the start of the range.
+     * @param length the length of the range.
+     * @return the {@link String}.
+     */
+    public String lookup(byte[] array, int offset, int length) {
+
+        if (length > _max_length) {
+            return new String(array, offset, length, StandardCharsets.ISO_8859_1);
+        }
+
+        int h = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            h = 31 * h + (array[i] & 0xff);
+        }
+        int slot = (h ^ (h >>> 16)) & _mask;
+
+        String symbol = _symbols[slot];
+        if (null != symbol && symbol.length() == length) {
+            int i = 0;
+            while (i < length && symbol.charAt(i) == (array[offset + i] & 0xff)) {
+                i++;
+            }
+            if (i == length) {
+                return symbol;
+            }
+        }
+
+        symbol = new String(array, offset, length, StandardCharsets.ISO_8859_1);
+        _symbols[slot] = symbol;
+        return symbol;
+
+    }
+
+}
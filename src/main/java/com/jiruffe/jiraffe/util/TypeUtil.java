@@ -61,6 +61,16 @@ public abstract class TypeUtil {
         return o instanceof Number;
     }
 
+    public static boolean isNumber(Class t) {
+        return Number.class.isAssignableFrom(t) ||
+                Byte.TYPE == t ||
+                Short.TYPE == t ||
+                Integer.TYPE == t ||
+                Long.TYPE == t ||
+                Float.TYPE == t ||
+                Double.TYPE == t;
+    }
+
     public static boolean couldCastToByte(Object o) {
 
         if (o instanceof Byte) {
@@ -161,18 +171,18 @@ public abstract class TypeUtil {
             return (long) ((int) o >= '0' && (int) o <= '9' ? (int) o - '0' : (int) o);
         } else if (o instanceof Number) {
             return ((Number) o).longValue();
-        } else if (o instanceof String) {
-            String s = (String) o;
+        } else if (o instanceof CharSequence) {
+            CharSequence s = (CharSequence) o;
             if (StringUtil.isBCPLStyleNumeric(s)) {
-                if (s.startsWith("0x")) {
-                    return Long.parseLong(s.substring(2), 16);
-                } else if (s.startsWith("0b")) {
-                    return Long.parseLong(s.substring(2), 2);
+                if ('x' == s.charAt(1)) {
+                    return Long.parseLong(s.subSequence(2, s.length()).toString(), 16);
+                } else if ('b' == s.charAt(1)) {
+                    return Long.parseLong(s.subSequence(2, s.length()).toString(), 2);
                 } else {
-                    return Long.parseLong(s.substring(1), 8);
+                    return Long.parseLong(s.subSequence(1, s.length()).toString(), 8);
                 }
             } else if (StringUtil.isNumeric(s)) {
-                return Long.parseLong(s, 10);
+                return parseDecimal(s);
             } else {
                 return 0L;
             }
@@ -224,10 +234,10 @@ public abstract class TypeUtil {
             return (double) ((int) o >= '0' && (int) o <= '9' ? (int) o - '0' : (int) o);
         } else if (o instanceof Number) {
             return ((Number) o).doubleValue();
-        } else if (o instanceof String) {
-            String s = (String) o;
+        } else if (o instanceof CharSequence) {
+            CharSequence s = (CharSequence) o;
             if (StringUtil.isRealNumber(s)) {
-                return Double.parseDouble(s);
+                return Double.parseDouble(s.toString());
             } else {
                 return 0d;
             }
@@ -241,7 +251,7 @@ public abstract class TypeUtil {
 
         return isPrimitive(o)
                 || isNumber(o)
-                || (o instanceof String && (StringUtil.isNumeric((String) o) || StringUtil.isBCPLStyleNumeric((String) o)));
+                || (o instanceof CharSequence && (StringUtil.isNumeric((CharSequence) o) || StringUtil.isBCPLStyleNumeric((CharSequence) o)));
 
     }
 
@@ -269,18 +279,18 @@ public abstract class TypeUtil {
             return BigInteger.valueOf((int) o >= '0' && (int) o <= '9' ? (int) o - '0' : (int) o);
         } else if (o instanceof Number) {
             return BigInteger.valueOf(((Number) o).longValue());
-        } else if (o instanceof String) {
-            String s = (String) o;
+        } else if (o instanceof CharSequence) {
+            CharSequence s = (CharSequence) o;
             if (StringUtil.isBCPLStyleNumeric(s)) {
-                if (s.startsWith("0x")) {
-                    return new BigInteger(s.substring(2), 16);
-                } else if (s.startsWith("0b")) {
-                    return new BigInteger(s.substring(2), 2);
+                if ('x' == s.charAt(1)) {
+                    return new BigInteger(s.subSequence(2, s.length()).toString(), 16);
+                } else if ('b' == s.charAt(1)) {
+                    return new BigInteger(s.subSequence(2, s.length()).toString(), 2);
                 } else {
-                    return new BigInteger(s.substring(1), 8);
+                    return new BigInteger(s.subSequence(1, s.length()).toString(), 8);
                 }
             } else if (StringUtil.isNumeric(s)) {
-                return new BigInteger(s, 10);
+                return new BigInteger(s.toString(), 10);
             } else {
                 return BigInteger.ZERO;
             }
@@ -294,7 +304,7 @@ public abstract class TypeUtil {
 
         return isPrimitive(o)
                 || isNumber(o)
-                || (o instanceof String && StringUtil.isRealNumber((String) o));
+                || (o instanceof CharSequence && StringUtil.isRealNumber((CharSequence) o));
 
     }
 
@@ -322,10 +332,10 @@ public abstract class TypeUtil {
             return BigDecimal.valueOf((int) o >= '0' && (int) o <= '9' ? (int) o - '0' : (int) o);
         } else if (o instanceof Number) {
             return BigDecimal.valueOf(((Number) o).doubleValue());
-        } else if (o instanceof String) {
-            String s = (String) o;
+        } else if (o instanceof CharSequence) {
+            CharSequence s = (CharSequence) o;
             if (StringUtil.isRealNumber(s)) {
-                return new BigDecimal(s);
+                return new BigDecimal(s.toString());
             } else {
                 return BigDecimal.ZERO;
             }
@@ -338,7 +348,7 @@ public abstract class TypeUtil {
     public static boolean couldCastToBoolean(Object o) {
         return isPrimitive(o)
                 || isNumber(o)
-                || (o instanceof String && (StringUtil.isNumeric((String) o) || "true".equalsIgnoreCase((String) o) || "false".equalsIgnoreCase((String) o)));
+                || (o instanceof CharSequence && (StringUtil.isNumeric((CharSequence) o) || StringUtil.equalsIgnoreCase(StringUtil.TRUE, (CharSequence) o) || StringUtil.equalsIgnoreCase(StringUtil.FALSE, (CharSequence) o)));
     }
 
     public static boolean castToBoolean(Object o) {
@@ -365,12 +375,12 @@ public abstract class TypeUtil {
             return ((int) o) != 0 && ((int) o) != '0';
         } else if (o instanceof Number) {
             return ((Number) o).intValue() != 0;
-        } else if (o instanceof String) {
-            String s = (String) o;
+        } else if (o instanceof CharSequence) {
+            CharSequence s = (CharSequence) o;
             if (StringUtil.isNumeric(s)) {
-                return Long.parseLong(s, 10) != 0;
+                return parseDecimal(s) != 0;
             } else {
-                return "true".equalsIgnoreCase(s);
+                return StringUtil.equalsIgnoreCase(StringUtil.TRUE, s);
             }
         } else {
             return false;
@@ -381,7 +391,7 @@ public abstract class TypeUtil {
     public static boolean couldCastToCharacter(Object o) {
         return isPrimitive(o)
                 || isNumber(o)
-                || (o instanceof String && ((String) o).length() > 0);
+                || (o instanceof CharSequence && ((CharSequence) o).length() > 0);
     }
 
     public static char castToCharacter(Object o) {
@@ -408,8 +418,8 @@ public abstract class TypeUtil {
             return (char) o;
         } else if (o instanceof Number) {
             return (char) ((Number) o).intValue();
-        } else if (o instanceof String) {
-            String s = (String) o;
+        } else if (o instanceof CharSequence) {
+            CharSequence s = (CharSequence) o;
             if (s.length() > 0) {
                 return s.charAt(0);
             } else {
@@ -424,7 +434,7 @@ public abstract class TypeUtil {
     public static boolean couldCastToNumber(Object o) {
         return isPrimitive(o)
                 || isNumber(o)
-                || (o instanceof String && (StringUtil.isRealNumber((String) o) || StringUtil.isBCPLStyleNumeric((String) o)));
+                || (o instanceof CharSequence && new NumberScanner().scan((CharSequence) o));
     }
 
     public static Number castToNumber(Object o) {
@@ -439,25 +449,9 @@ public abstract class TypeUtil {
             return ((Boolean) o) ? 1 : 0;
         } else if (o instanceof Character) {
             return (int) o >= '0' && (int) o <= '9' ? (int) o - '0' : (int) o;
-        } else if (o instanceof String) {
-            String s = (String) o;
-            if (StringUtil.isRealNumber(s) || StringUtil.isBCPLStyleNumeric(s)) {
-                if (s.length() > 16) {
-                    if (StringUtil.isNumeric(s) || StringUtil.isBCPLStyleNumeric(s)) {
-                        return castToBigInteger(s);
-                    } else {
-                        return castToBigDecimal(s);
-                    }
-                } else {
-                    if (StringUtil.isNumeric(s) || StringUtil.isBCPLStyleNumeric(s)) {
-                        return castToLong(s);
-                    } else {
-                        return castToDouble(s);
-                    }
-                }
-            } else {
-                return 0;
-            }
+        } else if (o instanceof CharSequence) {
+            Number n = NumberScanner.parse((CharSequence) o);
+            return null == n ? 0 : n;
         } else {
             return 0;
         }
@@ -472,36 +466,83 @@ public abstract class TypeUtil {
         return StringUtil.toString(o);
     }
 
-    public static <T> T castFromString(String s, Class<?> target) {
+    public static <T> T castFromString(CharSequence s, Class<?> target) {
+
+        try {
+            if (Byte.class.isAssignableFrom(target) || Byte.TYPE == target) {
+                return (T) (Byte) castToByte(s);
+            } else if (Short.class.isAssignableFrom(target) || Short.TYPE == target) {
+                return (T) (Short) castToShort(s);
+            } else if (Integer.class.isAssignableFrom(target) || Integer.TYPE == target) {
+                return (T) (Integer) castToInteger(s);
+            } else if (Long.class.isAssignableFrom(target) || Long.TYPE == target) {
+                return (T) (Long) castToLong(s);
+            } else if (Float.class.isAssignableFrom(target) || Float.TYPE == target) {
+                return (T) (Float) castToFloat(s);
+            } else if (Double.class.isAssignableFrom(target) || Double.TYPE == target) {
+                return (T) (Double) castToDouble(s);
+            } else if (Boolean.class.isAssignableFrom(target) || Boolean.TYPE == target) {
+                return (T) (Boolean) castToBoolean(s);
+            } else if (Character.class.isAssignableFrom(target) || Character.TYPE == target) {
+                return (T) (Character) castToCharacter(s);
+            } else if (BigInteger.class.isAssignableFrom(target)) {
+                return (T) castToBigInteger(s);
+            } else if (BigDecimal.class.isAssignableFrom(target)) {
+                return (T) castToBigDecimal(s);
+            } else if (Number.class.isAssignableFrom(target)) {
+                return (T) castToNumber(s);
+            } else if (String.class.isAssignableFrom(target)) {
+                return (T) StringUtil.unescape(s);
+            }
+        } catch (ClassCastException ignored) {
+            // reported below as the text read, rather than as the view of the buffer holding it
+        }
+        throw new ClassCastException("Could not cast java.lang.String \"" + s + "\" to " + target.getCanonicalName());
+
+    }
+
+    public static <T> T castFromNumber(Number n, Class<?> target) {
 
-        if (Byte.class.isAssignableFrom(target) || Byte.TYPE == target) {
-            return (T) (Byte) castToByte(s);
+        if (target.isInstance(n)) {
+            return (T) n;
+        } else if (Byte.class.isAssignableFrom(target) || Byte.TYPE == target) {
+            return (T) (Byte) castToByte(n);
         } else if (Short.class.isAssignableFrom(target) || Short.TYPE == target) {
-            return (T) (Short) castToShort(s);
+            return (T) (Short) castToShort(n);
         } else if (Integer.class.isAssignableFrom(target) || Integer.TYPE == target) {
-            return (T) (Integer) castToInteger(s);
+            return (T) (Integer) castToInteger(n);
         } else if (Long.class.isAssignableFrom(target) || Long.TYPE == target) {
-            return (T) (Long) castToLong(s);
+            return (T) (Long) castToLong(n);
         } else if (Float.class.isAssignableFrom(target) || Float.TYPE == target) {
-            return (T) (Float) castToFloat(s);
+            return (T) (Float) castToFloat(n);
         } else if (Double.class.isAssignableFrom(target) || Double.TYPE == target) {
-            return (T) (Double) castToDouble(s);
-        } else if (Boolean.class.isAssignableFrom(target) || Boolean.TYPE == target) {
-            return (T) (Boolean) castToBoolean(s);
-        } else if (Character.class.isAssignableFrom(target) || Character.TYPE == target) {
-            return (T) (Character) castToCharacter(s);
+            return (T) (Double) castToDouble(n);
         } else if (BigInteger.class.isAssignableFrom(target)) {
-            return (T) castToBigInteger(s);
+            return n instanceof BigDecimal ? (T) ((BigDecimal) n).toBigInteger() : (T) castToBigInteger(n);
         } else if (BigDecimal.class.isAssignableFrom(target)) {
-            return (T) castToBigDecimal(s);
-        } else if (Number.class.isAssignableFrom(target)) {
-            return (T) castToNumber(s);
-        } else if (String.class.isAssignableFrom(target)) {
-            return (T) StringUtil.unescape(s);
+            return n instanceof BigInteger ? (T) new BigDecimal((BigInteger) n) : (T) castToBigDecimal(n);
         } else {
-            throw new ClassCastException("Could not cast java.lang.String to " + target.getCanonicalName());
+            throw new ClassCastException("Could not cast " + ObjectUtil.getCanonicalName(n) + " to " + target.getCanonicalName());
         }
 
     }
 
+    private static long parseDecimal(CharSequence s) {
+
+        int len = s.length();
+
+        if (0 == len || len > 18) {
+            // could overflow
+            return Long.parseLong(s.toString(), 10);
+        }
+
+        long d = 0;
+        for (int i = 0; i < len; i++) {
+            d = d * 10 + (s.charAt(i) - '0');
+        }
+
+        return d;
+
+    }
+
 }
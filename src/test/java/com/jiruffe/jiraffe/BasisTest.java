@@ -2,9 +2,12 @@ package com.jiruffe.jiraffe;
 
 import com.jiruffe.jiraffe.model.JSONElement;
 import com.jiruffe.jiraffe.model.JSONElementType;
+import com.jiruffe.jiraffe.util.CompactMap;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -98,4 +101,179 @@ public class BasisTest {
         assert JSONElement.newList().offer(JSONElement.theVoid()).containsValue(JSONElement.theVoid());
     }
 
+    @Test
+    public void testPrimitiveVariants() {
+        JSONElement l = JSONElement.newPrimitive(-3L);
+        assert -3L == l.asLong() && -3 == l.asInt() && -3d == l.asDouble() && l.asBoolean();
+        assert Long.valueOf(-3L).equals(l.asValue()) && "-3".equals(l.asString());
+        JSONElement d = JSONElement.newPrimitive(2.75);
+        assert 2 == d.asInt() && 2.75 == d.asDouble() && "2.75".equals(d.asString());
+        assert JSONElement.newPrimitive(true) == JSONElement.newPrimitive(Boolean.TRUE);
+        assert 1 == JSONElement.newPrimitive(true).asInt() && !JSONElement.newPrimitive(false).asBoolean();
+        assert JSONElement.newPrimitive("12").equals(JSONElement.newView(new StringBuilder("12")));
+        assert 12 == JSONElement.newPrimitive("12").asInt();
+        assert l.equals(JSONElement.newPrimitive(-3L)) && l.hashCode() == Long.valueOf(-3L).hashCode();
+        assert !l.equals(JSONElement.newPrimitive(-3));
+    }
+
+    @Test
+    public void testLargeMap() {
+        JSONElement m = JSONElement.newMap();
+        for (int i = 0; i < 20; i++) {
+            m.offer("k" + i, i);
+        }
+        m.offer("k3", -3);
+        assert 20 == m.size();
+        assert -3 == m.peek("k3").asInt() && 19 == m.peek("k19").asInt();
+        assert 5 == m.poll("k5").asInt();
+        assert m.peek("k5").isVoid() && 6 == m.peek("k6").asInt();
+        List<Object> keys = new ArrayList<>(m.keys());
+        assert "k0".equals(keys.get(0)) && "k3".equals(keys.get(3)) && "k6".equals(keys.get(5)) && 19 == keys.size();
+    }
+
+    @Test
+    public void testShapes() {
+        // maps of the same keys share their shapes
+        Map<Object, Object> m = new CompactMap<>();
+        m.put("s0", 0);
+        m.put("s1", 1);
+        int shapes = CompactMap.shapes();
+        for (int i = 0; i < 1000; i++) {
+            m = new CompactMap<>();
+            m.put("s0", i);
+            m.put("s1", i);
+        }
+        assert shapes == CompactMap.shapes();
+        // maps keyed by ids leave the shapes, while the maps of the same keys still share them
+        for (int i = 0; i < 10000; i++) {
+            m = new CompactMap<>();
+            m.put("id", i);
+            m.put("k" + i, i);
+            m.put("name", "n" + i);
+            assert 3 == m.size() && i == (Integer) m.get("k" + i) && ("n" + i).equals(m.get("name"));
+            assert Arrays.asList("id", "k" + i, "name").equals(new ArrayList<>(m.keySet()));
+        }
+        m.remove("id");
+        assert 2 == m.size() && null == m.get("id") && "n9999".equals(m.get("name"));
+        for (int i = 0; i < 100; i++) {
+            m = new CompactMap<>();
+            for (int j = 0; j < 12; j++) {
+                m.put("f" + j, i + j);
+            }
+            assert 12 == m.size() && i + 11 == (Integer) m.get("f11") && null == m.get("k0");
+        }
+        // the shapes of many distinct layouts are bounded, beyond which maps hold keys of their own
+        for (int i = 0; i < 1 << 16; i++) {
+            m = new CompactMap<>();
+            for (int j = 0; j < 4; j++) {
+                m.put("v" + j + "_" + ((i >>> (j << 2)) & 15), j);
+            }
+            assert 4 == m.size() && 3 == (Integer) m.get("v3_" + (i >>> 12));
+        }
+        assert CompactMap.shapes() <= 1 << 14;
+    }
+
+    @Test
+    public void testForEach() {
+        JSONElement m = JSONElement.newMap().offer("a", 1).offer("b", JSONElement.newList().offer("x").offer("y"));
+        StringBuilder sb = new StringBuilder();
+        m.forEachEntry((k, v) -> sb.append(k).append('=').append(v).append(';'));
+        assert "a=1;b=[\"x\",\"y\"];".equals(sb.toString());
+        StringBuilder sb1 = new StringBuilder();
+        m.peek("b").forEachIndexed((v, i) -> sb1.append(i).append(v.asString()));
+        assert "0x1y".equals(sb1.toString());
+        JSONElement.newPrimitive(2).forEachEntry((k, v) -> {
+            assert null == k && 2 == v.asInt();
+        });
+        JSONElement l = JSONElement.newList().offer(1);
+        Collection<Object> keys = l.keys();
+        assert keys.contains(0) && !keys.contains(1);
+        l.offer(2);
+        assert keys.contains(1) && 2 == keys.size();
+    }
+
+    @Test
+    public void testFreeze() {
+        JSONElement m = JSON.deserialize("{'a':1,'b':[1,2,3],'c':[{'d':'x'},true]}");
+        JSONElement f = m.freeze();
+        assert f.isFrozen() && !m.isFrozen();
+        assert f.equals(m) && m.equals(f) && f.hashCode() == m.hashCode();
+        assert f == f.freeze();
+        assert f.peek("b").isFrozen() && f.peek("c").peek(0).isFrozen();
+        assert !f.equals(JSON.deserialize("{'a':1,'b':[1,2,4],'c':[{'d':'x'},true]}").freeze());
+        for (Runnable r : new Runnable[]{() -> f.offer("e", 1), () -> f.poll("a"), () -> f.peek("b").offer(4), () -> f.peek("c").peek(0).offer("d", "y")}) {
+            try {
+                r.run();
+                assert false;
+            } catch (UnsupportedOperationException ignored) {
+            }
+        }
+        m.offer("e", 1);
+        m.peek("b").offer(4);
+        assert 4 == m.size() && 3 == f.size() && 3 == f.peek("b").size();
+    }
+
+    @Test
+    public void testPersistent() {
+        JSONElement m = JSON.deserialize("{'a':1,'b':[1,2,3],'c':{'d':'x'}}");
+        JSONElement base = m.persist();
+        assert base.isPersistent() && base.isFrozen() && base.equals(m) && base.hashCode() == m.hashCode();
+        assert m.toString().equals(base.toString());
+        JSONElement v1 = base.offer("c", base.peek("c").offer("e", true));
+        JSONElement v2 = v1.poll("a").offer("b", v1.peek("b").offer(4).poll(0));
+        assert 1 == base.peek("c").size() && 3 == base.size();
+        assert v1.peek("b") == base.peek("b") && v1.peek("c").peek("e").asBoolean();
+        assert "{\"b\":[2,3,4],\"c\":{\"d\":\"x\",\"e\":true}}".equals(v2.toString());
+        assert v1.isFrozen() && !v1.offer("f", JSONElement.newMap()).isFrozen();
+        JSONElement l = JSONElement.newPersistentList();
+        for (int i = 0; i < 1000; i++) {
+            l = l.offer((long) i);
+        }
+        assert 1000 == l.size() && 999 == l.peek(999).asInt() && 0 == JSONElement.newPersistentList().size();
+        assert l.equals(JSONElement.newNumberArray(l.asLongArray())) && l.poll(500).peek(500).asInt() == 501;
+    }
+
+    @Test
+    public void testConcurrent() throws InterruptedException {
+        JSONElement m = JSONElement.newConcurrentMap();
+        JSONElement l = JSONElement.newConcurrentList();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int base = t * 1000;
+            threads[t] = new Thread(() -> {
+                for (int i = base; i < base + 1000; i++) {
+                    m.offer("k" + i, i);
+                    l.offer(i);
+                    if (0 == i % 100) {
+                        assert l.size() > 0 && null != l.asString();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assert 4000 == m.size() && 4000 == l.size();
+        assert m.peek(null).isVoid() && m.poll(null).isVoid() && !m.containsKey(null);
+        try {
+            m.offer(null, 1);
+            assert false;
+        } catch (IllegalArgumentException ignored) {
+        }
+        // other maps keep null keys
+        JSONElement n = JSONElement.newMap().offer(null, 1);
+        assert 1 == n.peek(null).asInt() && 1 == n.poll(null).asInt() && n.isEmpty();
+        assert 1234 == m.peek("k1234").asInt();
+        int[] last = new int[4];
+        Arrays.fill(last, -1);
+        l.forEachIndexed((v, i) -> {
+            // the sub-elements offered by one thread are in order
+            assert v.asInt() > last[v.asInt() / 1000];
+            last[v.asInt() / 1000] = v.asInt();
+        });
+        assert l.merge(JSONElement.newList().offer(-1)).peek(4000).asInt() == -1;
+        assert 4000 == JSON.deserialize(m.toString()).size();
+    }
+
 }
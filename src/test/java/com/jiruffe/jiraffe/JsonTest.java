@@ -2,13 +2,17 @@ package com.jiruffe.jiraffe;
 
 import com.jiruffe.jiraffe.model.DModel;
 import com.jiruffe.jiraffe.model.EModel;
+import com.jiruffe.jiraffe.model.JSONArena;
 import com.jiruffe.jiraffe.model.JSONElement;
 import com.jiruffe.jiraffe.util.StringUtil;
 import org.junit.Test;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * @author Jiruffe
@@ -261,4 +265,344 @@ public class JsonTest {
 
     }
 
+    @Test
+    public void testNumbers() {
+
+        JSONElement element = JSON.deserialize("[-1,1.5e3,-2.5E-3,9223372036854775807,12345678901234567890,0.12345678901234567890,0x1F,017,-x]");
+
+        assert Long.valueOf(-1).equals(element.peek(0).asNumber());
+        assert Double.valueOf(1500).equals(element.peek(1).asNumber());
+        assert Double.valueOf(-0.0025).equals(element.peek(2).asNumber());
+        assert Long.valueOf(Long.MAX_VALUE).equals(element.peek(3).asNumber());
+        assert new BigInteger("12345678901234567890").equals(element.peek(4).asNumber());
+        assert new BigDecimal("0.12345678901234567890").equals(element.peek(5).asNumber());
+        assert Long.valueOf(31).equals(element.peek(6).asNumber());
+        assert Long.valueOf(15).equals(element.peek(7).asNumber());
+        assert "-x".equals(element.peek(8).asString());
+        assert element.equals(JSON.deserializeLazily(element.toString()));
+
+        // beyond the range of double
+        JSONElement out = JSON.deserialize("[1e400,1.7976931348623157e309,-1e400,1e-400,2.5]");
+        assert new BigDecimal("1e400").equals(out.peek(0).asNumber());
+        assert new BigDecimal("1.7976931348623157e309").equals(out.peek(1).asNumber());
+        assert new BigDecimal("-1e400").equals(out.peek(2).asNumber());
+        assert new BigDecimal("1e-400").equals(out.peek(3).asNumber());
+        assert out.equals(JSON.deserialize(out.toString()));
+        assert !out.toString().contains("Infinity");
+        assert !JSON.deserializeToTape("[1e400]").toString().contains("Infinity");
+        assert Double.valueOf(0).equals(JSON.deserialize("[0e400]").peek(0).asNumber());
+
+        DModel d = JSON.parse("{'a':-12,'c':[1,-2,3e2]}", DModel.class);
+        assert -12 == d.a;
+        assert Arrays.equals(new int[]{1, -2, 300}, d.c);
+
+        try {
+            JSON.parse("{\"a\":\"zz\"}", DModel.class);
+            assert false;
+        } catch (ClassCastException e) {
+            // the text read is reported, not the reader's view of it
+            assert "Could not cast java.lang.String \"zz\" to int".equals(e.getMessage());
+        }
+
+    }
+
+    @Test
+    public void testInPlace() throws InterruptedException {
+
+        String s = "{'a':'abc','b':'x\\ty','c':['','d',1]}";
+        JSONElement element = JSON.deserializeInPlace(s.toCharArray());
+
+        CharSequence a = element.peek("a").asCharSequence();
+        assert !(a instanceof String);
+        assert "abc".contentEquals(a);
+        assert "x\ty".equals(element.peek("b").asCharSequence().toString());
+        assert element.peek("c").peek(0).isEmpty();
+        assert "abc".equals(element.peek("a").asString());
+        assert element.equals(JSON.deserialize(s));
+        assert element.toString().equals(JSON.deserialize(s).toString());
+
+        CharSequence d = JSON.deserializeLazily(s.toCharArray()).peek("c").peek(1).asCharSequence();
+        assert !(d instanceof String);
+        assert "d".contentEquals(d);
+        assert "d".equals(JSON.deserializeLazily(s).peek("c").peek(1).asCharSequence());
+        assert JSON.deserializeLazily(s.toCharArray()).equals(JSONElement.newLazy(new StringBuilder(s)));
+
+        // materialized once while read from several threads
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) {
+            sb.append(0 == i ? "" : ",").append("{'a':").append(i).append(",'b':[").append(i).append(",'x']}");
+        }
+        JSONElement lazy = JSON.deserializeLazily(sb.append("]").toString());
+        boolean[] read = new boolean[4];
+        Thread[] threads = new Thread[read.length];
+        for (int t = 0; t < threads.length; t++) {
+            int n = t;
+            threads[t] = new Thread(() -> {
+                boolean ok = 1000 == lazy.size();
+                for (int i = 0; i < 1000; i++) {
+                    ok &= i == lazy.peek(i).peek("a").asInt() && 2 == lazy.peek(i).peek("b").size();
+                }
+                read[n] = ok;
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assert read[0] && read[1] && read[2] && read[3];
+
+    }
+
+    @Test
+    public void testArena() {
+
+        String s1 = "{'a':1,'b':['x',true,null],'c':{'d':2.5}}";
+        String s2 = "[{'e':'y'},[],{}]";
+        JSONArena arena = new JSONArena();
+
+        JSONElement a = JSON.deserialize(s1, arena);
+        assert a.equals(JSON.deserialize(s1));
+        assert a.toString().equals(JSON.deserialize(s1).toString());
+
+        arena.reset();
+        assert a.isEmpty();
+        JSONElement b = JSON.deserialize(s1, arena);
+        assert a == b;
+        assert b.equals(JSON.deserialize(s1));
+
+        arena.reset();
+        JSONElement c = JSON.deserialize(s2, arena);
+        assert c.equals(JSON.deserialize(s2));
+        assert c.peek(0).peek("e").asString().equals("y");
+
+        // the primitives of an arena are not frozen, as their values are replaced on reset
+        JSONElement y = c.peek(0).peek("e");
+        JSONElement frozen = y.freeze();
+        JSONElement persistent = JSONElement.newPersistentMap().offer("e", y).persist();
+        assert !y.isFrozen() && frozen.isFrozen() && frozen == frozen.freeze() && persistent.isFrozen();
+        arena.reset();
+        JSON.deserialize("{'e':'z'}", arena);
+        assert "y".equals(frozen.asString()) && "y".equals(persistent.peek("e").asString());
+
+    }
+
+    @Test
+    public void testNumberArrays() {
+
+        JSONElement longs = JSON.deserialize("[1,-2,300]");
+        assert longs.isList() && longs.isNumberArray();
+        assert Arrays.equals(new long[]{1, -2, 300}, longs.asLongArray());
+        assert Arrays.equals(new double[]{1, -2, 300}, longs.asDoubleArray());
+        assert longs.equals(JSON.deserializeLazily("[1,-2,300]"));
+        assert JSON.deserializeLazily("[1,-2,300]").equals(longs);
+        assert longs.hashCode() == JSON.deserializeLazily("[1,-2,300]").hashCode();
+        assert "[1,-2,300]".equals(longs.toString());
+        assert longs.peek(2).asValue().equals(300L);
+
+        JSONElement doubles = JSON.deserialize("{'d':[0.5,2e3]}").peek("d");
+        assert doubles.isNumberArray();
+        assert Arrays.equals(new double[]{0.5, 2000}, doubles.asDoubleArray());
+        assert "[0.5,2000.0]".equals(doubles.toString());
+
+        assert !JSON.deserialize("[1,2.5]").isNumberArray();
+        // numbers of another kind read on to a plain list instead of boxing the array
+        for (String s : new String[]{"[1,2.5]", "[0,0.5,1]", "[1,12345678901234567890]", "[1.5,2]"}) {
+            assert JSONElement.newList().getClass() == JSON.deserialize(s).getClass();
+            assert JSON.deserialize(s).equals(JSON.deserializeLazily(s));
+        }
+        assert 2.5 == JSON.deserialize("[1,2.5]").peek(1).asDouble() && JSON.deserialize("[1,2.5]").peek(0).asValue().equals(1L);
+        assert !JSON.deserialize("[1,'a']").isNumberArray();
+        assert !JSON.deserialize("[]").isNumberArray();
+        assert !JSON.deserialize("['a',1]").isNumberArray() && 1 == JSON.deserialize("['a',1]").peek(1).asInt();
+        assert !JSON.deserialize("[[1],2]").isNumberArray() && JSON.deserialize("[[1],2]").peek(0).isNumberArray();
+        assert "[1,[2],3]".equals(JSON.deserialize("[1,[2],3]").toString());
+        assert JSON.deserialize("[1,'a']").equals(JSON.deserializeLazily("[1,'a']"));
+
+        longs.offer("x");
+        assert !longs.isNumberArray();
+        assert "[1,-2,300,\"x\"]".equals(longs.toString());
+
+        DModel d = JSON.deserialize("{'a':1,'c':[4,5,6]}").toObject(DModel.class);
+        assert Arrays.equals(new int[]{4, 5, 6}, d.c);
+        assert JSONElement.newInstance(new double[]{1.5}).isNumberArray();
+
+    }
+
+    @Test
+    public void testShapes() {
+
+        JSONElement records = JSON.deserialize("[{'id':1,'name':'a','tags':[]},{'id':2,'name':'b','tags':['x']},{'id':3,'name':'c','tags':[]}]");
+        JSONElement r0 = records.peek(0);
+        JSONElement r1 = records.peek(1);
+        JSONElement r2 = records.peek(2);
+
+        r0.poll("name");
+        r1.offer("extra", true);
+        r2.offer("id", 4);
+        assert "{\"id\":1,\"tags\":[]}".equals(r0.toString());
+        assert "{\"id\":2,\"name\":\"b\",\"tags\":[\"x\"],\"extra\":true}".equals(r1.toString());
+        assert "{\"id\":4,\"name\":\"c\",\"tags\":[]}".equals(r2.toString());
+        assert JSON.deserialize("{'id':3,'name':'c','tags':[]}").equals(JSON.deserialize("[{'id':3,'name':'c','tags':[]}]").peek(0));
+
+    }
+
+    @Test
+    public void testPaths() {
+
+        String s = "{'user':{'id':7,'name':'n','tags':['a','b']},'items':[{'price':1.5,'sku':'x'},{'sku':'y'},{'price':3,'sku':'z'}],'extra':{'deep':[[[]]]},'x\\u0079':1}";
+
+        assert "{\"user\":{\"id\":7},\"items\":[{\"price\":1.5},{},{\"price\":3}]}".equals(JSON.deserialize(s, "$.user.id", "$.items[*].price").toString());
+        assert "{\"items\":[{\"price\":1.5,\"sku\":\"x\"},{\"sku\":\"y\"},{\"sku\":\"z\"}]}".equals(JSON.deserialize(s, "$.items[0]", "$['items'][*].sku").toString());
+        assert "{\"user\":{\"tags\":[null,\"b\"]},\"xy\":1}".equals(JSON.deserialize(s, "$.user.tags[1]", "$.xy", "$.missing.id").toString());
+        JSONElement indexed = JSON.deserialize(s, "$.items[2]").peek("items");
+        assert 3 == indexed.size() && indexed.peek(0).isVoid() && indexed.peek(1).isVoid();
+        assert "z".equals(indexed.peek(2).peek("sku").asString()) && JSON.deserialize(s).peek("items").peek(2).equals(indexed.peek(2));
+        assert JSON.deserialize(s).equals(JSON.deserialize(s, "$"));
+        assert JSON.deserialize(s, "$.user.id.more").peek("user").isEmpty();
+
+        try {
+            JSON.deserialize(s, "$.items[x]");
+            assert false;
+        } catch (IllegalArgumentException ignored) {
+        }
+
+    }
+
+    @Test
+    public void testLazy() {
+
+        String[] ss = {
+                "{'a':'b','c':{'d':'e'},'f':{'g':\"h\"},'i':[{'j':'k','l':'m'},'n']}",
+                "[123,123.45,'123.45','2019-01-02 03:04:05',true,false,null]",
+                "{null:null}",
+                "[,,]",
+                "[[[[[,]]]]]",
+                "{a:{b:}}",
+                "[[[],[]],[[]],[],[{},{},null]]",
+                "{\"a\":\"'\\ud83d\\udc4c\\t\\n\"}",
+                "[\"\"]",
+                "'abc'",
+                "[1,[2"
+        };
+        for (String s : ss) {
+            assert JSON.deserialize(s).equals(JSON.deserializeLazily(s));
+            assert JSON.deserialize(s).toString().equals(JSON.deserializeLazily(s).toString());
+        }
+
+        JSONElement element = JSON.deserializeLazily("{\"a\":1,\"b\":\"bbb\",\"c\":[1,2,3],\"d\":[\"a\",\"b\",\"c\"],\"e\":[{\"a\":5}],\"f\":{\"aaaa\":\"bbbb\"}}");
+
+        assert element.isMap();
+        assert 5 == element.peek("e").peek(0).peek("a").asInt();
+        assert element.peek("c").isList();
+        element.offer("g", "h");
+        assert 7 == element.size();
+
+        DModel d = element.toObject(DModel.class);
+        assert 1 == d.a;
+        assert Arrays.equals(new String[]{"a", "b", "c"}, d.d);
+        assert "bbbb".equals(d.f.get("aaaa"));
+
+    }
+
+    @Test
+    public void testParallel() {
+
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 20000; i++) {
+            sb.append("{'a':").append(i).append(",'b':'],\\'[,',\"c\":[,{}]},");
+        }
+        String s = sb.append(" ]").toString();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            JSONElement element = JSON.deserializeParallel(s, pool);
+            assert JSON.deserialize(s).equals(element);
+            assert 20001 == element.size();
+            assert 19999 == element.peek(19999).peek("a").asInt();
+            assert "],'[,".equals(element.peek(19999).peek("b").asString());
+            assert "[1,2]".equals(JSON.deserializeParallel("[1,2]", pool).toString());
+            assert "{\"a\":1}".equals(JSON.deserializeParallel("{a:1}", pool).toString());
+
+            // read in place by chunks, numbers kept unboxed across them
+            StringBuilder numbers = new StringBuilder("[");
+            for (int i = 0; i < 50000; i++) {
+                numbers.append(0 == i ? "" : ",").append(i);
+            }
+            JSONElement longs = JSON.deserializeParallel(numbers.append("]").toString(), pool);
+            assert longs.isNumberArray() && 50000 == longs.size() && 49999 == longs.peek(49999).asInt();
+            assert longs.equals(JSON.deserialize(numbers.toString()));
+            String blanks = numbers.toString().replace(",7,", ",,").replace("]", ",]");
+            assert JSON.deserialize(blanks).equals(JSON.deserializeParallel(blanks, pool));
+            // chunks of longs and of doubles are joined as a plain list
+            StringBuilder halves = new StringBuilder(numbers.substring(0, numbers.length() - 1));
+            for (int i = 0; i < 50000; i++) {
+                halves.append(',').append(i).append(".5");
+            }
+            String mixed = halves.append(']').toString();
+            JSONElement joined = JSON.deserializeParallel(mixed, pool);
+            assert JSONElement.newList().getClass() == joined.getClass() && joined.equals(JSON.deserialize(mixed));
+        } finally {
+            pool.shutdown();
+        }
+
+    }
+
+    @Test
+    public void testTape() {
+
+        String[] ss = {
+                "{'a':'b','c':{'d':'e'},'f':{'g':\"h\"},'i':[{'j':'k','l':'m'},'n']}",
+                "[123,123.45,'123.45','2019-01-02 03:04:05',true,false,null]",
+                "[-1,9223372036854775807,-9223372036854775808,123456789012345678901234567890,1.5e300]",
+                "[[[],[]],[[]],[],[{},{},null]]",
+                "{\"a\":\"'\\ud83d\\udc4c\\t\\n\"}",
+                "'abc'",
+                "[1,[2",
+                "{'a':1,'a':2}",
+                "{'a':[1,{'b':2.5}],'c':{'d':[]},'a':{'e':[9223372036854775807,{'f':1}]},'g':1.5,'c':3}",
+                "{'1':1,'2':2,'3':3,'4':4,'5':5,'6':6,'7':7,'8':8,'9':9,'10':10,'1':{'a':['b']},'11':11}"
+        };
+        for (String s : ss) {
+            assert JSON.deserialize(s).equals(JSON.deserializeToTape(s));
+            assert JSON.deserialize(s).toString().equals(JSON.deserializeToTape(s).toString());
+            assert JSON.deserialize(s).toString().equals(JSON.deserialize(s).toTape().toString());
+        }
+
+        JSONElement element = JSON.deserializeToTape("{\"a\":1,\"b\":\"bbb\",\"c\":[1,2,3],\"d\":[\"a\",\"b\",\"c\"],\"e\":[{\"a\":5}],\"f\":{\"aaaa\":\"bbbb\"}}");
+
+        assert element.isMap() && element.isFrozen() && element == element.toTape();
+        assert 5 == element.peek("e").peek(0).peek("a").asInt();
+        assert element.peek("c").isList() && 3 == element.peek("c").size();
+        assert element.peek("g").isVoid() && !element.containsKey("g");
+        try {
+            element.offer("g", "h");
+            assert false;
+        } catch (UnsupportedOperationException ignored) {
+        }
+
+        DModel d = element.toObject(DModel.class);
+        assert 1 == d.a;
+        assert Arrays.equals(new String[]{"a", "b", "c"}, d.d);
+        assert "bbbb".equals(d.f.get("aaaa"));
+
+        JSONElement v = element.persist().offer("g", "h");
+        assert 7 == v.size() && 6 == element.size();
+
+        JSONElement duplicated = JSON.deserializeToTape("{\"a\":1,\"a\":2}");
+        assert 1 == duplicated.size() && 2 == duplicated.peek("a").asInt();
+
+        // nested maps are read anew on every peek, which must not index them again
+        StringBuilder sb = new StringBuilder("{\"m\":{");
+        for (int i = 0; i < 20000; i++) {
+            sb.append(0 == i ? "" : ",").append("\"k").append(i).append("\":").append(i);
+        }
+        JSONElement nested = JSON.deserializeToTape(sb.append("}}").toString());
+        long start = System.nanoTime();
+        for (int i = 0; i < 20000; i++) {
+            assert i == nested.peek("m").peek("k" + i).asInt();
+        }
+        assert System.nanoTime() - start < 2_000_000_000L;
+
+    }
+
 }
@@ -0,0 +1,478 @@
+package com.jiruffe.jiraffe;
+
+import com.jiruffe.jiraffe.analyzer.StringAnalyzer;
+import com.jiruffe.jiraffe.model.DModel;
+import com.jiruffe.jiraffe.model.JSONElement;
+import com.jiruffe.jiraffe.util.SymbolTable;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * @author Jiruffe
+ * 2026.10.18
+ */
+public class ReaderTest {
+
+    @Test
+    public void testTokens() {
+
+        JSONReader reader = new JSONReader("{'a':[1,true,null,'b'],c:{}}");
+
+        assert JSONToken.BEGIN_MAP == reader.nextToken();
+        assert JSONToken.NAME == reader.nextToken();
+        assert "a".equals(reader.name());
+        assert JSONToken.BEGIN_LIST == reader.nextToken();
+        assert JSONToken.NUMBER == reader.nextToken();
+        assert "1".equals(reader.value());
+        assert JSONToken.BOOLEAN == reader.nextToken();
+        assert JSONToken.VOID == reader.nextToken();
+        assert JSONToken.STRING == reader.nextToken();
+        assert "b".equals(reader.value());
+        assert JSONToken.END_LIST == reader.nextToken();
+        assert JSONToken.NAME == reader.nextToken();
+        assert "c".equals(reader.name());
+        assert JSONToken.BEGIN_MAP == reader.nextToken();
+        assert 2 == reader.depth();
+        assert JSONToken.END_MAP == reader.nextToken();
+        assert JSONToken.END_MAP == reader.nextToken();
+        assert JSONToken.END_DOCUMENT == reader.nextToken();
+
+    }
+
+    @Test
+    public void testSkipValue() {
+
+        JSONReader reader = new JSONReader("{\"a\":{\"b\":[1,{\"c\":\"}\"}]},\"d\":\"e\\\"\"}");
+
+        assert JSONToken.BEGIN_MAP == reader.nextToken();
+        assert JSONToken.NAME == reader.nextToken();
+        reader.skipValue();
+        assert JSONToken.NAME == reader.nextToken();
+        assert "d".equals(reader.name());
+        assert JSONToken.STRING == reader.nextToken();
+        assert "e\"".equals(reader.value());
+
+    }
+
+    @Test
+    public void testText() {
+
+        char[] json = "[ 'a\\tb' , 123 ,abc ]".toCharArray();
+        JSONReader reader = new JSONReader(json);
+
+        assert JSONToken.BEGIN_LIST == reader.nextToken();
+        assert JSONToken.STRING == reader.nextToken();
+        assert "a\\tb".contentEquals(reader.text());
+        assert "a\tb".equals(reader.value());
+        assert JSONToken.NUMBER == reader.nextToken();
+        assert "123".contentEquals(reader.text());
+        assert JSONToken.STRING == reader.nextToken();
+        assert "abc".equals(reader.value());
+        assert JSONToken.END_LIST == reader.nextToken();
+        assert '[' == json[0];
+
+    }
+
+    @Test
+    public void testOffset() {
+
+        // longer than the buffer, so that the offsets are read across refills
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 5000; i++) {
+            sb.append(0 == i ? "" : ",").append("{'k").append(i).append("':[").append(i).append(",'v\\n").append(i).append("']}");
+        }
+        String json = sb.append("]").toString();
+        ByteBuffer direct = ByteBuffer.allocateDirect(json.length());
+        direct.put(json.getBytes(StandardCharsets.UTF_8)).flip();
+
+        JSONReader[] readers = {
+                new JSONReader(json),
+                new JSONReader(json.toCharArray()),
+                new JSONReader(new StringReader(json)),
+                new JSONReader(json.getBytes(StandardCharsets.UTF_8)),
+                new JSONReader(direct)
+        };
+        for (JSONReader reader : readers) {
+            int n = 0;
+            for (JSONToken token = reader.nextToken(); JSONToken.END_DOCUMENT != token; token = reader.nextToken()) {
+                if (reader.text().length() > 0) {
+                    int offset = (int) reader.offset();
+                    assert json.substring(offset, offset + reader.text().length()).contentEquals(reader.text());
+                    n++;
+                }
+            }
+            assert 15000 == n;
+        }
+
+        JSONReader reader = new JSONReader("xx[1,23]", 2, 6);
+        assert JSONToken.BEGIN_LIST == reader.nextToken();
+        assert JSONToken.NUMBER == reader.nextToken();
+        assert 3 == reader.offset();
+        assert JSONToken.NUMBER == reader.nextToken();
+        assert 5 == reader.offset();
+
+    }
+
+    @Test
+    public void testLongToken() {
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+
+        JSONElement element = JSON.deserialize(new StringReader("['" + sb + "'," + sb + "]"));
+
+        assert sb.toString().equals(element.peek(0).asString());
+        assert sb.toString().equals(element.peek(1).asString());
+
+    }
+
+    @Test
+    public void testInputStream() {
+
+        String s = "{\"a\":1,\"b\":\"bbb\",\"c\":[1,2,3],\"d\":[\"a\",\"b\",\"c\"],\"e\":[{\"a\":5}],\"f\":{\"aaaa\":\"北京\"}}";
+
+        assert "北京".equals(JSON.deserialize(new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8))).peek("f").peek("aaaa").asString());
+
+        DModel d = JSON.parse(new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8)), DModel.class);
+
+        assert null != d;
+        assert 1 == d.a;
+        assert Arrays.equals(new int[]{1, 2, 3}, d.c);
+        assert "北京".equals(d.f.get("aaaa"));
+
+    }
+
+    @Test
+    public void testBytes() {
+
+        String s = "{\"a\":1,\"b\":\"b\\tb\",\"c\":[1,2,3],\"f\":{\"北京\":\"上海\\\"\"}}";
+        byte[] bytes = ("  " + s + "  ").getBytes(StandardCharsets.UTF_8);
+
+        JSONElement element = JSON.deserialize(bytes, 2, bytes.length - 4);
+        assert "b\tb".equals(element.peek("b").asString());
+        assert "上海\"".equals(element.peek("f").peek("北京").asString());
+
+        ByteBuffer heap = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+
+        assert element.equals(JSON.deserialize(heap));
+        assert element.equals(JSON.deserialize(direct));
+        assert 1 == heap.position();
+        assert 0 == direct.position();
+
+        DModel d = JSON.parse(direct, DModel.class);
+
+        assert null != d;
+        assert 1 == d.a;
+        assert "b\tb".equals(d.b);
+        assert Arrays.equals(new int[]{1, 2, 3}, d.c);
+        assert "上海\"".equals(d.f.get("北京"));
+
+    }
+
+    @Test
+    public void testBytesWordBoundaries() {
+
+        // quotes, backslashes and non-ASCII chars at every offset of the 8-byte words
+        for (int i = 0; i < 20; i++) {
+            for (String c : new String[]{"\\\"", "\\\\", "北", "'"}) {
+                StringBuilder sb = new StringBuilder("[        \"");
+                for (int j = 0; j < 20; j++) {
+                    sb.append(i == j ? c : "a");
+                }
+                String s = sb.append("\",          1]").toString();
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                assert JSON.deserialize(s).equals(JSON.deserialize(bytes, 0, bytes.length));
+            }
+        }
+
+    }
+
+    @Test
+    public void testPath() throws IOException {
+
+        String s = "{\"a\":1,\"b\":\"bbbbbbbbbbbbbbbbbbbb\",\"c\":[1,2,3],\"f\":{\"北京\":\"上海\"}}";
+        Path path = Files.createTempFile("jiraffe", ".json");
+
+        try {
+            Files.write(path, s.getBytes(StandardCharsets.UTF_8));
+
+            JSONElement element = JSON.deserialize(path);
+            assert "上海".equals(element.peek("f").peek("北京").asString());
+
+            // tiny windows so that tokens span the window boundaries
+            try (JSONReader reader = new JSONReader(new ByteSource(FileChannel.open(path), 7))) {
+                assert element.equals(StringAnalyzer.analyze(reader));
+            }
+
+            DModel d = JSON.parse(path, DModel.class);
+            assert null != d;
+            assert "bbbbbbbbbbbbbbbbbbbb".equals(d.b);
+            assert "上海".equals(d.f.get("北京"));
+        } finally {
+            Files.delete(path);
+        }
+
+    }
+
+    @Test
+    public void testSnapshot() throws IOException {
+
+        String s = "{\"a\":1,\"b\":\"bbbbbbbbbbbbbbbbbbbb\",\"c\":[1,2,3.5],\"d\":[\"a\",\"b\",\"c\"],\"f\":{\"北京\":\"上海\"},\"g\":[null,true,123456789012345678901234567890]}";
+        Path path = Files.createTempFile("jiraffe", ".snapshot");
+        Path other = Files.createTempFile("jiraffe", ".snapshot");
+
+        try {
+            JSONElement origin = JSON.deserialize(s);
+            origin.writeSnapshot(path);
+
+            JSONElement element = JSON.openSnapshot(path);
+            assert origin.equals(element) && origin.toString().equals(element.toString());
+            assert "上海".equals(element.peek("f").peek("北京").asString());
+            assert 3.5 == element.peek("c").peek(2).asDouble();
+            assert element.isFrozen();
+
+            DModel d = element.toObject(DModel.class);
+            assert "bbbbbbbbbbbbbbbbbbbb".equals(d.b);
+            assert "上海".equals(d.f.get("北京"));
+
+            // a sub-element is written as a new snapshot
+            element.peek("f").writeSnapshot(other);
+            assert element.peek("f").equals(JSON.openSnapshot(other));
+
+            // keys compared in place and strings decoded again once evicted
+            JSONElement large = JSONElement.newMap();
+            for (int i = 0; i < 10000; i++) {
+                large.offer((i % 7 == 0 ? "北" : "k") + i, "v" + i);
+            }
+            large.writeSnapshot(other);
+            JSONElement mapped = JSON.openSnapshot(other);
+            for (int round = 0; round < 2; round++) {
+                for (int i = 0; i < 10000; i++) {
+                    assert ("v" + i).equals(mapped.peek((i % 7 == 0 ? "北" : "k") + i).asString());
+                }
+            }
+            assert mapped.peek("k7").isVoid() && mapped.peek("北").isVoid() && !mapped.containsKey("");
+            assert large.equals(mapped);
+
+            Files.write(other, s.getBytes(StandardCharsets.UTF_8));
+            try {
+                JSON.openSnapshot(other);
+                assert false;
+            } catch (IllegalArgumentException ignored) {
+            }
+        } finally {
+            Files.delete(path);
+            Files.delete(other);
+        }
+
+    }
+
+    @Test
+    public void testRecords() throws IOException {
+
+        List<String> records = new ArrayList<>();
+        try (JSONRecordReader<JSONElement> reader = JSON.records(new StringReader("{\"a\":1}{\"a\":\"}{\"}\n[1,\n 2] 'x\\'' 3,true\n\n{a:{b:[]}}"))) {
+            reader.forEachRemaining(e -> records.add(e.toString()));
+        }
+        assert Arrays.asList("{\"a\":1}", "{\"a\":\"}{\"}", "[1,2]", "x'", "3", "true", "{\"a\":{\"b\":[]}}").equals(records);
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            sb.append(i % 1000 == 7 ? "{\"a\":\"x\"}" : "{\"a\":" + i + ",\"b\":\"bbb\"}").append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+
+        List<String> errors = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (JSONRecordReader<DModel> reader = JSON.<DModel>records(new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8)), DModel.class)
+                .delimitedByLines()
+                .parallel(executor, 64)
+                .onError(JSONRecordReader.ErrorPolicy.SKIP, (record, e) -> errors.add(record))) {
+            int expected = 0;
+            while (reader.hasNext()) {
+                if (expected % 1000 == 7) {
+                    expected++;
+                }
+                DModel d = reader.next();
+                assert expected++ == d.a;
+                assert "bbb".equals(d.b);
+            }
+            assert 10000 == expected;
+        } finally {
+            executor.shutdown();
+        }
+        assert 10 == errors.size();
+        assert "{\"a\":\"x\"}".equals(errors.get(0));
+
+        try (JSONRecordReader<DModel> reader = JSON.records(new StringReader("{\"a\":\"x\"}\n{\"a\":1}"), DModel.class)) {
+            reader.next();
+            assert false;
+        } catch (ClassCastException e) {
+            // fails by default
+        }
+
+        // records ended before their maps and lists are closed
+        String broken = "{\"a\":1}\n{\"a\":\n[1,2\n\"x\"\n";
+        try (JSONRecordReader<JSONElement> reader = JSON.records(new StringReader(broken)).delimitedByLines()) {
+            assert 1 == reader.next().peek("a").asInt();
+            reader.next();
+            assert false;
+        } catch (IllegalArgumentException e) {
+            // fails by default
+        }
+        errors.clear();
+        records.clear();
+        try (JSONRecordReader<JSONElement> reader = JSON.records(new ByteArrayInputStream(broken.getBytes(StandardCharsets.UTF_8))).delimitedByLines()
+                .onError(JSONRecordReader.ErrorPolicy.SKIP, (record, e) -> errors.add(record))) {
+            reader.forEachRemaining(e -> records.add(e.toString()));
+        }
+        assert Arrays.asList("{\"a\":1}", "x").equals(records);
+        assert Arrays.asList("{\"a\":", "[1,2").equals(errors);
+        try (JSONRecordReader<DModel> reader = JSON.<DModel>records(new StringReader(broken), DModel.class).delimitedByLines()
+                .onError(JSONRecordReader.ErrorPolicy.VOID)) {
+            assert 1 == reader.next().a;
+            assert null == reader.next();
+            assert null == reader.next();
+            reader.next();
+            assert !reader.hasNext();
+        }
+        try (JSONRecordReader<JSONElement> reader = JSON.records(new StringReader("[1] {\"a\":[2")).onError(JSONRecordReader.ErrorPolicy.VOID)) {
+            assert "[1]".equals(reader.next().toString());
+            assert reader.next().isVoid();
+            assert !reader.hasNext();
+        }
+
+    }
+
+    @Test
+    public void testPushParser() {
+
+        String s = "{\"a\":1,\"b\":\"b\\\"b\",\"c\":[1.5,true,null],\"f\":{\"北京\":\"上海\"}} [12345] 'x' true";
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+
+        // one byte at a time, splitting tokens and UTF-8 sequences
+        JSONPushParser parser = new JSONPushParser();
+        List<JSONElement> elements = new ArrayList<>();
+        for (byte b : bytes) {
+            parser.feed(new byte[]{b}, 0, 1);
+            JSONElement element;
+            while (null != (element = parser.nextElement())) {
+                elements.add(element);
+            }
+        }
+        assert 3 == elements.size();
+        assert JSON.deserialize(s).equals(elements.get(0));
+        assert "[12345]".equals(elements.get(1).toString());
+        assert "x".equals(elements.get(2).asString());
+        // the literal could still go on until the end
+        parser.end();
+        assert parser.nextElement().asBoolean();
+        assert null == parser.nextElement();
+
+        parser = new JSONPushParser();
+        parser.feed(ByteBuffer.wrap(bytes, 0, 10));
+        assert JSONToken.BEGIN_MAP == parser.nextToken();
+        assert JSONToken.NAME == parser.nextToken();
+        assert "a".equals(parser.name());
+        assert JSONToken.NUMBER == parser.nextToken();
+        // the name is complete, but not the colon after it
+        assert JSONToken.NEED_INPUT == parser.nextToken();
+        assert JSONToken.NEED_INPUT == parser.nextToken();
+        ByteBuffer rest = ByteBuffer.wrap(bytes, 10, bytes.length - 10);
+        parser.feed(rest).end();
+        assert !rest.hasRemaining();
+        assert JSONToken.NAME == parser.nextToken();
+        assert "b".equals(parser.name());
+        assert JSONToken.STRING == parser.nextToken();
+        assert "b\"b".equals(parser.value());
+
+    }
+
+    @Test
+    public void testUnknownField() {
+
+        DModel d = JSON.parse("{\"x\":{\"y\":[1,{}]},\"a\":1,\"z\":[[]],\"b\":\"bbb\"}", DModel.class);
+
+        assert null != d;
+        assert 1 == d.a;
+        assert "bbb".equals(d.b);
+
+    }
+
+    @Test
+    public void testSymbols() {
+
+        String s = "[{\"name\":\"red\",\"n\\u0061me\":1},{\"name\":\"red\"}]";
+
+        JSONReader r = new JSONReader(s);
+        List<String> names = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        for (JSONToken t = r.nextToken(); JSONToken.END_DOCUMENT != t; t = r.nextToken()) {
+            if (JSONToken.NAME == t) {
+                names.add(r.name());
+            } else if (JSONToken.STRING == t) {
+                values.add(r.value());
+            }
+        }
+        assert names.get(0) == names.get(2);
+        assert "name".equals(names.get(1));
+        assert values.get(0) == values.get(1);
+
+        r = new JSONReader(s.getBytes(StandardCharsets.UTF_8));
+        r.nextToken();
+        r.nextToken();
+        r.nextToken();
+        assert names.get(0) == r.name();
+
+        SymbolTable table = new SymbolTable(2, 4);
+        char[] chars = "abcdeabcde".toCharArray();
+        assert table.lookup(chars, 0, 3) == table.lookup(chars, 5, 3);
+        assert table.lookup(chars, 0, 5) != table.lookup(chars, 5, 5);
+        assert "abcde".equals(table.lookup(chars, 5, 5));
+
+    }
+
+    @Test
+    public void testSkip() {
+
+        String s = "{'x':{'y':['}',\"]\\\"[\",{'z':it's}]},'a':1,'w':[[],{}],'b':'b'}";
+
+        DModel d = JSON.parse(s, DModel.class);
+        assert 1 == d.a;
+        assert "b".equals(d.b);
+
+        for (JSONReader reader : Arrays.asList(new JSONReader(s), new JSONReader(new StringReader(s)), new JSONReader(s.getBytes(StandardCharsets.UTF_8)))) {
+            assert JSONToken.BEGIN_MAP == reader.nextToken();
+            reader.skipValue();
+            assert JSONToken.NAME == reader.nextToken();
+            assert "a".equals(reader.name());
+            reader.skipValue();
+            assert JSONToken.NAME == reader.nextToken();
+            assert JSONToken.BEGIN_LIST == reader.nextToken();
+            reader.skipToEnd();
+            assert 1 == reader.depth();
+            assert JSONToken.NAME == reader.nextToken();
+            assert "b".equals(reader.name());
+            reader.skipToEnd();
+            assert JSONToken.END_DOCUMENT == reader.nextToken();
+        }
+
+    }
+
+}